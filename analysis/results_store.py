@@ -0,0 +1,108 @@
+"""Reader for the consolidated columnar results store written by simulation.store.ResultsStore.
+
+Columns are raw little-endian arrays, memory-mapped on demand, so loading one column across every run
+reads only that column's file:
+
+    store = ResultsStore("../output/store")
+    runs = store.runs()                                   # one row per run, from index.json
+    exec_times = store.tasks(["execTime"], runs)          # task rows of those runs, with run metadata
+    lateness = store.tasks(["lateness"], runs)            # NaN for tasks without a deadline
+    missed = runs["deadlines.missRate"]                   # per run, NaN for workloads without deadlines
+    curves = store.series(["vmId", "time", "cpuPercent"], runs)  # downsampled utilization curves
+"""
+import json
+from pathlib import Path
+from typing import Iterable, List, Optional
+
+import numpy as np
+import pandas as pd
+
+
+class ResultsStore:
+    SUPPORTED_VERSION = 1
+
+    def __init__(self, directory):
+        self.directory = Path(directory)
+        with open(self.directory / "index.json", "r") as f:
+            self.index = json.load(f)
+        if self.index["version"] != self.SUPPORTED_VERSION:
+            raise ValueError(f"Unsupported results store version {self.index['version']}")
+        self._maps = {}
+
+    @staticmethod
+    def exists(directory) -> bool:
+        return (Path(directory) / "index.json").exists()
+
+    def runs(self, latest_only: bool = True) -> pd.DataFrame:
+        """One row per run. With latest_only, keeps the most recent run of each (workload, policy).
+
+        Nested fields are flattened, e.g. decisionLatency.p99Nanos (NaN for runs recorded without it) and
+        deadlines.missRate, deadlines.p99Lateness (NaN for workloads without deadlines).
+        """
+        runs = pd.json_normalize(self.index["runs"])
+        if latest_only and not runs.empty:
+            runs = runs.sort_values("runId").drop_duplicates(["workload", "policy"], keep="last")
+        return runs.reset_index(drop=True)
+
+    def column(self, table: str, name: str) -> np.ndarray:
+        """The whole column across all runs, memory-mapped (dictionary columns stay as codes)."""
+        key = (table, name)
+        if key not in self._maps:
+            spec = self._column_spec(table, name)
+            rows = self.index["tables"][table]["rows"]
+            if rows == 0:
+                self._maps[key] = np.empty(0, dtype=spec["dtype"])
+            else:
+                self._maps[key] = np.memmap(self.directory / spec["file"], dtype=spec["dtype"],
+                                            mode="r", shape=(rows,))
+        return self._maps[key]
+
+    def tasks(self, columns: Iterable[str], runs: Optional[pd.DataFrame] = None) -> pd.DataFrame:
+        return self._rows("tasks", "taskRowOffset", "taskRowCount", columns, runs)
+
+    def vms(self, columns: Iterable[str], runs: Optional[pd.DataFrame] = None) -> pd.DataFrame:
+        return self._rows("vms", "vmRowOffset", "vmRowCount", columns, runs)
+
+    def series(self, columns: Iterable[str], runs: Optional[pd.DataFrame] = None) -> pd.DataFrame:
+        """Downsampled per-VM utilization curves (vmId, time, cpuPercent, ...); only runs recorded with FULL metrics."""
+        if "series" not in self.index["tables"]:
+            return pd.DataFrame(columns=["runId", *columns])
+        if runs is None:
+            runs = self.runs()
+        if "seriesRowCount" not in runs:
+            runs = runs.assign(seriesRowOffset=0, seriesRowCount=0)
+        runs = runs.fillna({"seriesRowOffset": 0, "seriesRowCount": 0})
+        return self._rows("series", "seriesRowOffset", "seriesRowCount", columns, runs)
+
+    def _rows(self, table: str, offset_key: str, count_key: str, columns: Iterable[str],
+              runs: Optional[pd.DataFrame]) -> pd.DataFrame:
+        if runs is None:
+            runs = self.runs()
+        offsets = runs[offset_key].to_numpy(dtype=np.int64)
+        counts = runs[count_key].to_numpy(dtype=np.int64)
+
+        # Row indices of the selected runs, in run order
+        selection = _ranges(offsets, counts)
+
+        data = {"runId": np.repeat(runs["runId"].to_numpy(), counts)}
+        for name in columns:
+            values = np.asarray(self.column(table, name)[selection])
+            dictionary = self._column_spec(table, name).get("dictionary")
+            if dictionary:
+                values = pd.Categorical.from_codes(values, self.index["dictionaries"][dictionary])
+            data[name] = values
+        return pd.DataFrame(data)
+
+    def _column_spec(self, table: str, name: str) -> dict:
+        for spec in self.index["tables"][table]["columns"]:
+            if spec["name"] == name:
+                return spec
+        raise KeyError(f"No column {name!r} in table {table!r}")
+
+
+def _ranges(offsets: np.ndarray, counts: np.ndarray) -> np.ndarray:
+    total = int(counts.sum())
+    if total == 0:
+        return np.empty(0, dtype=np.int64)
+    starts = np.repeat(offsets - np.concatenate(([0], np.cumsum(counts)[:-1])), counts)
+    return starts + np.arange(total, dtype=np.int64)
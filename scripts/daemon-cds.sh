@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Builds an AppCDS archive for the simulation daemon and starts it with the archive.
+#
+# The first run executes the warm-up jobs and dumps every class they loaded (CloudSim Plus, logback, Gson,
+# the simulation code) into target/daemon.jsa; later JVMs map that archive instead of loading and verifying
+# the classes again. CDS only accepts JAR files on the class path, so the compiled classes are jarred first.
+# Rebuild the archive after changing the code or the dependencies (the JVM refuses a stale one with a warning).
+#
+# Usage: scripts/daemon-cds.sh [daemon args...]     e.g. scripts/daemon-cds.sh --port 7071
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+ARCHIVE=target/daemon.jsa
+APP_JAR=target/simulation-daemon.jar
+WARMUP=config/daemon/warmup.jsonl
+MAIN=simulation.daemon.SimulationDaemon
+
+if [[ ! -f "$ARCHIVE" || -n "$(find src/main/java pom.xml -newer "$ARCHIVE" -print -quit)" ]]; then
+    mvn -B -q compile
+    mvn -B -q dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+    jar --create --file "$APP_JAR" -C target/classes .
+
+    # Requires JDK 13+ (dynamic archive)
+    java -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$APP_JAR:$(cat target/classpath.txt)" "$MAIN" \
+        < "$WARMUP" > /dev/null
+    echo "Wrote $ARCHIVE" >&2
+fi
+
+exec java -XX:SharedArchiveFile="$ARCHIVE" -cp "$APP_JAR:$(cat target/classpath.txt)" "$MAIN" "$@"
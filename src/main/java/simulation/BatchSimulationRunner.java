@@ -1,6 +1,11 @@
 package simulation;
 
 import simulation.algorithms.*;
+import simulation.pipeline.SimulationPipeline;
+import simulation.pipeline.WorkloadLoader;
+import simulation.store.ResultsStore;
+import simulation.topology.TopologyConfig;
+import task.utils.BinaryTaskFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -8,7 +13,6 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -17,12 +21,15 @@ public class BatchSimulationRunner {
 
     private static final Path TASKS_DIR = Path.of("output/tasks");
 
+    private static final Path TOPOLOGY_FILE = TopologyConfig.DEFAULT_TOPOLOGY_FILE;
+
     private static final int THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
 
     private static final List<Class<? extends CloudletVmSelectionPolicy>> POLICY_CLASSES = List.of(
             RoundRobinCloudletVmPolicy.class,
             WeightedResourcePolicy.class,
-            SortedTaskBestFitPolicy.class
+            SortedTaskBestFitPolicy.class,
+            EarliestFinishTimePolicy.class
     );
 
     public static void main(String[] args) {
@@ -36,45 +43,60 @@ public class BatchSimulationRunner {
             return;
         }
 
+        ResultsStore store;
+        try {
+            store = ResultsStore.open(ResultsStore.DEFAULT_DIR);
+        } catch (IOException e) {
+            System.err.println("Failed to open results store " + ResultsStore.DEFAULT_DIR + ": " + e.getMessage());
+            return;
+        }
+
+        TopologyConfig topology;
+        try {
+            topology = TopologyConfig.load(TOPOLOGY_FILE);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to load topology " + TOPOLOGY_FILE + ": " + e.getMessage());
+            return;
+        }
+
         int totalRuns = taskFiles.size() * POLICY_CLASSES.size();
 
         System.out.println("=".repeat(80));
-        System.out.println("BATCH SIMULATION RUNNER (PARALLEL)");
+        System.out.println("BATCH SIMULATION RUNNER (PIPELINED)");
         System.out.println("=".repeat(80));
         System.out.printf("Found %d task files and %d policies%n", taskFiles.size(), POLICY_CLASSES.size());
+        System.out.printf("Topology: %s (%d hosts, %d VMs)%n",
+                topology.name, topology.getHostCount(), topology.getVmCount());
         System.out.printf("Total simulations to run: %d%n", totalRuns);
-        System.out.printf("Thread pool size: %d%n", THREAD_POOL_SIZE);
+        System.out.printf("Simulate threads: %d (I/O stages on %s)%n", THREAD_POOL_SIZE,
+                SimulationPipeline.isUsingVirtualThreads() ? "virtual threads" : "platform threads");
         System.out.println("=".repeat(80));
         System.out.println();
 
-        List<SimulationTask> tasks = new ArrayList<>();
+        List<WorkloadLoader> loaders = new ArrayList<>(taskFiles.size());
         for (Path taskFile : taskFiles) {
-            for (Class<? extends CloudletVmSelectionPolicy> policyClass : POLICY_CLASSES) {
-                tasks.add(new SimulationTask(taskFile, policyClass));
-            }
+            loaders.add(WorkloadLoader.fromJson(taskFile));
         }
 
         AtomicInteger completed = new AtomicInteger(0);
         long batchStartTime = System.currentTimeMillis();
 
-        ExecutorService executor = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
-        List<Future<SimulationResult>> futures = new ArrayList<>();
-
-        for (SimulationTask task : tasks) {
-            futures.add(executor.submit(() -> runSimulation(task, completed, totalRuns)));
-        }
+        // FULL adds the downsampled utilization curves, which only the results store keeps
+        SimulationPipeline pipeline = new SimulationPipeline(POLICY_CLASSES, topology, THREAD_POOL_SIZE)
+                .setMetricLevel(MetricLevel.FULL)
+                .setReportSink(WorkloadSimulationRunner.WRITE_JSON.andThen(store.asReportSink()));
 
         List<SimulationResult> results = new ArrayList<>();
-        for (Future<SimulationResult> future : futures) {
-            try {
-                results.add(future.get());
-            } catch (InterruptedException | ExecutionException e) {
-                System.err.println("Failed to get result: " + e.getMessage());
+        try {
+            for (SimulationPipeline.JobResult job : pipeline.run(loaders, job -> printProgress(job, completed, totalRuns))) {
+                results.add(new SimulationResult(job.workload, job.policy, job.success, job.elapsedMs, job.errorMessage));
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Batch interrupted");
+            return;
         }
 
-        executor.shutdown();
-
         long batchElapsedMs = System.currentTimeMillis() - batchStartTime;
 
         results.sort(Comparator
@@ -85,40 +107,19 @@ public class BatchSimulationRunner {
         printSummary(results, batchElapsedMs);
     }
 
-    private static SimulationResult runSimulation(SimulationTask task, AtomicInteger completed, int total) {
-        String fileName = task.taskFile.getFileName().toString();
-        String policyName = task.policyClass.getSimpleName();
-
-        long startTime = System.currentTimeMillis();
-        boolean success = true;
-        String errorMessage = null;
-
-        try {
-            CloudletVmSelectionPolicy policy = task.policyClass.getDeclaredConstructor().newInstance();
-
-            WorkloadSimulationRunner runner = new WorkloadSimulationRunner(policy);
-            runner.run(task.taskFile, false);
-        } catch (Exception e) {
-            success = false;
-            errorMessage = e.getMessage();
-        }
-
-        long elapsedMs = System.currentTimeMillis() - startTime;
-
+    private static void printProgress(SimulationPipeline.JobResult job, AtomicInteger completed, int total) {
         int done = completed.incrementAndGet();
         synchronized (System.out) {
             System.out.printf("\r[%d/%d] Completed: %s + %s (%d ms)%s",
-                    done, total, truncate(fileName, 25), truncate(policyName, 20), elapsedMs,
+                    done, total, truncate(job.workload, 25), truncate(job.policy, 20), job.elapsedMs,
                     " ".repeat(20));
         }
-
-        return new SimulationResult(fileName, policyName, success, elapsedMs, errorMessage);
     }
 
     private static List<Path> getTaskFiles() {
         try (Stream<Path> paths = Files.list(TASKS_DIR)) {
             return paths
-                    .filter(p -> p.toString().endsWith(".json"))
+                    .filter(p -> p.toString().endsWith(".json") || BinaryTaskFile.isBinary(p))
                     .filter(p -> !p.getFileName().toString().equals("tasks.json"))
                     .sorted()
                     .collect(Collectors.toList());
@@ -176,7 +177,7 @@ public class BatchSimulationRunner {
         }
 
         System.out.println();
-        System.out.println("Results written to: output/results/");
+        System.out.println("Results written to: output/results/ and appended to " + ResultsStore.DEFAULT_DIR);
     }
 
     private static String truncate(String s, int maxLen) {
@@ -184,16 +185,6 @@ public class BatchSimulationRunner {
         return s.substring(0, maxLen - 3) + "...";
     }
 
-    private static class SimulationTask {
-        final Path taskFile;
-        final Class<? extends CloudletVmSelectionPolicy> policyClass;
-
-        SimulationTask(Path taskFile, Class<? extends CloudletVmSelectionPolicy> policyClass) {
-            this.taskFile = taskFile;
-            this.policyClass = policyClass;
-        }
-    }
-
     private static class SimulationResult {
         final String taskFile;
         final String policy;
@@ -0,0 +1,95 @@
+package simulation;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletExecution;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.listeners.EventInfo;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Stops a run once it provably cannot beat the incumbent (best makespan found so far) by more than a margin.
+ *
+ * Checked on every clock tick. The makespan lower bound is
+ * {@code lastTick + remainingMI / fleetMIPS}: the fleet cannot execute the outstanding work faster than at
+ * full capacity. Progress of running cloudlets is only known as of the datacenter's last processing update,
+ * which is no earlier than the previous tick, so the bound uses the previous tick's time to stay valid.
+ */
+class EarlyTermination {
+
+    private final CloudSimPlus simulation;
+    private final List<Vm> vms;
+    private final DoubleSupplier incumbent;
+    private final double margin;
+    private final double fleetMips;
+
+    // Total MI (length * PEs) of every cloudlet that has not finished yet
+    private double unfinishedMi;
+    private int unfinishedCount;
+    private double lastTick;
+    private boolean terminated;
+    private double lowerBound;
+
+    EarlyTermination(CloudSimPlus simulation, List<Vm> vms, List<Cloudlet> cloudlets,
+                     DoubleSupplier incumbent, double margin) {
+        this.simulation = simulation;
+        this.vms = vms;
+        this.incumbent = incumbent;
+        this.margin = margin;
+        this.fleetMips = vms.stream().mapToDouble(vm -> vm.getMips() * vm.getPesNumber()).sum();
+
+        for (Cloudlet c : cloudlets) {
+            unfinishedMi += (double) c.getLength() * c.getPesNumber();
+            unfinishedCount++;
+            c.addOnFinishListener(evt -> {
+                unfinishedMi -= (double) evt.getCloudlet().getLength() * evt.getCloudlet().getPesNumber();
+                unfinishedCount--;
+            });
+        }
+        simulation.addOnClockTickListener(this::onClockTick);
+    }
+
+    private void onClockTick(EventInfo evt) {
+        double now = evt.getTime();
+        double previousTick = lastTick;
+        lastTick = now;
+
+        double best = incumbent.getAsDouble();
+        // Once every cloudlet has finished the clock no longer says anything about the makespan
+        if (terminated || unfinishedCount == 0 || Double.isInfinite(best)) {
+            return;
+        }
+        double limit = best * (1.0 + margin);
+
+        double bound = Math.max(now, previousTick + remainingMi() / fleetMips);
+        if (bound > limit) {
+            terminated = true;
+            lowerBound = bound;
+            simulation.terminate();
+        }
+    }
+
+    private double remainingMi() {
+        double executed = 0;
+        for (Vm vm : vms) {
+            for (CloudletExecution ce : vm.getCloudletScheduler().getCloudletExecList()) {
+                Cloudlet c = ce.getCloudlet();
+                executed += (double) c.getFinishedLengthSoFar() * c.getPesNumber();
+            }
+        }
+        return Math.max(0.0, unfinishedMi - executed);
+    }
+
+    boolean isTerminated() {
+        return terminated;
+    }
+
+    /**
+     * Lower bound on the makespan at the moment the run was stopped (0 if it ran to completion).
+     */
+    double getLowerBound() {
+        return lowerBound;
+    }
+}
@@ -0,0 +1,192 @@
+package simulation;
+
+import simulation.algorithms.*;
+import simulation.pipeline.GeneratedWorkloadLoader;
+import simulation.pipeline.SimulationPipeline;
+import simulation.pipeline.WorkloadLoader;
+import simulation.topology.TopologyConfig;
+import task.CreateTasks;
+import task.model.WorkloadType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pipeline mode of {@link BatchSimulationRunner} for sweeps over workload parameters: workloads come straight
+ * from the generator in memory ({@link GeneratedWorkloadLoader}) instead of CreateTasks' files, so there is no
+ * JSON written and parsed per workload. The pipeline generates them lazily, a couple ahead of the simulations,
+ * on its parse threads.
+ *
+ * Runs keep no per-run report files; the summary gives the mean makespan per workload configuration and policy
+ * over the seeds. Set {@link #PERSIST_DIR} to also keep the generated workloads as task files.
+ */
+public class GeneratedBatchRunner {
+
+    private static final Path TOPOLOGY_FILE = TopologyConfig.DEFAULT_TOPOLOGY_FILE;
+
+    private static final int THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static final List<Class<? extends CloudletVmSelectionPolicy>> POLICY_CLASSES = List.of(
+            RoundRobinCloudletVmPolicy.class,
+            WeightedResourcePolicy.class,
+            SortedTaskBestFitPolicy.class,
+            EarliestFinishTimePolicy.class
+    );
+
+    // Sweep parameters
+    private static final int[] TASK_COUNTS = {200, 1000};
+    private static final WorkloadType[] WORKLOAD_TYPES = {
+            WorkloadType.BALANCED,
+            WorkloadType.CPU_HEAVY,
+            WorkloadType.RAM_HEAVY
+    };
+    private static final long[][] LENGTH_RANGES = {
+            {50_000L, 500_000L},
+            {CreateTasks.MIN_LENGTH, CreateTasks.MAX_LENGTH}
+    };
+    private static final int SEEDS = 3;
+
+    // null keeps workloads in memory only
+    private static final Path PERSIST_DIR = null;
+    // private static final Path PERSIST_DIR = Path.of("output/tasks/generated");
+
+    public static void main(String[] args) {
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        TopologyConfig topology;
+        try {
+            topology = TopologyConfig.load(TOPOLOGY_FILE);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to load topology " + TOPOLOGY_FILE + ": " + e.getMessage());
+            return;
+        }
+
+        // Loaders are only parameters until the pipeline loads them
+        List<WorkloadLoader> loaders = new ArrayList<>();
+        Map<String, String> configurationOf = new LinkedHashMap<>();
+        for (int taskCount : TASK_COUNTS) {
+            for (WorkloadType workloadType : WORKLOAD_TYPES) {
+                for (long[] lengthRange : LENGTH_RANGES) {
+                    for (int i = 0; i < SEEDS; i++) {
+                        GeneratedWorkloadLoader loader =
+                                new GeneratedWorkloadLoader(taskCount, workloadType, CreateTasks.RANDOM_SEED + i)
+                                        .setLengthRange(lengthRange[0], lengthRange[1]);
+                        if (PERSIST_DIR != null) {
+                            loader.setPersistDirectory(PERSIST_DIR, ".json");
+                        }
+                        loaders.add(loader);
+                        configurationOf.put(loader.getName(), String.format("%d %s %d-%d",
+                                taskCount, workloadType.name().toLowerCase(), lengthRange[0], lengthRange[1]));
+                    }
+                }
+            }
+        }
+
+        int totalRuns = loaders.size() * POLICY_CLASSES.size();
+
+        System.out.println("=".repeat(80));
+        System.out.println("GENERATED WORKLOAD BATCH RUNNER (IN-MEMORY PIPELINE)");
+        System.out.println("=".repeat(80));
+        System.out.printf("%d workloads (%d configurations x %d seeds) and %d policies%n",
+                loaders.size(), loaders.size() / SEEDS, SEEDS, POLICY_CLASSES.size());
+        System.out.printf("Topology: %s (%d hosts, %d VMs)%n",
+                topology.name, topology.getHostCount(), topology.getVmCount());
+        System.out.printf("Total simulations to run: %d%n", totalRuns);
+        System.out.printf("Simulate threads: %d%n", THREAD_POOL_SIZE);
+        System.out.println("Workloads persisted to: " + (PERSIST_DIR == null ? "(none)" : PERSIST_DIR));
+        System.out.println("=".repeat(80));
+        System.out.println();
+
+        AtomicInteger completed = new AtomicInteger(0);
+        long startTime = System.currentTimeMillis();
+
+        SimulationPipeline pipeline = new SimulationPipeline(POLICY_CLASSES, topology, THREAD_POOL_SIZE)
+                .setReportSink(null);
+
+        List<SimulationPipeline.JobResult> results;
+        try {
+            results = pipeline.run(loaders, job -> {
+                int done = completed.incrementAndGet();
+                synchronized (System.out) {
+                    System.out.printf("\r[%d/%d] Completed: %s + %s (%d ms)%s", done, totalRuns,
+                            job.workload, job.policy, job.elapsedMs, " ".repeat(10));
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Batch interrupted");
+            return;
+        }
+
+        long elapsedMs = System.currentTimeMillis() - startTime;
+        System.out.println();
+        printSummary(results, configurationOf, elapsedMs);
+    }
+
+    private static void printSummary(List<SimulationPipeline.JobResult> results,
+                                     Map<String, String> configurationOf, long wallClockTimeMs) {
+        // configuration -> policy -> {sum of makespans, runs}
+        Map<String, Map<String, double[]>> makespans = new LinkedHashMap<>();
+        for (String configuration : new LinkedHashSet<>(configurationOf.values())) {
+            makespans.put(configuration, new LinkedHashMap<>());
+        }
+        List<SimulationPipeline.JobResult> failed = new ArrayList<>();
+        long totalSimTimeMs = 0;
+
+        for (SimulationPipeline.JobResult result : results) {
+            totalSimTimeMs += result.elapsedMs;
+            if (!result.success) {
+                failed.add(result);
+                continue;
+            }
+            double[] sum = makespans.get(configurationOf.get(result.workload))
+                    .computeIfAbsent(result.policy, p -> new double[2]);
+            sum[0] += result.summary.makespan;
+            sum[1]++;
+        }
+
+        System.out.println();
+        System.out.println("=".repeat(114));
+        System.out.println("MEAN MAKESPAN PER CONFIGURATION (tasks, type, length range) OVER " + SEEDS + " SEEDS");
+        System.out.println("=".repeat(114));
+        System.out.printf("%-30s", "Configuration");
+        for (Class<? extends CloudletVmSelectionPolicy> policyClass : POLICY_CLASSES) {
+            System.out.printf(" %20s", abbreviate(policyClass.getSimpleName()));
+        }
+        System.out.println();
+        System.out.println("-".repeat(114));
+
+        for (Map.Entry<String, Map<String, double[]>> entry : makespans.entrySet()) {
+            System.out.printf("%-30s", entry.getKey());
+            for (Class<? extends CloudletVmSelectionPolicy> policyClass : POLICY_CLASSES) {
+                double[] sum = entry.getValue().get(policyClass.getSimpleName());
+                System.out.printf(" %20s", sum == null ? "-" : String.format(Locale.US, "%.1f", sum[0] / sum[1]));
+            }
+            System.out.println();
+        }
+        System.out.println("-".repeat(114));
+
+        System.out.printf("Successful: %d, failed: %d%n", results.size() - failed.size(), failed.size());
+        System.out.printf("Sum of individual times: %d ms (%.2f seconds)%n", totalSimTimeMs, totalSimTimeMs / 1000.0);
+        System.out.printf("Actual wall-clock time:  %d ms (%.2f seconds)%n", wallClockTimeMs, wallClockTimeMs / 1000.0);
+
+        if (!failed.isEmpty()) {
+            System.out.println();
+            System.out.println("ERRORS:");
+            for (SimulationPipeline.JobResult result : failed) {
+                System.out.printf("  - %s + %s: %s%n", result.workload, result.policy, result.errorMessage);
+            }
+        }
+    }
+
+    private static String abbreviate(String policy) {
+        return policy.endsWith("Policy") ? policy.substring(0, policy.length() - "Policy".length()) : policy;
+    }
+}
@@ -0,0 +1,130 @@
+package simulation;
+
+import simulation.instrumentation.LatencyHistogram;
+
+/**
+ * Fixed-footprint distribution of signed times in seconds (lateness, due times), on the log-linear scale of
+ * {@link LatencyHistogram} at millisecond resolution: about 30 KB whatever the number of values, and
+ * percentiles within about 3%. Negative values are bucketed by magnitude in their own counts. Unlike
+ * LatencyHistogram, values can be removed again; count, sum and the number of positive values stay exact.
+ *
+ * Used by {@link TaskStatsStream}, whose deadline stats would otherwise need every task's lateness.
+ */
+final class LatenessHistogram {
+
+    private static final double UNITS_PER_SECOND = 1000.0;
+
+    private final long[] positive = new long[LatencyHistogram.BUCKET_COUNT];
+    private final long[] negative = new long[LatencyHistogram.BUCKET_COUNT];
+    private long count;
+    private long positiveCount;
+    private double sum;
+
+    void add(double seconds) {
+        add(seconds, 1);
+    }
+
+    void remove(double seconds) {
+        add(seconds, -1);
+    }
+
+    private void add(double seconds, long n) {
+        long units = Math.round(Math.abs(seconds) * UNITS_PER_SECOND);
+        (seconds < 0 ? negative : positive)[LatencyHistogram.bucketOf(units)] += n;
+        count += n;
+        sum += n * seconds;
+        if (seconds > 0) {
+            positiveCount += n;
+        }
+    }
+
+    void add(LatenessHistogram other) {
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            positive[i] += other.positive[i];
+            negative[i] += other.negative[i];
+        }
+        count += other.count;
+        positiveCount += other.positiveCount;
+        sum += other.sum;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getSum() {
+        return sum;
+    }
+
+    /**
+     * Values strictly above 0, e.g. missed deadlines.
+     */
+    long getPositiveCount() {
+        return positiveCount;
+    }
+
+    /**
+     * Adds every value of the other histogram mapped through {@code offset - value}, at its bucket's
+     * resolution: with due times, the lateness of tasks still unfinished when the clock reads offset.
+     */
+    void addReflected(LatenessHistogram other, double offset) {
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            if (other.positive[i] != 0) {
+                add(offset - bucketValue(i), other.positive[i]);
+            }
+            if (other.negative[i] != 0) {
+                add(offset + bucketValue(i), other.negative[i]);
+            }
+        }
+    }
+
+    /**
+     * Nearest-rank percentile, as {@link WorkloadSimulationRunner.DeadlineStats} computes it, reported at the
+     * middle of the bucket holding it. 0 when empty.
+     */
+    double getPercentile(double p) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * count));
+        long seen = 0;
+        // Ascending: negative values from the largest magnitude down, then positive ones
+        for (int i = LatencyHistogram.BUCKET_COUNT - 1; i >= 0; i--) {
+            seen += negative[i];
+            if (seen >= rank) {
+                return -bucketValue(i);
+            }
+        }
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            seen += positive[i];
+            if (seen >= rank) {
+                return bucketValue(i);
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Largest value, at its bucket's resolution.
+     */
+    double getMax() {
+        for (int i = LatencyHistogram.BUCKET_COUNT - 1; i >= 0; i--) {
+            if (positive[i] != 0) {
+                return bucketValue(i);
+            }
+        }
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            if (negative[i] != 0) {
+                return -bucketValue(i);
+            }
+        }
+        return 0.0;
+    }
+
+    // Middle of the bucket's range of magnitudes, in seconds
+    private static double bucketValue(int index) {
+        long lower = index == 0 ? 0 : LatencyHistogram.bucketUpperBound(index - 1) + 1;
+        long upper = LatencyHistogram.bucketUpperBound(index);
+        return (lower + upper) / 2.0 / UNITS_PER_SECOND;
+    }
+}
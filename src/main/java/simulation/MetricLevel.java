@@ -0,0 +1,21 @@
+package simulation;
+
+/**
+ * How much resource utilization a run collects. Makespan and per-task stats are always available.
+ *
+ * Overhead relative to OFF, measured with MetricLevelBenchmark (tasks_1000_balanced, default topology,
+ * WeightedResourcePolicy, median of 7 interleaved runs on one core):
+ * <pre>
+ *   OFF      no utilization stats, no clock-tick sampling     baseline
+ *   SUMMARY  streaming mean and peak of CPU and RAM per VM,    +17% wall time, +25% allocation
+ *            and the policy's decision latency histogram
+ *   FULL     SUMMARY plus the per-VM CPU/RAM time series      wall time as SUMMARY (within noise), +48% allocation
+ *            (downsampled on the fly to at most 200 points per VM, see DownsampledSeries)
+ * </pre>
+ * Use OFF for sweeps and tuning loops, and SUMMARY (the default) or FULL for runs whose reports are kept.
+ */
+public enum MetricLevel {
+    OFF,
+    SUMMARY,
+    FULL
+}
@@ -0,0 +1,55 @@
+package simulation;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import task.utils.TaskUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes run reports to output/results as pretty-printed JSON, named
+ * {@code <workload>_<policy>_task_stats.json} and {@code <workload>_<policy>_machine_stats.json}.
+ */
+public enum ResultsWriter {
+    INSTANCE;
+
+    public static final Path OUTPUT_DIR = Path.of("output/results");
+
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    public Path writeTaskReport(WorkloadSimulationRunner.TaskCompletionReport report) throws IOException {
+        Path outputPath = resolve(report.workloadFile, report.policy, "task_stats");
+        write(report, outputPath);
+        System.out.printf("%nTask stats written to: %s%n", outputPath);
+        return outputPath;
+    }
+
+    public Path writeMachineReport(WorkloadSimulationRunner.MachineUtilizationReport report) throws IOException {
+        Path outputPath = resolve(report.workloadFile, report.policy, "machine_stats");
+        write(report, outputPath);
+        System.out.printf("Machine stats written to: %s%n", outputPath);
+        return outputPath;
+    }
+
+    /**
+     * Opens the task stats file for writing tasks one by one as they finish (see {@link TaskStatsStream}).
+     */
+    public TaskStatsStream openTaskStatsStream(String workloadName, String policyName) throws IOException {
+        return new TaskStatsStream(resolve(workloadName, policyName, "task_stats"), policyName, workloadName);
+    }
+
+    public Path resolve(String workloadName, String policyName, String kind) throws IOException {
+        Files.createDirectories(OUTPUT_DIR);
+        String baseName = TaskUtils.INSTANCE.workloadName(workloadName);
+        return OUTPUT_DIR.resolve(baseName + "_" + policyName + "_" + kind + ".json");
+    }
+
+    private void write(Object report, Path outputPath) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(outputPath)) {
+            gson.toJson(report, writer);
+        }
+    }
+}
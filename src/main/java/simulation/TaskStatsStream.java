@@ -0,0 +1,186 @@
+package simulation;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import task.model.DeadlineCloudlet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes each cloudlet's {@link WorkloadSimulationRunner.TaskStats} to the task stats file as soon as it
+ * finishes, and keeps only aggregates of a fixed size in memory (per-VM task counts, the waiting time sum and
+ * {@link LatenessHistogram}s for the deadline stats), so neither the file nor the run's summary needs the
+ * finished cloudlets. Streamed deadline percentiles are therefore within about 3% of the exact ones.
+ *
+ * The file is the same document as a {@link WorkloadSimulationRunner.TaskCompletionReport}, except that tasks
+ * appear in finish order and the summary fields (makespan, simulationClock, totalTasks) come after them.
+ */
+public class TaskStatsStream implements Closeable {
+
+    private final Path path;
+    private final Writer writer;
+    private final JsonWriter json;
+    private final Gson gson = new Gson();
+    private final Map<Long, Long> taskCounts = new HashMap<>();
+    private int expectedCount;
+    private int finishedCount;
+    private double makespan;
+    private double waitingTimeSum;
+    // Lateness of the finished tasks with a deadline, and the due times of those not finished yet
+    private final LatenessHistogram lateness = new LatenessHistogram();
+    private final LatenessHistogram pendingDueTimes = new LatenessHistogram();
+    private double maxLateness = Double.NEGATIVE_INFINITY;
+
+    TaskStatsStream(Path path, String policyName, String workloadName) throws IOException {
+        this.path = path;
+        this.writer = Files.newBufferedWriter(path);
+        this.json = new JsonWriter(writer);
+        json.setIndent("  ");
+        json.beginObject();
+        json.name("policy").value(policyName);
+        json.name("workloadFile").value(workloadName);
+        json.name("tasks").beginArray();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Registers a task before the run, so that its deadline counts as missed should it never finish.
+     */
+    public void expect(Cloudlet cloudlet) {
+        expectedCount++;
+        double dueTime = DeadlineCloudlet.dueTimeOf(cloudlet);
+        if (dueTime < Double.POSITIVE_INFINITY) {
+            pendingDueTimes.add(dueTime);
+        }
+    }
+
+    /**
+     * Called from the cloudlet finish listener.
+     */
+    public void record(Cloudlet cloudlet) {
+        record(cloudlet, cloudlet.getWaitingTime());
+    }
+
+    public void record(Cloudlet cloudlet, double waitingTime) {
+        WorkloadSimulationRunner.TaskStats stats = new WorkloadSimulationRunner.TaskStats(cloudlet, waitingTime);
+        // Gson reports write failures as JsonIOException
+        gson.toJson(stats, WorkloadSimulationRunner.TaskStats.class, json);
+
+        taskCounts.merge(stats.vmId, 1L, Long::sum);
+        finishedCount++;
+        makespan = Math.max(makespan, stats.finishTime);
+        waitingTimeSum += stats.waitingTime;
+        if (stats.lateness != null) {
+            pendingDueTimes.remove(DeadlineCloudlet.dueTimeOf(cloudlet));
+            lateness.add(stats.lateness);
+            maxLateness = Math.max(maxLateness, stats.lateness);
+        }
+    }
+
+    public int getFinishedCount() {
+        return finishedCount;
+    }
+
+    public double getMakespan() {
+        return makespan;
+    }
+
+    /**
+     * Mean waiting time of the finished tasks, 0 when none finished.
+     */
+    public double getMeanWaitingTime() {
+        return finishedCount == 0 ? 0.0 : waitingTimeSum / finishedCount;
+    }
+
+    /**
+     * Same as {@link WorkloadSimulationRunner.DeadlineStats#of(java.util.List, double)} over the tasks
+     * registered with {@link #expect}: those not finished count with their lateness at the given clock.
+     * Count and mean are exact; percentiles, and the maximum when a task is unfinished, are within the
+     * histogram's resolution.
+     *
+     * @return null when no task has a deadline
+     */
+    public WorkloadSimulationRunner.DeadlineStats getDeadlineStats(double simulationClock) {
+        LatenessHistogram unfinished = new LatenessHistogram();
+        unfinished.addReflected(pendingDueTimes, simulationClock);
+        LatenessHistogram all = new LatenessHistogram();
+        all.add(lateness);
+        all.add(unfinished);
+        long count = all.getCount();
+        if (count == 0) {
+            return null;
+        }
+
+        WorkloadSimulationRunner.DeadlineStats stats = new WorkloadSimulationRunner.DeadlineStats();
+        stats.tasksWithDeadline = (int) count;
+        stats.missed = (int) all.getPositiveCount();
+        stats.missRate = (double) stats.missed / count;
+        double unfinishedSum = pendingDueTimes.getCount() * simulationClock - pendingDueTimes.getSum();
+        stats.meanLateness = (lateness.getSum() + unfinishedSum) / count;
+        stats.p50Lateness = all.getPercentile(0.50);
+        stats.p99Lateness = all.getPercentile(0.99);
+        stats.maxLateness = unfinished.getCount() == 0 ? maxLateness : Math.max(maxLateness, unfinished.getMax());
+        return stats;
+    }
+
+    /**
+     * Finished tasks per VM id.
+     */
+    public Map<Long, Long> getTaskCounts() {
+        return taskCounts;
+    }
+
+    /**
+     * Writes the summary fields and closes the file.
+     */
+    public void finish(double simulationClock) throws IOException {
+        finish(simulationClock, null);
+    }
+
+    /**
+     * Writes the summary fields, with the deadline stats unless null, and closes the file.
+     */
+    public void finish(double simulationClock, WorkloadSimulationRunner.DeadlineStats deadlines) throws IOException {
+        json.endArray();
+        json.name("makespan").value(makespan);
+        json.name("simulationClock").value(simulationClock);
+        // All registered tasks, finished or not, as in a report built from the broker's cloudlet list
+        json.name("totalTasks").value(Math.max(expectedCount, finishedCount));
+        if (deadlines != null) {
+            json.name("deadlines");
+            gson.toJson(deadlines, WorkloadSimulationRunner.DeadlineStats.class, json);
+        }
+        json.endObject();
+        close();
+    }
+
+    /**
+     * Closes the file, complete or not. JsonWriter#close would reject a document whose task array is still
+     * open, so the underlying writer is closed instead.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Closes the file without completing it and deletes it, for runs whose stats are not kept.
+     */
+    public void abort() throws IOException {
+        try {
+            writer.close();
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
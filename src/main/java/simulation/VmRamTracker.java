@@ -2,6 +2,7 @@ package simulation;
 
 import org.cloudsimplus.cloudlets.Cloudlet;
 import org.cloudsimplus.vms.Vm;
+import simulation.timeseries.DownsampledSeries;
 
 import java.util.HashMap;
 import java.util.List;
@@ -9,6 +10,7 @@ import java.util.Map;
 
 /**
  * Tracks RAM utilization statistics for VMs over time.
+ * Optionally also records each VM's CPU and RAM utilization over time (see {@link DownsampledSeries}).
  */
 public class VmRamTracker {
 
@@ -38,6 +40,23 @@ public class VmRamTracker {
         }
     }
 
+    // Null unless time series are recorded
+    private final DownsampledSeries.Method seriesMethod;
+    private final int seriesPoints;
+    private final Map<Vm, DownsampledSeries> timeSeries = new HashMap<>();
+
+    public VmRamTracker() {
+        this(0, null);
+    }
+
+    /**
+     * Also records each VM's CPU and RAM utilization over time, downsampled to at most seriesPoints points.
+     */
+    public VmRamTracker(int seriesPoints, DownsampledSeries.Method seriesMethod) {
+        this.seriesPoints = seriesPoints;
+        this.seriesMethod = seriesMethod;
+    }
+
     private final Map<Vm, RamStats> vmStats = new HashMap<>();
 
     public void recordSnapshot(List<Vm> vms, double currentTime) {
@@ -66,6 +85,11 @@ public class VmRamTracker {
             double utilization = capacity > 0 ? totalDemandMB / capacity : 0.0;
 
             vmStats.get(vm).record(utilization);
+
+            if (seriesMethod != null) {
+                timeSeries.computeIfAbsent(vm, k -> new DownsampledSeries(seriesPoints))
+                        .add(currentTime, vm.getCpuPercentUtilization(), utilization);
+            }
         }
     }
 
@@ -79,6 +103,16 @@ public class VmRamTracker {
         return stats != null ? stats.getPeak() : 0.0;
     }
 
+    /**
+     * The VM's downsampled series, or null if time series are not recorded.
+     */
+    public DownsampledSeries.Points getTimeSeries(Vm vm) {
+        if (seriesMethod == null) {
+            return null;
+        }
+        return timeSeries.getOrDefault(vm, new DownsampledSeries(seriesPoints)).toPoints(seriesMethod);
+    }
+
     public int getSampleCount(Vm vm) {
         RamStats stats = vmStats.get(vm);
         return stats != null ? stats.count : 0;
@@ -1,38 +1,49 @@
 package simulation;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import org.cloudsimplus.allocationpolicies.VmAllocationPolicySimple;
 import org.cloudsimplus.brokers.DatacenterBrokerSimple;
 import org.cloudsimplus.cloudlets.Cloudlet;
 import org.cloudsimplus.core.CloudSimPlus;
-import org.cloudsimplus.datacenters.Datacenter;
-import org.cloudsimplus.datacenters.DatacenterSimple;
-import org.cloudsimplus.hosts.Host;
-import org.cloudsimplus.hosts.HostSimple;
-import org.cloudsimplus.resources.Pe;
-import org.cloudsimplus.resources.PeSimple;
-import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared;
-import org.cloudsimplus.schedulers.vm.VmSchedulerTimeShared;
 import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
 import org.cloudsimplus.vms.Vm;
-import org.cloudsimplus.vms.VmResourceStats;
-import org.cloudsimplus.vms.VmSimple;
 import simulation.algorithms.*;
+import simulation.algorithms.prescheduling.PreSchedulingCache;
+import simulation.algorithms.prescheduling.PreSchedulingStage;
+import simulation.instrumentation.InstrumentedSelectionPolicy;
+import simulation.instrumentation.LatencyHistogram;
+import simulation.rebalancing.QueueRebalancer;
+import simulation.replay.DecisionLogWriter;
+import simulation.shadow.ShadowSelectionPolicy;
+import simulation.timeseries.DownsampledSeries;
+import simulation.topology.TopologyConfig;
+import simulation.topology.TopologyFactory;
+import task.model.DeadlineCloudlet;
 import task.utils.TaskUtils;
 
 import java.io.IOException;
-import java.io.Writer;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.DoubleSupplier;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 public class WorkloadSimulationRunner {
 
     private final CloudletVmSelectionPolicy vmSelectionPolicy;
-    private final VmRamTracker ramTracker = new VmRamTracker();
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private final TopologyConfig topology;
+    private ReportSink reportSink = WRITE_JSON;
+    private Path decisionLogPath;
+    private boolean streamResults;
+    private MetricLevel metricLevel = MetricLevel.SUMMARY;
+    private int timeSeriesPoints = DEFAULT_TIME_SERIES_POINTS;
+    private DownsampledSeries.Method timeSeriesMethod = DownsampledSeries.Method.LTTB;
+
+    public static final int DEFAULT_TIME_SERIES_POINTS = 200;
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private DoubleSupplier incumbentMakespan;
+    private double pruneMargin;
+    private QueueRebalancer rebalancer;
+    private Map<String, ? extends CloudletVmSelectionPolicy> shadowPolicies;
 
     public static class TaskStats {
         public long id;
@@ -42,15 +53,39 @@ public class WorkloadSimulationRunner {
         public double finishTime;
         public double execTime;
         public double actualCpuTime;
+        // Finish time minus due time (negative when early); only for tasks with a deadline
+        public Double lateness;
+
+        public TaskStats(long id, String status, long vmId, double waitingTime, double finishTime,
+                         double execTime, double actualCpuTime) {
+            this.id = id;
+            this.status = status;
+            this.vmId = vmId;
+            this.waitingTime = waitingTime;
+            this.finishTime = finishTime;
+            this.execTime = execTime;
+            this.actualCpuTime = actualCpuTime;
+        }
 
         public TaskStats(Cloudlet c) {
+            this(c, c.getWaitingTime());
+        }
+
+        /**
+         * With the waiting time measured by the caller, e.g. from before the cloudlet was moved to another VM.
+         */
+        public TaskStats(Cloudlet c, double waitingTime) {
             this.id = c.getId();
             this.status = c.getStatus().toString();
             this.vmId = c.getVm() == null ? -1 : c.getVm().getId();
-            this.waitingTime = c.getWaitingTime();
+            this.waitingTime = waitingTime;
             this.finishTime = c.getFinishTime();
             this.execTime = c.getFinishTime() - c.getExecStartTime();
             this.actualCpuTime = c.getActualCpuTime();
+            double dueTime = DeadlineCloudlet.dueTimeOf(c);
+            if (dueTime < Double.POSITIVE_INFINITY && c.isFinished()) {
+                this.lateness = c.getFinishTime() - dueTime;
+            }
         }
     }
 
@@ -60,6 +95,8 @@ public class WorkloadSimulationRunner {
         public double makespan;
         public double simulationClock;
         public int totalTasks;
+        // Only when the workload has deadlines
+        public DeadlineStats deadlines;
         public List<TaskStats> tasks;
 
         public TaskCompletionReport(String policy, String workloadFile, double makespan, 
@@ -81,6 +118,8 @@ public class WorkloadSimulationRunner {
         public double peakRamPercent;
         public long taskCount;
         public int ramSamples;
+        // Only with MetricLevel.FULL; kept out of the JSON report (the results store holds it in columnar form)
+        public transient VmTimeSeries timeSeries;
 
         public VmStats(long vmId, double avgCpu, double peakCpu, double avgRam, 
                        double peakRam, long taskCount, int ramSamples) {
@@ -94,6 +133,198 @@ public class WorkloadSimulationRunner {
         }
     }
 
+    /**
+     * Downsampled utilization curve of one VM: each point is the mean and peak of the samples it covers.
+     */
+    public static class VmTimeSeries {
+        public double[] time;
+        public double[] cpuPercent;
+        public double[] peakCpuPercent;
+        public double[] ramPercent;
+        public double[] peakRamPercent;
+
+        public VmTimeSeries(double[] time, double[] cpuPercent, double[] peakCpuPercent,
+                            double[] ramPercent, double[] peakRamPercent) {
+            this.time = time;
+            this.cpuPercent = cpuPercent;
+            this.peakCpuPercent = peakCpuPercent;
+            this.ramPercent = ramPercent;
+            this.peakRamPercent = peakRamPercent;
+        }
+
+        public VmTimeSeries(DownsampledSeries.Points points) {
+            this(points.time, toPercent(points.cpuMean), toPercent(points.cpuPeak),
+                    toPercent(points.ramMean), toPercent(points.ramPeak));
+        }
+
+        public int size() {
+            return time.length;
+        }
+
+        private static double[] toPercent(double[] fractions) {
+            double[] percent = new double[fractions.length];
+            for (int i = 0; i < fractions.length; i++) {
+                percent[i] = fractions[i] * 100.0;
+            }
+            return percent;
+        }
+    }
+
+    /**
+     * What the policy's VM selection cost over one run: latency percentiles of the selectVmFor calls (amortised
+     * per decision for policies with their own selectVmsFor), and the bytes they allocated (-1 when the JVM
+     * cannot count allocations).
+     */
+    public static class DecisionLatency {
+        public long decisions;
+        public double meanNanos;
+        public long p50Nanos;
+        public long p99Nanos;
+        public long maxNanos;
+        public long allocatedBytes;
+        public double allocatedBytesPerDecision;
+        // Kept so latencies of several runs or cells can be merged exactly
+        public transient LatencyHistogram histogram;
+
+        public DecisionLatency(LatencyHistogram histogram, long allocatedBytes) {
+            this(histogram.getCount(), histogram.getMean(), histogram.getPercentile(0.50),
+                    histogram.getPercentile(0.99), histogram.getMax(), allocatedBytes);
+            this.histogram = histogram;
+        }
+
+        /**
+         * From the summary values alone, e.g. as read back from a decision log; there is no histogram to merge.
+         */
+        public DecisionLatency(long decisions, double meanNanos, long p50Nanos, long p99Nanos, long maxNanos,
+                               long allocatedBytes) {
+            this.decisions = decisions;
+            this.meanNanos = meanNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.allocatedBytesPerDecision = allocatedBytes < 0 || decisions == 0 ? allocatedBytes
+                    : (double) allocatedBytes / decisions;
+        }
+
+        public static DecisionLatency of(InstrumentedSelectionPolicy policy) {
+            return new DecisionLatency(policy.getLatency(), policy.getAllocatedBytes());
+        }
+    }
+
+    /**
+     * What the queue rebalancer did in one run. The gain over a run without it is measured by
+     * {@link QueueRebalancer#main}.
+     */
+    public static class RebalancingStats {
+        public int moves;
+        public int movedCloudlets;
+        // Rounds that moved at least one cloudlet
+        public int rounds;
+        // Simulated seconds moved cloudlets spent in transit, summed over all moves
+        public double migrationDelay;
+        public double meanWaitingTime;
+
+        public RebalancingStats(int moves, int movedCloudlets, int rounds, double migrationDelay,
+                                double meanWaitingTime) {
+            this.moves = moves;
+            this.movedCloudlets = movedCloudlets;
+            this.rounds = rounds;
+            this.migrationDelay = migrationDelay;
+            this.meanWaitingTime = meanWaitingTime;
+        }
+
+        public RebalancingStats(QueueRebalancer.Session session, double meanWaitingTime) {
+            this(session.getMoves(), session.getMovedCloudlets(), session.getRounds(), session.getMigrationDelay(),
+                    meanWaitingTime);
+        }
+    }
+
+    /**
+     * How the tasks with a deadline fared. Lateness is finish time minus due time, negative for tasks that
+     * finished early; a task that did not finish counts as missed, with its lateness taken at the end of the run.
+     */
+    public static class DeadlineStats {
+        public int tasksWithDeadline;
+        public int missed;
+        public double missRate;
+        public double meanLateness;
+        public double p50Lateness;
+        public double p99Lateness;
+        public double maxLateness;
+
+        /**
+         * @return null when no cloudlet has a deadline
+         */
+        public static DeadlineStats of(List<Cloudlet> cloudlets, double simulationClock) {
+            double[] lateness = new double[cloudlets.size()];
+            int count = 0;
+            for (Cloudlet c : cloudlets) {
+                double dueTime = DeadlineCloudlet.dueTimeOf(c);
+                if (dueTime < Double.POSITIVE_INFINITY) {
+                    lateness[count++] = (c.isFinished() ? c.getFinishTime() : simulationClock) - dueTime;
+                }
+            }
+            return of(lateness, count);
+        }
+
+        /**
+         * From the lateness of the tasks with a deadline, the first count values of the array (sorted in place).
+         *
+         * @return null when count is 0
+         */
+        public static DeadlineStats of(double[] lateness, int count) {
+            if (count == 0) {
+                return null;
+            }
+            Arrays.sort(lateness, 0, count);
+
+            DeadlineStats stats = new DeadlineStats();
+            stats.tasksWithDeadline = count;
+            double sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += lateness[i];
+                if (lateness[i] > 0) {
+                    stats.missed++;
+                }
+            }
+            stats.missRate = (double) stats.missed / count;
+            stats.meanLateness = sum / count;
+            stats.p50Lateness = percentile(lateness, count, 0.50);
+            stats.p99Lateness = percentile(lateness, count, 0.99);
+            stats.maxLateness = lateness[count - 1];
+            return stats;
+        }
+
+        // Nearest rank over the first count (sorted) values
+        private static double percentile(double[] sorted, int count, double p) {
+            int rank = (int) Math.ceil(p * count);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+
+    /**
+     * How a policy's choices over one run score under the analytic completion model
+     * ({@link simulation.shadow.CompletionModel}): the primary policy, whose choices drove the run, or a
+     * candidate shadowing it (see {@link ShadowSelectionPolicy}). Estimates are for comparing policies with
+     * each other; the primary's estimated makespan next to the simulated one shows how far the model is off.
+     */
+    public static class ShadowStats {
+        public String policy;
+        public boolean primary;
+        public long decisions;
+        // Fraction of decisions that chose the same VM as the primary policy
+        public double agreement;
+        public double estimatedMakespan;
+        public double estimatedMeanFlowTime;
+        public double estimatedMeanWaitingTime;
+        // Only when the workload has deadlines
+        public Double estimatedMissRate;
+        public double meanDecisionNanos;
+        // Set when the policy threw; it was dropped from the run and has no estimates
+        public String error;
+    }
+
     public static class MachineUtilizationReport {
         public String policy;
         public String workloadFile;
@@ -101,6 +332,10 @@ public class WorkloadSimulationRunner {
         public List<VmStats> vms;
         public double avgClusterCpuPercent;
         public double avgClusterRamPercent;
+        // Not recorded with MetricLevel.OFF
+        public DecisionLatency decisionLatency;
+        // Only when a queue rebalancer is set
+        public RebalancingStats rebalancing;
 
         public MachineUtilizationReport(String policy, String workloadFile, List<VmStats> vms) {
             this.policy = policy;
@@ -112,111 +347,439 @@ public class WorkloadSimulationRunner {
         }
     }
 
+    /**
+     * Outcome of a single run, returned to callers that drive the runner programmatically (batch, benchmarks).
+     */
+    public static class RunSummary {
+        public String policy;
+        public String workloadFile;
+        public int totalTasks;
+        public int vmCount;
+        public double makespan;
+        public double simulationClock;
+        // Events generated by the engine; all of them are processed once the simulation drains
+        public long eventsProcessed;
+        public long elapsedMs;
+        // Set when the run was stopped by early termination; makespan is then only a lower bound
+        public boolean terminatedEarly;
+        public double makespanLowerBound;
+        // Only when a queue rebalancer is set
+        public RebalancingStats rebalancing;
+        // Only when the workload has deadlines
+        public DeadlineStats deadlines;
+        // Only when shadow policies are set: the primary policy first, then the candidates
+        public List<ShadowStats> shadow;
+
+        public RunSummary(String policy, String workloadFile, int totalTasks, int vmCount, double makespan,
+                          double simulationClock, long eventsProcessed, long elapsedMs) {
+            this.policy = policy;
+            this.workloadFile = workloadFile;
+            this.totalTasks = totalTasks;
+            this.vmCount = vmCount;
+            this.makespan = makespan;
+            this.simulationClock = simulationClock;
+            this.eventsProcessed = eventsProcessed;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+
     public WorkloadSimulationRunner(CloudletVmSelectionPolicy vmSelectionPolicy) {
+        this(vmSelectionPolicy, TopologyConfig.defaultTopology());
+    }
+
+    public WorkloadSimulationRunner(CloudletVmSelectionPolicy vmSelectionPolicy, TopologyConfig topology) {
         this.vmSelectionPolicy = Objects.requireNonNull(vmSelectionPolicy);
+        this.topology = Objects.requireNonNull(topology);
+        topology.validate();
+    }
+
+    /**
+     * Receives the reports of a finished run. The default sink writes them to output/results.
+     */
+    @FunctionalInterface
+    public interface ReportSink {
+        void accept(TaskCompletionReport taskReport, MachineUtilizationReport machineReport) throws IOException;
+
+        default ReportSink andThen(ReportSink next) {
+            return (taskReport, machineReport) -> {
+                accept(taskReport, machineReport);
+                next.accept(taskReport, machineReport);
+            };
+        }
+    }
+
+    public static final ReportSink WRITE_JSON = (taskReport, machineReport) -> {
+        ResultsWriter.INSTANCE.writeTaskReport(taskReport);
+        ResultsWriter.INSTANCE.writeMachineReport(machineReport);
+    };
+
+    /**
+     * Enables or disables writing the task and machine stats JSON files (enabled by default).
+     */
+    public WorkloadSimulationRunner setWriteResults(boolean writeResults) {
+        this.reportSink = writeResults ? WRITE_JSON : null;
+        return this;
+    }
+
+    /**
+     * Hands the reports to the given sink instead of writing them directly, e.g. to write them asynchronously.
+     * Pass null to skip building reports altogether.
+     */
+    public WorkloadSimulationRunner setReportSink(ReportSink reportSink) {
+        this.reportSink = reportSink;
+        return this;
+    }
+
+    /**
+     * Records every dispatch decision and cloudlet lifecycle event of the next run to a binary log
+     * (see {@link DecisionLogWriter}). A path ending in ".gz" is compressed. Pass null to disable.
+     */
+    public WorkloadSimulationRunner setDecisionLog(Path decisionLogPath) {
+        this.decisionLogPath = decisionLogPath;
+        return this;
+    }
+
+    /**
+     * Streams each task's stats to the task stats file as the cloudlet finishes, instead of building the
+     * full report after the run (see {@link TaskStatsStream}). Task counts, makespan, deadline stats and mean
+     * waiting time then come from the running aggregates (deadline percentiles within about 3%), and the machine
+     * stats file is written as usual. The report sink is not used in this mode, and the console output leaves
+     * out the per-cloudlet table. The broker still holds every finished cloudlet: CloudSim Plus only hands out
+     * copies of its finished list.
+     */
+    public WorkloadSimulationRunner setStreamResults(boolean streamResults) {
+        this.streamResults = streamResults;
+        return this;
+    }
+
+    /**
+     * Stops the run as soon as its clock, or the lower bound {@code clock + remaining MI / fleet MIPS} on its
+     * makespan, exceeds {@code incumbent * (1 + margin)}. The incumbent is read on every check, so it can be
+     * shared with (and improved by) runs on other threads. Stopped runs write no reports and are flagged in
+     * the returned {@link RunSummary}. Pass a null incumbent to disable.
+     */
+    public WorkloadSimulationRunner setEarlyTermination(DoubleSupplier incumbentMakespan, double margin) {
+        this.incumbentMakespan = incumbentMakespan;
+        this.pruneMargin = margin;
+        return this;
+    }
+
+    /**
+     * Selects how much utilization data the run collects (SUMMARY by default, see {@link MetricLevel}).
+     * With OFF, the CPU and RAM fields of the machine report are zero and decision latency is not measured.
+     */
+    public WorkloadSimulationRunner setMetricLevel(MetricLevel metricLevel) {
+        this.metricLevel = Objects.requireNonNull(metricLevel);
+        return this;
+    }
+
+    /**
+     * Resolution of the per-VM time series recorded with {@link MetricLevel#FULL}: at most this many points
+     * per VM, reduced on the fly with the given method.
+     */
+    public WorkloadSimulationRunner setTimeSeries(int points, DownsampledSeries.Method method) {
+        this.timeSeriesPoints = points;
+        this.timeSeriesMethod = Objects.requireNonNull(method);
+        return this;
+    }
+
+    /**
+     * Moves waiting cloudlets between VM queues while the simulation runs (see {@link QueueRebalancer}).
+     * The run is then reported under the policy name with a "Rebalanced" suffix. Pass null to disable.
+     */
+    public WorkloadSimulationRunner setRebalancer(QueueRebalancer rebalancer) {
+        this.rebalancer = rebalancer;
+        return this;
+    }
+
+    /**
+     * Before submission, cloudlets are pre-assigned to VMs in chunks of this size through
+     * {@link CloudletVmSelectionPolicy#selectVmsFor}, in submission order, and the broker dispatches each one
+     * to its bound VM. 0 leaves the mapping to the broker, one selectVmFor call per cloudlet.
+     */
+    public WorkloadSimulationRunner setBatchSize(int batchSize) {
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("Batch size must be >= 0");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Offers every decision of the next run to these candidate policies as well, and scores all of them with
+     * an analytic completion model once the run ends (see {@link ShadowSelectionPolicy}); only the runner's
+     * own policy drives the simulation. Candidates are keyed by the name they are reported under, in
+     * iteration order, and must be fresh instances. Pass null or an empty map to disable.
+     */
+    public WorkloadSimulationRunner setShadowPolicies(Map<String, ? extends CloudletVmSelectionPolicy> candidates) {
+        this.shadowPolicies = candidates;
+        return this;
     }
 
-    public void run(Path workloadFile) throws IOException {
-        run(workloadFile, true);
+    public RunSummary run(Path workloadFile) throws IOException {
+        return run(workloadFile, true);
     }
 
-    public void run(Path workloadFile, boolean consoleOutput) throws IOException {
+    public RunSummary run(Path workloadFile, boolean consoleOutput) throws IOException {
+        List<Cloudlet> cloudlets = TaskUtils.INSTANCE.loadCloudlets(workloadFile);
+        return run(workloadFile.getFileName().toString(), cloudlets, consoleOutput);
+    }
+
+    /**
+     * Runs the simulation on an already loaded (or generated) workload.
+     * The cloudlets must be fresh: CloudSim Plus cloudlets cannot be reused across simulations.
+     */
+    public RunSummary run(String workloadName, List<Cloudlet> cloudlets, boolean consoleOutput) throws IOException {
         long startTimeMs = System.currentTimeMillis();
 
         CloudSimPlus simulation = new CloudSimPlus();
 
-        createDatacenter(simulation);
+        TopologyFactory.INSTANCE.createDatacenter(simulation, topology);
         DatacenterBrokerSimple broker = new DatacenterBrokerSimple(simulation);
 
         broker.setShutdownWhenIdle(false);
 
-        List<Vm> vmList = createVms(simulation, 8);
+        List<Vm> vmList = TopologyFactory.INSTANCE.createVms(topology, metricLevel != MetricLevel.OFF);
         broker.submitVmList(vmList);
 
-        Function<Cloudlet, Vm> mapper = cloudlet ->
-                vmSelectionPolicy.selectVmFor(cloudlet, Collections.unmodifiableList(vmList));
+        String policyName = vmSelectionPolicy.getClass().getSimpleName() + (rebalancer == null ? "" : "Rebalanced");
+        DecisionLogWriter decisionLog = decisionLogPath == null ? null
+                : new DecisionLogWriter(decisionLogPath, policyName, workloadName, vmList);
+
+        InstrumentedSelectionPolicy instrumentedPolicy = metricLevel == MetricLevel.OFF ? null
+                : new InstrumentedSelectionPolicy(vmSelectionPolicy);
+        CloudletVmSelectionPolicy measuredPolicy = instrumentedPolicy != null ? instrumentedPolicy : vmSelectionPolicy;
+        // Outside the instrumentation, so the primary's decision latency does not include the candidates
+        ShadowSelectionPolicy shadow = shadowPolicies == null || shadowPolicies.isEmpty() ? null
+                : new ShadowSelectionPolicy(policyName, measuredPolicy, shadowPolicies);
+        CloudletVmSelectionPolicy policy = shadow != null ? shadow : measuredPolicy;
+
+        List<Vm> availableVms = Collections.unmodifiableList(vmList);
+        // Pre-assigned cloudlets are bound to their VM already
+        Function<Cloudlet, Vm> mapper = cloudlet -> cloudlet.isBoundToVm() ? cloudlet.getVm()
+                : policy.selectVmFor(cloudlet, availableVms);
+        if (decisionLog != null) {
+            Function<Cloudlet, Vm> policyMapper = mapper;
+            mapper = cloudlet -> {
+                Vm vm = policyMapper.apply(cloudlet);
+                decisionLog.writeDispatch(cloudlet, vm, simulation.clock());
+                return vm;
+            };
+        }
         broker.setVmMapper(mapper);
 
-        List<Cloudlet> cloudlets = TaskUtils.INSTANCE.loadCloudletsFromJson(workloadFile);
-        cloudlets.forEach(c -> {
+        QueueRebalancer.Session rebalancing = rebalancer == null ? null
+                : rebalancer.attach(simulation, broker, vmList);
+        ToDoubleFunction<Cloudlet> waitingTime = rebalancing == null ? Cloudlet::getWaitingTime
+                : rebalancing::getWaitingTime;
+        if (rebalancing != null && decisionLog != null) {
+            decisionLog.setWaitingTime(waitingTime);
+            rebalancing.setMoveListener((cloudlet, vm) -> decisionLog.writeDispatch(cloudlet, vm, simulation.clock()));
+        }
+
+        TaskStatsStream taskStream = streamResults
+                ? ResultsWriter.INSTANCE.openTaskStatsStream(workloadName, policyName) : null;
+
+        // Ids follow the workload order, so they identify the same task whatever order it is submitted in
+        for (int i = 0; i < cloudlets.size(); i++) {
+            Cloudlet c = cloudlets.get(i);
+            if (c.getId() < 0) {
+                c.setId(i);
+            }
             if (c.getUtilizationModelCpu() == null) {
                 c.setUtilizationModelCpu(new UtilizationModelFull());
             }
-        });
+            if (decisionLog != null) {
+                decisionLog.trackLifecycle(c);
+            }
+            if (taskStream != null) {
+                taskStream.expect(c);
+                c.addOnFinishListener(evt -> taskStream.record(evt.getCloudlet(),
+                        waitingTime.applyAsDouble(evt.getCloudlet())));
+            }
+        }
 
-        if (vmSelectionPolicy instanceof SortedTaskBestFitPolicy) {
-            vmSelectionPolicy.sortTasksByDemand(cloudlets);
+        PreSchedulingStage preScheduling = vmSelectionPolicy.getPreSchedulingStage();
+        if (preScheduling != null) {
+            PreSchedulingCache.INSTANCE.apply(preScheduling, cloudlets);
+        }
+
+        if (batchSize > 0) {
+            for (int from = 0; from < cloudlets.size(); from += batchSize) {
+                List<Cloudlet> chunk = cloudlets.subList(from, Math.min(cloudlets.size(), from + batchSize));
+                int[] assignment = policy.selectVmsFor(chunk, availableVms);
+                for (int i = 0; i < assignment.length; i++) {
+                    chunk.get(i).setVm(vmList.get(assignment[i]));
+                }
+            }
         }
 
         broker.submitCloudletList(cloudlets);
 
-        simulation.addOnClockTickListener(evt -> ramTracker.recordSnapshot(vmList, evt.getTime()));
+        EarlyTermination earlyTermination = incumbentMakespan == null ? null
+                : new EarlyTermination(simulation, vmList, cloudlets, incumbentMakespan, pruneMargin);
+
+        // With OFF the tracker is never sampled, so it reports zeros
+        VmRamTracker ramTracker = metricLevel == MetricLevel.FULL
+                ? new VmRamTracker(timeSeriesPoints, timeSeriesMethod)
+                : new VmRamTracker();
+        if (metricLevel != MetricLevel.OFF) {
+            simulation.addOnClockTickListener(evt -> ramTracker.recordSnapshot(vmList, evt.getTime()));
+        }
 
-        simulation.start();
+        try {
+            simulation.start();
+        } catch (RuntimeException e) {
+            // Cleanup failures must not hide why the run failed
+            if (decisionLog != null) {
+                try {
+                    decisionLog.close();
+                } catch (IOException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+            }
+            if (taskStream != null) {
+                try {
+                    taskStream.abort();
+                } catch (IOException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+            }
+            throw e;
+        }
 
         long elapsedTimeMs = System.currentTimeMillis() - startTimeMs;
 
+        Map<Long, Long> taskCounts = taskStream != null ? taskStream.getTaskCounts() : countTasksPerVm(cloudlets);
+        double makespan = taskStream != null ? taskStream.getMakespan() : calculateMakespan(cloudlets);
+        // A streamed run keeps its own aggregates, so the summary needs no pass over the cloudlets
+        DeadlineStats deadlineStats = taskStream != null ? taskStream.getDeadlineStats(simulation.clock())
+                : DeadlineStats.of(cloudlets, simulation.clock());
+        double meanWaitingTime = rebalancing == null ? 0.0
+                : taskStream != null ? taskStream.getMeanWaitingTime() : meanWaitingTime(cloudlets, waitingTime);
+        List<ShadowStats> shadowStats = shadow == null ? null : shadow.evaluate();
+
         if (consoleOutput) {
-            printCloudletStatistics(cloudlets);
-            printVmUtilizationStatistics(vmList, cloudlets);
-            printOverallMakespan(cloudlets, simulation);
-            System.out.println(vmSelectionPolicy instanceof SortedTaskBestFitPolicy);
+            if (taskStream != null) {
+                System.out.printf("Cloudlet statistics streamed to: %s (%d tasks)%n",
+                        taskStream.getPath(), taskStream.getFinishedCount());
+            } else {
+                printCloudletStatistics(cloudlets, waitingTime);
+            }
+            printVmUtilizationStatistics(vmList, taskCounts, ramTracker);
+            printOverallMakespan(makespan, simulation);
+            if (deadlineStats != null) {
+                printDeadlineStats(deadlineStats);
+            }
+            if (shadowStats != null) {
+                printShadowStats(shadowStats, makespan);
+            }
+            System.out.println("Pre-scheduling: " + (preScheduling == null ? "none" : preScheduling.getName()));
+            if (instrumentedPolicy != null) {
+                printDecisionLatency(DecisionLatency.of(instrumentedPolicy));
+            }
+            if (rebalancing != null) {
+                System.out.printf(Locale.US, "Rebalancing: %d moves of %d cloudlets in %d rounds, "
+                                + "%.2f s total migration delay, mean waiting time %.2f s%n",
+                        rebalancing.getMoves(), rebalancing.getMovedCloudlets(), rebalancing.getRounds(),
+                        rebalancing.getMigrationDelay(), meanWaitingTime);
+            }
             System.out.printf(Locale.US, "Real-world execution time: %d ms (%.2f seconds)%n",
                     elapsedTimeMs, elapsedTimeMs / 1000.0);
+            if (earlyTermination != null && earlyTermination.isTerminated()) {
+                System.out.printf(Locale.US, "Stopped early: makespan lower bound %.2f exceeds incumbent %.2f%n",
+                        earlyTermination.getLowerBound(), incumbentMakespan.getAsDouble());
+            }
         }
 
-        String policyName = vmSelectionPolicy.getClass().getSimpleName();
-        writeTaskStatsToJson(cloudlets, workloadFile, policyName, simulation);
-        writeMachineStatsToJson(vmList, cloudlets, workloadFile, policyName);
-    }
-
-    private Datacenter createDatacenter(CloudSimPlus simulation) {
-        List<Host> hostList = new ArrayList<>();
+        if (earlyTermination != null && earlyTermination.isTerminated()) {
+            // A partial run has no meaningful reports
+            if (decisionLog != null) {
+                decisionLog.close();
+            }
+            if (taskStream != null) {
+                taskStream.abort();
+            }
+            RunSummary summary = new RunSummary(policyName, workloadName, cloudlets.size(), vmList.size(),
+                    earlyTermination.getLowerBound(), simulation.clock(), simulation.getGeneratedEventsNumber(),
+                    elapsedTimeMs);
+            summary.terminatedEarly = true;
+            summary.makespanLowerBound = earlyTermination.getLowerBound();
+            return summary;
+        }
 
-        int hostCount = 4;
-        int hostPes = 16;
-        long hostMipsPerPe = 10_000;
-        long ram = 64_000;          // MB
-        long bw = 100_000;          // Mbps
-        long storage = 1_000_000;   // MB
+        RebalancingStats rebalancingStats = rebalancing == null ? null
+                : new RebalancingStats(rebalancing, meanWaitingTime);
 
-        for (int i = 0; i < hostCount; i++) {
-            List<Pe> peList = new ArrayList<>();
-            for (int p = 0; p < hostPes; p++) {
-                peList.add(new PeSimple(hostMipsPerPe));
+        if (reportSink != null || decisionLog != null || taskStream != null) {
+            MachineUtilizationReport machineReport =
+                    buildMachineReport(vmList, taskCounts, ramTracker, workloadName, policyName);
+            if (instrumentedPolicy != null) {
+                machineReport.decisionLatency = DecisionLatency.of(instrumentedPolicy);
+            }
+            machineReport.rebalancing = rebalancingStats;
+            if (decisionLog != null) {
+                if (rebalancingStats != null) {
+                    decisionLog.writeRebalancing(rebalancingStats);
+                }
+                if (machineReport.decisionLatency != null) {
+                    decisionLog.writeDecisionLatency(machineReport.decisionLatency);
+                }
+                decisionLog.writeVmSummaries(machineReport.vms);
+                decisionLog.writeEnd(makespan, simulation.clock());
+                decisionLog.close();
+            }
+            if (taskStream != null) {
+                taskStream.finish(simulation.clock(), deadlineStats);
+                if (consoleOutput) {
+                    System.out.printf("%nTask stats written to: %s%n", taskStream.getPath());
+                }
+                ResultsWriter.INSTANCE.writeMachineReport(machineReport);
+            } else if (reportSink != null) {
+                TaskCompletionReport taskReport =
+                        buildTaskReport(cloudlets, workloadName, policyName, simulation, waitingTime);
+                taskReport.deadlines = deadlineStats;
+                reportSink.accept(taskReport, machineReport);
             }
-
-            HostSimple host = new HostSimple(ram, bw, storage, peList);
-            host.setVmScheduler(new VmSchedulerTimeShared());
-            hostList.add(host);
         }
 
-        DatacenterSimple datacenter = new DatacenterSimple(simulation, hostList, new VmAllocationPolicySimple());
-        datacenter.setSchedulingInterval(1.0);
-        return datacenter;
+        RunSummary summary = new RunSummary(policyName, workloadName, cloudlets.size(), vmList.size(),
+                makespan, simulation.clock(), simulation.getGeneratedEventsNumber(), elapsedTimeMs);
+        summary.rebalancing = rebalancingStats;
+        summary.deadlines = deadlineStats;
+        summary.shadow = shadowStats;
+        return summary;
     }
 
-    private List<Vm> createVms(CloudSimPlus simulation, int vmCount) {
-        List<Vm> vmList = new ArrayList<>();
-
-        int vmPes = 4;
-        long mipsPerPe = 5_000;
-        int ram = 16_000;   // MB
-        long bw = 20_000;  // Mbps
-        long size = 20_000; // MB
-
-        for (int i = 0; i < vmCount; i++) {
-            Vm vm = new VmSimple(i, mipsPerPe, vmPes);
-            vm.setRam(ram).setBw(bw).setSize(size);
-            vm.setCloudletScheduler(new CloudletSchedulerSpaceShared());
-            vm.enableUtilizationStats();
+    private static double meanWaitingTime(List<Cloudlet> cloudlets, ToDoubleFunction<Cloudlet> waitingTime) {
+        return cloudlets.stream()
+                .filter(Cloudlet::isFinished)
+                .mapToDouble(waitingTime)
+                .average()
+                .orElse(0.0);
+    }
 
-            vmList.add(vm);
+    /**
+     * Counts tasks per VM id in a single pass over the cloudlets, instead of one pass per VM.
+     */
+    private static Map<Long, Long> countTasksPerVm(List<Cloudlet> cloudlets) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Cloudlet c : cloudlets) {
+            if (c.getVm() != null) {
+                counts.merge(c.getVm().getId(), 1L, Long::sum);
+            }
         }
-        return vmList;
+        return counts;
     }
 
-    private void printCloudletStatistics(List<Cloudlet> cloudlets) {
+    private static double calculateMakespan(List<Cloudlet> cloudlets) {
+        return cloudlets.stream()
+                .mapToDouble(Cloudlet::getFinishTime)
+                .max()
+                .orElse(0.0);
+    }
+
+    private void printCloudletStatistics(List<Cloudlet> cloudlets, ToDoubleFunction<Cloudlet> waitingTime) {
         System.out.println("Cloudlet execution results");
         System.out.println("ID\tStatus\tVM\tStart\tFinish\tExecTime\tActualCpuTime");
 
@@ -232,29 +795,26 @@ public class WorkloadSimulationRunner {
                     c.getId(),
                     c.getStatus(),
                     vm == null ? -1 : vm.getId(),
-                    c.getWaitingTime(),
+                    waitingTime.applyAsDouble(c),
                     finish,
                     execTime,
                     c.getActualCpuTime());
         }
     }
 
-    private void printVmUtilizationStatistics(List<Vm> vms, List<Cloudlet> cloudlets) {
+    private void printVmUtilizationStatistics(List<Vm> vms, Map<Long, Long> taskCounts, VmRamTracker ramTracker) {
         System.out.println("\nNode (VM) resource usage summary");
         System.out.println("VM\tAvgCPU%\tPeakCPU%\tAvgRAM%\tPeakRAM%\tTaskCount\tSamples");
 
         for (Vm vm : vms) {
-            VmResourceStats cpuHistory = vm.getCpuUtilizationStats();
-            double avgCpu = cpuHistory.getMean();
-            double peakCpu = cpuHistory.getMax();
+            double avgCpu = averageCpu(vm);
+            double peakCpu = peakCpu(vm);
 
             double avgRamPercent = ramTracker.getAverageRamUtilization(vm);
             double peakRamPercent = ramTracker.getPeakRamUtilization(vm);
             int ramSamples = ramTracker.getSampleCount(vm);
 
-            long taskCount = cloudlets.stream()
-                    .filter(c -> c.getVm() != null && c.getVm().getId() == vm.getId())
-                    .count();
+            long taskCount = taskCounts.getOrDefault(vm.getId(), 0L);
 
             System.out.printf(Locale.US,
                     "%3d\t%7.2f\t%8.2f\t%7.2f\t%8.2f\t%9d\t%7d%n",
@@ -268,96 +828,113 @@ public class WorkloadSimulationRunner {
         }
     }
 
-    private void printOverallMakespan(List<Cloudlet> cloudlets, CloudSimPlus simulation) {
-        double makespan = cloudlets.stream()
-                .mapToDouble(Cloudlet::getFinishTime)
-                .max()
-                .orElse(0.0);
+    // VMs only keep CPU stats above MetricLevel.OFF; without samples the stats would be NaN
+    private double averageCpu(Vm vm) {
+        return metricLevel == MetricLevel.OFF ? 0.0 : vm.getCpuUtilizationStats().getMean();
+    }
+
+    private double peakCpu(Vm vm) {
+        return metricLevel == MetricLevel.OFF ? 0.0 : vm.getCpuUtilizationStats().getMax();
+    }
 
+    private void printDecisionLatency(DecisionLatency latency) {
+        System.out.printf(Locale.US,
+                "Decision latency: p50 %d ns, p99 %d ns, max %d ns over %d decisions",
+                latency.p50Nanos, latency.p99Nanos, latency.maxNanos, latency.decisions);
+        if (latency.allocatedBytes >= 0) {
+            System.out.printf(Locale.US, ", %.1f bytes allocated per decision", latency.allocatedBytesPerDecision);
+        }
+        System.out.println();
+    }
+
+    private void printDeadlineStats(DeadlineStats deadlines) {
+        System.out.printf(Locale.US,
+                "Deadlines: %d of %d missed (%.2f%%), lateness mean %.2f s, p50 %.2f s, p99 %.2f s, max %.2f s%n",
+                deadlines.missed, deadlines.tasksWithDeadline, deadlines.missRate * 100.0, deadlines.meanLateness,
+                deadlines.p50Lateness, deadlines.p99Lateness, deadlines.maxLateness);
+    }
+
+    private void printShadowStats(List<ShadowStats> shadowStats, double makespan) {
+        System.out.println("\nShadow evaluation (estimated by the completion model)");
+        System.out.printf("%-28s %10s %14s %14s %10s %12s%n",
+                "Policy", "Agreement%", "EstMakespan", "EstMeanFlow", "EstMiss%", "ns/decision");
+        for (ShadowStats stats : shadowStats) {
+            String name = stats.primary ? stats.policy + " *" : stats.policy;
+            if (stats.error != null) {
+                System.out.printf("%-28s failed: %s%n", name, stats.error);
+                continue;
+            }
+            System.out.printf(Locale.US, "%-28s %10.2f %14.2f %14.2f %10s %12.0f%n",
+                    name, stats.agreement * 100.0, stats.estimatedMakespan, stats.estimatedMeanFlowTime,
+                    stats.estimatedMissRate == null ? "-"
+                            : String.format(Locale.US, "%.2f", stats.estimatedMissRate * 100.0),
+                    stats.meanDecisionNanos);
+        }
+        ShadowStats primary = shadowStats.get(0);
+        System.out.printf(Locale.US, "* primary policy: simulated makespan %.2f s, model error %+.2f%%%n",
+                makespan, makespan > 0 ? (primary.estimatedMakespan / makespan - 1) * 100.0 : 0.0);
+    }
+
+    private void printOverallMakespan(double makespan, CloudSimPlus simulation) {
         System.out.printf(Locale.US,
                 "%nTotal simulated completion time (makespan): %.2f seconds%n", makespan);
         System.out.printf(Locale.US,
                 "Simulation clock at end: %.2f seconds%n", simulation.clock());
     }
 
-    private void writeTaskStatsToJson(List<Cloudlet> cloudlets, Path workloadFile, 
-                                       String policyName, CloudSimPlus simulation) throws IOException {
-        List<TaskStats> taskStatsList = new ArrayList<>();
+    private TaskCompletionReport buildTaskReport(List<Cloudlet> cloudlets, String workloadName,
+                                                 String policyName, CloudSimPlus simulation,
+                                                 ToDoubleFunction<Cloudlet> waitingTime) {
+        List<TaskStats> taskStatsList = new ArrayList<>(cloudlets.size());
         for (Cloudlet c : cloudlets) {
-            taskStatsList.add(new TaskStats(c));
+            taskStatsList.add(new TaskStats(c, waitingTime.applyAsDouble(c)));
         }
 
-        double makespan = cloudlets.stream()
-                .mapToDouble(Cloudlet::getFinishTime)
-                .max()
-                .orElse(0.0);
-
-        TaskCompletionReport report = new TaskCompletionReport(
+        return new TaskCompletionReport(
                 policyName,
-                workloadFile.getFileName().toString(),
-                makespan,
+                workloadName,
+                calculateMakespan(cloudlets),
                 simulation.clock(),
                 taskStatsList
         );
-
-        Path outputDir = Path.of("output/results");
-        Files.createDirectories(outputDir);
-
-        String baseName = workloadFile.getFileName().toString().replace(".json", "");
-        Path outputPath = outputDir.resolve(baseName + "_" + policyName + "_task_stats.json");
-
-        try (Writer writer = Files.newBufferedWriter(outputPath)) {
-            gson.toJson(report, writer);
-        }
-
-        System.out.printf("%nTask stats written to: %s%n", outputPath);
     }
 
-    private void writeMachineStatsToJson(List<Vm> vms, List<Cloudlet> cloudlets, 
-                                          Path workloadFile, String policyName) throws IOException {
-        List<VmStats> vmStatsList = new ArrayList<>();
+    private MachineUtilizationReport buildMachineReport(List<Vm> vms, Map<Long, Long> taskCounts,
+                                                        VmRamTracker ramTracker, String workloadName,
+                                                        String policyName) {
+        List<VmStats> vmStatsList = new ArrayList<>(vms.size());
 
         for (Vm vm : vms) {
-            VmResourceStats cpuHistory = vm.getCpuUtilizationStats();
-            double avgCpu = cpuHistory.getMean() * 100.0;
-            double peakCpu = cpuHistory.getMax() * 100.0;
+            double avgCpu = averageCpu(vm) * 100.0;
+            double peakCpu = peakCpu(vm) * 100.0;
 
             double avgRam = ramTracker.getAverageRamUtilization(vm) * 100.0;
             double peakRam = ramTracker.getPeakRamUtilization(vm) * 100.0;
             int ramSamples = ramTracker.getSampleCount(vm);
 
-            long taskCount = cloudlets.stream()
-                    .filter(c -> c.getVm() != null && c.getVm().getId() == vm.getId())
-                    .count();
+            long taskCount = taskCounts.getOrDefault(vm.getId(), 0L);
 
-            vmStatsList.add(new VmStats(
-                    vm.getId(), avgCpu, peakCpu, avgRam, peakRam, taskCount, ramSamples
-            ));
+            VmStats stats = new VmStats(vm.getId(), avgCpu, peakCpu, avgRam, peakRam, taskCount, ramSamples);
+            DownsampledSeries.Points series = ramTracker.getTimeSeries(vm);
+            if (series != null) {
+                stats.timeSeries = new VmTimeSeries(series);
+            }
+            vmStatsList.add(stats);
         }
 
-        MachineUtilizationReport report = new MachineUtilizationReport(
+        return new MachineUtilizationReport(
                 policyName,
-                workloadFile.getFileName().toString(),
+                workloadName,
                 vmStatsList
         );
-
-        Path outputDir = Path.of("output/results");
-        Files.createDirectories(outputDir);
-
-        String baseName = workloadFile.getFileName().toString().replace(".json", "");
-        Path outputPath = outputDir.resolve(baseName + "_" + policyName + "_machine_stats.json");
-
-        try (Writer writer = Files.newBufferedWriter(outputPath)) {
-            gson.toJson(report, writer);
-        }
-
-        System.out.printf("Machine stats written to: %s%n", outputPath);
     }
 
     public static void main(String[] args) throws IOException {
         org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
 
         Path workloadJson = Path.of("output/tasks/tasks_3000_ram_heavy.json");
+        Path topologyJson = TopologyConfig.DEFAULT_TOPOLOGY_FILE;
+//        Path topologyJson = Path.of("config/topology/heterogeneous_large.json");
 
 
         // 1. Round Robin
@@ -369,11 +946,34 @@ public class WorkloadSimulationRunner {
         // 3. Sorted Task Best-Fit
         CloudletVmSelectionPolicy policy = new SortedTaskBestFitPolicy();
 
+        // 4. Earliest Deadline First / Weighted Priority, for workloads with deadlines and priorities
+        //    (WorkloadGenerator#setDeadlines, #setPriorityLevels)
+//         CloudletVmSelectionPolicy policy = new EarliestDeadlineFirstPolicy();
+//         CloudletVmSelectionPolicy policy = new WeightedPriorityPolicy();
+
+        // 5. RAM-Aware, with "cloudletScheduler": "spaceSharedRamAdmission" in the topology's VM classes
+//         CloudletVmSelectionPolicy policy = new RamAwarePolicy();
+
         System.out.println("Policy: " + policy.getClass().getSimpleName());
         System.out.println("Workload: " + workloadJson);
+        System.out.println("Topology: " + topologyJson);
         System.out.println();
 
-        WorkloadSimulationRunner runner = new WorkloadSimulationRunner(policy);
+        WorkloadSimulationRunner runner = new WorkloadSimulationRunner(policy, TopologyConfig.load(topologyJson));
+        // Record decisions so reports can be rebuilt later with DecisionLogReplay
+//        runner.setDecisionLog(Path.of("output/logs/tasks_3000_ram_heavy.dlog.gz"));
+        // Write task stats as cloudlets finish instead of after the run (for very large workloads)
+//        runner.setStreamResults(true);
+        // OFF for makespan-only runs, FULL to record downsampled per-VM CPU/RAM time series,
+        // which are kept by the results store sink
+//        runner.setMetricLevel(MetricLevel.FULL);
+        // Move waiting cloudlets from long VM queues to idle VMs while the run progresses
+//        runner.setRebalancer(new simulation.rebalancing.QueueRebalancer());
+        // Screen other policies on the same run; only the policy above drives the simulation
+//        runner.setShadowPolicies(Map.of("RoundRobin", new RoundRobinCloudletVmPolicy(),
+//                "EarliestFinishTime", new EarliestFinishTimePolicy()));
+//        runner.setReportSink(WRITE_JSON.andThen(
+//                simulation.store.ResultsStore.open(simulation.store.ResultsStore.DEFAULT_DIR).asReportSink()));
         runner.run(workloadJson);
     }
 }
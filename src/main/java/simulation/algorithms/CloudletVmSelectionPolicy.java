@@ -2,12 +2,45 @@ package simulation.algorithms;
 
 import org.cloudsimplus.cloudlets.Cloudlet;
 import org.cloudsimplus.vms.Vm;
+import simulation.algorithms.prescheduling.PreSchedulingStage;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 @FunctionalInterface
 public interface CloudletVmSelectionPolicy {
     Vm selectVmFor(Cloudlet cloudlet, List<Vm> availableVms);
 
-    default void sortTasksByDemand(List<Cloudlet> cloudlets) {}
+    /**
+     * Maps a chunk of cloudlets in one call, in list order, as if {@link #selectVmFor} were called for each.
+     * Policies can override it to amortise work across the chunk; the result must not depend on how the
+     * workload is split into chunks unless the policy documents otherwise.
+     *
+     * @return for each cloudlet, the index of its VM in availableVms
+     */
+    default int[] selectVmsFor(List<Cloudlet> cloudlets, List<Vm> availableVms) {
+        Map<Vm, Integer> indexOf = new IdentityHashMap<>(availableVms.size() * 2);
+        for (int v = 0; v < availableVms.size(); v++) {
+            indexOf.put(availableVms.get(v), v);
+        }
+
+        int[] assignment = new int[cloudlets.size()];
+        for (int i = 0; i < assignment.length; i++) {
+            Vm vm = selectVmFor(cloudlets.get(i), availableVms);
+            Integer index = indexOf.get(vm);
+            if (index == null) {
+                throw new IllegalStateException("Policy selected a VM outside the available list: " + vm);
+            }
+            assignment[i] = index;
+        }
+        return assignment;
+    }
+
+    /**
+     * Stage that reorders the workload before submission, or null to submit tasks in workload order.
+     */
+    default PreSchedulingStage getPreSchedulingStage() {
+        return null;
+    }
 }
@@ -0,0 +1,28 @@
+package simulation.algorithms;
+
+import simulation.algorithms.prescheduling.PreSchedulingStage;
+import simulation.algorithms.prescheduling.UrgencyStage;
+
+/**
+ * Earliest Deadline First Policy
+ *
+ * Extends EarliestFinishTimePolicy with deadline ordering
+ *
+ * Steps:
+ * 1. Pre-order all tasks by due time (submission delay + deadline) - ASCENDING, ties by priority - DESCENDING;
+ *    tasks without a deadline go last, in workload order
+ * 2. For each task (in that order), pick the VM with the earliest estimated finish: the one with the most
+ *    slack before the due time, so the VM most likely to meet the deadline
+ *
+ * Tasks queued on one VM then run in deadline order too. For workloads that arrive over time, give the VMs
+ * the spaceSharedEdf cloudlet scheduler so queues keep that order as new tasks arrive.
+ */
+public class EarliestDeadlineFirstPolicy extends EarliestFinishTimePolicy {
+
+    private static final PreSchedulingStage BY_DUE_TIME = new UrgencyStage(UrgencyStage.Order.EARLIEST_DEADLINE);
+
+    @Override
+    public PreSchedulingStage getPreSchedulingStage() {
+        return BY_DUE_TIME;
+    }
+}
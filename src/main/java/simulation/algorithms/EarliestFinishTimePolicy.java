@@ -0,0 +1,263 @@
+package simulation.algorithms;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Earliest Finish Time Policy
+ *
+ * Assigns each cloudlet to the VM where it would finish first, given everything assigned so far.
+ * Does NOT reorder the tasks.
+ *
+ * Each VM's PEs are tracked by the time they become free (ready time). A cloudlet needing p PEs on a VM starts
+ * once p PEs are free and runs for length / (MIPS * CPU utilization) seconds, which is how the space-shared
+ * cloudlet scheduler executes it; it never starts before its submission delay.
+ *
+ * Data structures (all primitive arrays):
+ * 1. Per VM, a binary min-heap of PE ready times
+ * 2. Per VM class (same MIPS and PEs), an indexed min-heap of VMs keyed by their earliest PE ready time
+ *
+ * For a single-PE cloudlet the best VM of a class is the top of its heap, so a decision costs
+ * O(C + log V + log PEs) for C VM classes (1 in a homogeneous fleet). Wider cloudlets need the p-th smallest
+ * ready time of every VM, which no single heap order gives, so they scan the VMs of each class: O(V * p log PEs).
+ *
+ * State is kept per VM, not per list ({@link VmSlots}): a caller may offer a subset of the VMs, as
+ * PartitionedSimulationRunner does per task width, and the VMs keep their ready times. Class heaps cover every
+ * VM seen, so a subset is scanned instead: O(V * p log PEs).
+ */
+public class EarliestFinishTimePolicy implements CloudletVmSelectionPolicy {
+
+    private final VmSlots slots = new VmSlots();
+    private int restarts = -1;
+    private List<Vm> vms;
+    // Slots of the VMs of the list last offered, in list order
+    private int[] offered;
+    // Per VM slot: min-heap of PE ready times
+    private double[][] peReady;
+    private VmClassHeap[] classes;
+    private int[] classOf;
+    // Position of each VM in its class heap
+    private int[] position;
+
+    /**
+     * Indexed min-heap of the VMs of one class, keyed by each VM's earliest PE ready time.
+     */
+    private static final class VmClassHeap {
+        final double mips;
+        final int pes;
+        int[] heap;
+        int size;
+
+        VmClassHeap(double mips, int pes, int capacity) {
+            this.mips = mips;
+            this.pes = pes;
+            this.heap = new int[capacity];
+        }
+    }
+
+    @Override
+    public Vm selectVmFor(Cloudlet cloudlet, List<Vm> availableVms) {
+        if (availableVms.isEmpty()) {
+            throw new IllegalStateException("No VMs available for Cloudlet mapping");
+        }
+        if (availableVms != vms) {
+            offer(availableVms);
+        }
+
+        int pes = (int) cloudlet.getPesNumber();
+        double arrival = Math.max(0.0, cloudlet.getSubmissionDelay());
+        double demand = WeightedResourcePolicy.calculateCpuDemand(cloudlet);
+
+        int bestVm = -1;
+        double bestFinish = Double.MAX_VALUE;
+        if (offered.length < slots.size()) {
+            // A subset of the VMs seen: the class heaps may point at VMs outside it
+            for (int vm : offered) {
+                VmClassHeap vmClass = classes[classOf[vm]];
+                if (vmClass.pes < pes) {
+                    continue;
+                }
+                double finish = Math.max(arrival, kthSmallest(peReady[vm], pes)) + demand / vmClass.mips;
+                if (finish < bestFinish) {
+                    bestFinish = finish;
+                    bestVm = vm;
+                }
+            }
+        } else {
+            for (VmClassHeap vmClass : classes) {
+                if (vmClass.pes < pes || vmClass.size == 0) {
+                    continue;
+                }
+                double runTime = demand / vmClass.mips;
+                if (pes == 1) {
+                    int vm = vmClass.heap[0];
+                    double finish = Math.max(arrival, peReady[vm][0]) + runTime;
+                    if (finish < bestFinish) {
+                        bestFinish = finish;
+                        bestVm = vm;
+                    }
+                } else {
+                    for (int i = 0; i < vmClass.size; i++) {
+                        int vm = vmClass.heap[i];
+                        double finish = Math.max(arrival, kthSmallest(peReady[vm], pes)) + runTime;
+                        if (finish < bestFinish || (finish == bestFinish && vm < bestVm)) {
+                            bestFinish = finish;
+                            bestVm = vm;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (bestVm < 0) {
+            throw new IllegalStateException("No VM has enough PEs for Cloudlet " + cloudlet.getId());
+        }
+
+        // Occupy the p earliest free PEs until the finish time
+        double[] ready = peReady[bestVm];
+        for (int i = 0; i < pes; i++) {
+            ready[0] = bestFinish;
+            siftDown(ready, 0);
+        }
+        VmClassHeap vmClass = classes[classOf[bestVm]];
+        siftDown(vmClass, position[bestVm]);
+
+        return slots.vm(bestVm);
+    }
+
+    private void offer(List<Vm> availableVms) {
+        int known = slots.size();
+        offered = slots.offer(availableVms);
+        vms = availableVms;
+        if (slots.restarts() != restarts) {
+            restarts = slots.restarts();
+            peReady = null;
+            initialise();
+        } else if (slots.size() > known) {
+            initialise();
+        }
+    }
+
+    /**
+     * Sizes the per-VM state for all slots, keeping the ready times of the VMs already known, and rebuilds the
+     * class heaps.
+     */
+    private void initialise() {
+        int count = slots.size();
+        int known = peReady == null ? 0 : peReady.length;
+        peReady = peReady == null ? new double[count][] : Arrays.copyOf(peReady, count);
+        classOf = new int[count];
+        position = new int[count];
+
+        Map<String, Integer> classIds = new HashMap<>();
+        List<VmClassHeap> classList = new ArrayList<>();
+        for (int v = 0; v < count; v++) {
+            Vm vm = slots.vm(v);
+            int pes = (int) vm.getPesNumber();
+            if (v >= known) {
+                peReady[v] = new double[pes];
+            }
+
+            String key = vm.getMips() + "x" + pes;
+            Integer id = classIds.get(key);
+            if (id == null) {
+                id = classList.size();
+                classIds.put(key, id);
+                classList.add(new VmClassHeap(vm.getMips(), pes, count));
+            }
+            classOf[v] = id;
+            VmClassHeap vmClass = classList.get(id);
+            position[v] = vmClass.size;
+            vmClass.heap[vmClass.size++] = v;
+        }
+        classes = classList.toArray(new VmClassHeap[0]);
+        // Fresh VMs all have key 0 and already form a heap in slot order; known ones may not
+        if (known > 0) {
+            for (VmClassHeap vmClass : classes) {
+                for (int i = vmClass.size / 2 - 1; i >= 0; i--) {
+                    siftDown(vmClass, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * k-th smallest value of a min-heap, without modifying it (k is at most the VM's PE count).
+     */
+    private static double kthSmallest(double[] heap, int k) {
+        if (k == 1) {
+            return heap[0];
+        }
+        double[] copy = heap.clone();
+        int size = copy.length;
+        double value = copy[0];
+        for (int i = 0; i < k; i++) {
+            value = copy[0];
+            copy[0] = copy[--size];
+            siftDown(copy, 0, size);
+        }
+        return value;
+    }
+
+    private static void siftDown(double[] heap, int i) {
+        siftDown(heap, i, heap.length);
+    }
+
+    private static void siftDown(double[] heap, int i, int size) {
+        double value = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    // Ready times only grow, so a VM can only move down its class heap (also used to build a heap bottom-up)
+    private void siftDown(VmClassHeap vmClass, int i) {
+        int[] heap = vmClass.heap;
+        int vm = heap[i];
+        double key = peReady[vm][0];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= vmClass.size) {
+                break;
+            }
+            if (child + 1 < vmClass.size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            int childVm = heap[child];
+            double childKey = peReady[childVm][0];
+            if (childKey > key || (childKey == key && childVm > vm)) {
+                break;
+            }
+            heap[i] = childVm;
+            position[childVm] = i;
+            i = child;
+        }
+        heap[i] = vm;
+        position[vm] = i;
+    }
+
+    // Ties go to the lower VM index, which keeps decisions deterministic
+    private boolean less(int a, int b) {
+        double keyA = peReady[a][0];
+        double keyB = peReady[b][0];
+        return keyA < keyB || (keyA == keyB && a < b);
+    }
+}
@@ -0,0 +1,203 @@
+package simulation.algorithms;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+import simulation.topology.RamAdmissionCloudletScheduler;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RAM-Aware Policy
+ *
+ * Assigns each cloudlet to the VM where it would finish first when VMs only run cloudlets whose RAM fits
+ * together, as the spaceSharedRamAdmission cloudlet scheduler ({@link RamAdmissionCloudletScheduler}) does.
+ * Does NOT reorder the tasks.
+ *
+ * Per VM, the policy models the queue the way that scheduler runs it, in submission order. Start times in a
+ * queue never decrease, so all it keeps is the start time of the last cloudlet placed on the VM (its frontier)
+ * and the cloudlets still running then: finish time, PEs and RAM (the UtilizationModelRam value, a fraction
+ * of the VM's RAM). A new cloudlet starts at the first of those finishes, from the frontier or its submission
+ * delay on, after which both its PEs and its RAM are free. Instead of starting it on a VM whose RAM is taken,
+ * the policy routes it to whichever VM gets it done first, waiting included.
+ *
+ * A VM runs at most one cloudlet per PE, so a VM is evaluated in O(PEs^2) however long its queue is, and a
+ * decision costs O(V * PEs^2). State is kept per VM ({@link VmSlots}), so VMs keep it when a caller offers a
+ * subset of them, as PartitionedSimulationRunner does per task width.
+ *
+ * Only the admission scheduler guarantees that RAM is never oversubscribed. Under plain spaceShared the
+ * policy still spreads RAM demand, but nothing holds a cloudlet back once a PE is free.
+ */
+public class RamAwarePolicy implements CloudletVmSelectionPolicy {
+
+    // Rounding slack, the same as the admission check
+    private static final double EPSILON = 1e-9;
+
+    private final VmSlots slots = new VmSlots();
+    private int restarts = -1;
+    private List<Vm> vms;
+    // Slots of the VMs of the list last offered, in list order
+    private int[] offered;
+    // Per VM slot
+    private double[] mips;
+    private int[] pes;
+    // Per VM: start time of the last cloudlet placed, and the cloudlets running at that time
+    private double[] frontier;
+    private double[][] runningFinish;
+    private int[][] runningPes;
+    private double[][] runningRam;
+    private int[] runningCount;
+
+    // Scratch copy of one VM's running cloudlets, for evaluating a VM without changing it
+    private double[] scratchFinish;
+    private int[] scratchPes;
+    private double[] scratchRam;
+
+    @Override
+    public Vm selectVmFor(Cloudlet cloudlet, List<Vm> availableVms) {
+        if (availableVms.isEmpty()) {
+            throw new IllegalStateException("No VMs available for Cloudlet mapping");
+        }
+        if (availableVms != vms) {
+            offer(availableVms);
+        }
+
+        int cloudletPes = (int) cloudlet.getPesNumber();
+        double ram = RamAdmissionCloudletScheduler.ramDemand(cloudlet);
+        double arrival = Math.max(0.0, cloudlet.getSubmissionDelay());
+        double demand = WeightedResourcePolicy.calculateCpuDemand(cloudlet);
+
+        int bestVm = -1;
+        double bestStart = 0.0;
+        double bestFinish = Double.MAX_VALUE;
+        for (int v : offered) {
+            if (pes[v] < cloudletPes) {
+                continue;
+            }
+            double start = earliestStart(v, cloudletPes, ram, Math.max(arrival, frontier[v]));
+            double finish = start + demand / mips[v];
+            if (finish < bestFinish) {
+                bestFinish = finish;
+                bestStart = start;
+                bestVm = v;
+            }
+        }
+
+        if (bestVm < 0) {
+            throw new IllegalStateException("No VM has enough PEs for Cloudlet " + cloudlet.getId());
+        }
+
+        release(bestVm, bestStart);
+        frontier[bestVm] = bestStart;
+        int slot = runningCount[bestVm]++;
+        runningFinish[bestVm][slot] = bestFinish;
+        runningPes[bestVm][slot] = cloudletPes;
+        runningRam[bestVm][slot] = ram;
+
+        return slots.vm(bestVm);
+    }
+
+    /**
+     * First time from the given one on at which the VM has both the PEs and the RAM for the cloudlet.
+     */
+    private double earliestStart(int v, int cloudletPes, double ram, double from) {
+        int count = runningCount[v];
+        System.arraycopy(runningFinish[v], 0, scratchFinish, 0, count);
+        System.arraycopy(runningPes[v], 0, scratchPes, 0, count);
+        System.arraycopy(runningRam[v], 0, scratchRam, 0, count);
+
+        double start = from;
+        while (true) {
+            int freePes = pes[v];
+            double freeRam = 1.0;
+            double nextFinish = Double.MAX_VALUE;
+            int remaining = 0;
+            for (int i = 0; i < count; i++) {
+                if (scratchFinish[i] <= start) {
+                    continue;
+                }
+                freePes -= scratchPes[i];
+                freeRam -= scratchRam[i];
+                nextFinish = Math.min(nextFinish, scratchFinish[i]);
+                scratchFinish[remaining] = scratchFinish[i];
+                scratchPes[remaining] = scratchPes[i];
+                scratchRam[remaining] = scratchRam[i];
+                remaining++;
+            }
+            count = remaining;
+            // As in the admission check, an idle VM takes any cloudlet
+            if (freePes >= cloudletPes && (count == 0 || ram <= freeRam + EPSILON)) {
+                return start;
+            }
+            start = nextFinish;
+        }
+    }
+
+    // Drops the cloudlets of the VM that finish by the given time
+    private void release(int v, double time) {
+        int remaining = 0;
+        for (int i = 0; i < runningCount[v]; i++) {
+            if (runningFinish[v][i] > time) {
+                runningFinish[v][remaining] = runningFinish[v][i];
+                runningPes[v][remaining] = runningPes[v][i];
+                runningRam[v][remaining] = runningRam[v][i];
+                remaining++;
+            }
+        }
+        runningCount[v] = remaining;
+    }
+
+    private void offer(List<Vm> availableVms) {
+        int known = slots.size();
+        offered = slots.offer(availableVms);
+        vms = availableVms;
+        if (slots.restarts() != restarts) {
+            restarts = slots.restarts();
+            initialise(0);
+        } else if (slots.size() > known) {
+            initialise(known);
+        }
+    }
+
+    /**
+     * Sizes the per-VM state for all slots, keeping that of the first known ones.
+     */
+    private void initialise(int known) {
+        int count = slots.size();
+        if (known == 0) {
+            mips = new double[count];
+            pes = new int[count];
+            frontier = new double[count];
+            runningFinish = new double[count][];
+            runningPes = new int[count][];
+            runningRam = new double[count][];
+            runningCount = new int[count];
+        } else {
+            mips = Arrays.copyOf(mips, count);
+            pes = Arrays.copyOf(pes, count);
+            frontier = Arrays.copyOf(frontier, count);
+            runningFinish = Arrays.copyOf(runningFinish, count);
+            runningPes = Arrays.copyOf(runningPes, count);
+            runningRam = Arrays.copyOf(runningRam, count);
+            runningCount = Arrays.copyOf(runningCount, count);
+        }
+
+        int maxPes = 0;
+        for (int v = 0; v < count; v++) {
+            if (v < known) {
+                maxPes = Math.max(maxPes, pes[v]);
+                continue;
+            }
+            Vm vm = slots.vm(v);
+            mips[v] = vm.getMips();
+            pes[v] = (int) vm.getPesNumber();
+            runningFinish[v] = new double[pes[v]];
+            runningPes[v] = new int[pes[v]];
+            runningRam[v] = new double[pes[v]];
+            maxPes = Math.max(maxPes, pes[v]);
+        }
+        scratchFinish = new double[maxPes];
+        scratchPes = new int[maxPes];
+        scratchRam = new double[maxPes];
+    }
+}
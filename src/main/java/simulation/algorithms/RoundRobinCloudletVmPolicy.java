@@ -8,6 +8,7 @@ import java.util.List;
 /**
  * Blindly circles through the VMs when assigning tasks.
  * Does NOT reorder the tasks.
+ * VMs with fewer PEs than the task requires are skipped, so mixed fleets never get an unrunnable task.
  */
 public class RoundRobinCloudletVmPolicy implements CloudletVmSelectionPolicy{
     private int nextIndex = 0;
@@ -17,8 +18,13 @@ public class RoundRobinCloudletVmPolicy implements CloudletVmSelectionPolicy{
         if (vms.isEmpty()) {
             throw new IllegalStateException("No VMs available for Cloudlet mapping");
         }
-        Vm vm = vms.get(nextIndex);
-        nextIndex = (nextIndex + 1) % vms.size();
-        return vm;
+        for (int attempt = 0; attempt < vms.size(); attempt++) {
+            Vm vm = vms.get(nextIndex % vms.size());
+            nextIndex = (nextIndex + 1) % vms.size();
+            if (vm.getPesNumber() >= cloudlet.getPesNumber()) {
+                return vm;
+            }
+        }
+        throw new IllegalStateException("No VM has enough PEs for Cloudlet " + cloudlet.getId());
     }
 }
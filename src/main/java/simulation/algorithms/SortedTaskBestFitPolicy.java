@@ -1,8 +1,9 @@
 package simulation.algorithms;
 
 import org.cloudsimplus.cloudlets.Cloudlet;
-
-import java.util.List;
+import simulation.algorithms.prescheduling.PreSchedulingStage;
+import simulation.algorithms.prescheduling.SortStage;
+import simulation.algorithms.prescheduling.TaskKey;
 
 /**
  * Sorted Task Best-Fit Policy
@@ -33,11 +34,15 @@ public class SortedTaskBestFitPolicy extends WeightedResourcePolicy {
         return (getCpuWeight() * calculateCpuDemand(cloudlet)) + (getRamWeight() * calculateRamDemand(cloudlet));
     }
 
-    public void sortTasksByDemand(List<Cloudlet> cloudlets) {
-        cloudlets.sort((c1, c2) -> {
-            double demand1 = calculateCombinedDemand(c1);
-            double demand2 = calculateCombinedDemand(c2);
-            return Double.compare(demand1, demand2); // Ascending: light tasks first
-        });
+    private static final TaskKey COMBINED_DEMAND = TaskKey.of(
+            "combinedDemand(cpu=" + CPU_WEIGHT + ", ram=" + RAM_WEIGHT + ")",
+            SortedTaskBestFitPolicy::calculateCombinedDemand);
+
+    // Ascending: light tasks first
+    private static final PreSchedulingStage SORT_BY_DEMAND = new SortStage(COMBINED_DEMAND, false);
+
+    @Override
+    public PreSchedulingStage getPreSchedulingStage() {
+        return SORT_BY_DEMAND;
     }
 }
@@ -0,0 +1,72 @@
+package simulation.algorithms;
+
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives every VM a policy is offered a stable slot, so per-VM state can live in arrays indexed by slot and
+ * survive being offered different lists: PartitionedSimulationRunner, for one, passes a list of only the cells
+ * wide enough for each task width. Slots follow the order VMs are first seen in.
+ *
+ * A list sharing no VM with those seen so far starts over, as the VMs of a new run do.
+ */
+final class VmSlots {
+
+    private final Map<Vm, Integer> slotOf = new IdentityHashMap<>();
+    private final List<Vm> vms = new ArrayList<>();
+    private final Map<List<Vm>, int[]> slotsByList = new IdentityHashMap<>();
+    private int restarts;
+
+    /**
+     * Registers the VMs of the list.
+     *
+     * @return for each VM of the list, in list order, its slot
+     */
+    int[] offer(List<Vm> list) {
+        int[] slots = slotsByList.get(list);
+        if (slots != null) {
+            return slots;
+        }
+        if (list.stream().noneMatch(slotOf::containsKey)) {
+            clear();
+        }
+        slots = new int[list.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = slotOf.computeIfAbsent(list.get(i), vm -> {
+                vms.add(vm);
+                return vms.size() - 1;
+            });
+        }
+        slotsByList.put(list, slots);
+        return slots;
+    }
+
+    /**
+     * Number of slots in use: VMs seen since the last start over.
+     */
+    int size() {
+        return vms.size();
+    }
+
+    /**
+     * How many times the slots started over, so callers can tell fresh slots from grown ones.
+     */
+    int restarts() {
+        return restarts;
+    }
+
+    Vm vm(int slot) {
+        return vms.get(slot);
+    }
+
+    private void clear() {
+        slotOf.clear();
+        vms.clear();
+        slotsByList.clear();
+        restarts++;
+    }
+}
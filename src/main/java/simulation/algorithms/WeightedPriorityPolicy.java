@@ -0,0 +1,28 @@
+package simulation.algorithms;
+
+import simulation.algorithms.prescheduling.PreSchedulingStage;
+import simulation.algorithms.prescheduling.UrgencyStage;
+
+/**
+ * Weighted Priority Policy
+ *
+ * Extends EarliestFinishTimePolicy with priority ordering
+ *
+ * Steps:
+ * 1. Pre-order all tasks by CPU demand / (priority + 1) - ASCENDING, ties by due time: short and important
+ *    tasks first, which minimises the priority-weighted mean completion time
+ * 2. For each task (in that order), pick the VM with the earliest estimated finish
+ *
+ * Unlike EarliestDeadlineFirstPolicy it trades deadlines of low-priority tasks for completion time of
+ * high-priority ones.
+ */
+public class WeightedPriorityPolicy extends EarliestFinishTimePolicy {
+
+    private static final PreSchedulingStage BY_WEIGHTED_DEMAND =
+            new UrgencyStage(UrgencyStage.Order.WEIGHTED_PRIORITY);
+
+    @Override
+    public PreSchedulingStage getPreSchedulingStage() {
+        return BY_WEIGHTED_DEMAND;
+    }
+}
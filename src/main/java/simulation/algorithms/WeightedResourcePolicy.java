@@ -18,11 +18,19 @@ import java.util.Map;
  * 1. Track cumulative CPU demand & average RAM usage
  * 2. Score each VM to find the one with most available resources
  * 3. Assign cloudlet to VM with the lowest score (least loaded)
+ *
+ * Both loads are normalised by each VM's own capacity, so the score stays comparable across heterogeneous VMs.
+ * The CPU load is divided by MIPS * PEs. The RAM term estimates the RAM the VM's tasks need with every PE busy
+ * (average RAM utilization per task * PEs), scaled by the mean RAM of the VMs offered over the VM's own RAM:
+ * a wide VM with proportionally more RAM scores like a narrow one, and on fleets where every VM has the same
+ * RAM the factor is exactly 1. VMs with fewer PEs than the task requires are skipped.
+ *
+ * The score weights default to CPU_WEIGHT and RAM_WEIGHT and can be overridden per instance, e.g. for weight sweeps.
  */
 public class WeightedResourcePolicy implements CloudletVmSelectionPolicy {
 
-    private static final double CPU_WEIGHT = 4;
-    private static final double RAM_WEIGHT = 30;
+    public static final double CPU_WEIGHT = 4;
+    public static final double RAM_WEIGHT = 30;
 
     // Track CPU load per VM (in MI - Million Instructions)
     private final Map<Vm, Double> cpuLoad = new HashMap<>();
@@ -33,6 +41,30 @@ public class WeightedResourcePolicy implements CloudletVmSelectionPolicy {
     // Track number of tasks assigned to each VM as of now
     private final Map<Vm, Integer> taskCount = new HashMap<>();
 
+    private final double cpuScoreWeight;
+    private final double ramScoreWeight;
+
+    // Mean RAM of the VM list last offered, the reference the RAM term is normalised against
+    private List<Vm> referenceVms;
+    private double referenceRam;
+
+    public WeightedResourcePolicy() {
+        this(CPU_WEIGHT, RAM_WEIGHT);
+    }
+
+    public WeightedResourcePolicy(double cpuScoreWeight, double ramScoreWeight) {
+        this.cpuScoreWeight = cpuScoreWeight;
+        this.ramScoreWeight = ramScoreWeight;
+    }
+
+    public double getCpuScoreWeight() {
+        return cpuScoreWeight;
+    }
+
+    public double getRamScoreWeight() {
+        return ramScoreWeight;
+    }
+
     protected static double getCpuWeight() {
         return CPU_WEIGHT;
     }
@@ -47,6 +79,8 @@ public class WeightedResourcePolicy implements CloudletVmSelectionPolicy {
             throw new IllegalStateException("No VMs available for Cloudlet mapping");
         }
 
+        updateReferenceRam(vms);
+
         // Initialization if needed
         for (Vm vm : vms) {
             cpuLoad.putIfAbsent(vm, 0.0);
@@ -55,14 +89,18 @@ public class WeightedResourcePolicy implements CloudletVmSelectionPolicy {
         }
 
         // Calculate resource demands for this cloudlet
-        double cloudletCpuDemand = this.calculateCpuDemand(cloudlet);
-        double cloudletRamDemand = this.calculateRamDemand(cloudlet);
+        double cloudletCpuDemand = WeightedResourcePolicy.calculateCpuDemand(cloudlet);
+        double cloudletRamDemand = WeightedResourcePolicy.calculateRamDemand(cloudlet);
 
         // Find VM with the lowest load score
         Vm selectedVm = null;
         double lowestScore = Double.MAX_VALUE;
 
         for (Vm vm : vms) {
+            if (vm.getPesNumber() < cloudlet.getPesNumber()) {
+                continue;
+            }
+
             double score = this.calculateLoadScore(vm);
 
             if (score < lowestScore) {
@@ -71,16 +109,69 @@ public class WeightedResourcePolicy implements CloudletVmSelectionPolicy {
             }
         }
 
-        // Update maps for the selected VM
-        if (selectedVm != null) {
-            cpuLoad.put(selectedVm, cpuLoad.get(selectedVm) + cloudletCpuDemand);
-            ramUsage.put(selectedVm, ramUsage.get(selectedVm) + cloudletRamDemand);
-            taskCount.put(selectedVm, taskCount.get(selectedVm) + 1);
+        if (selectedVm == null) {
+            throw new IllegalStateException("No VM has enough PEs for Cloudlet " + cloudlet.getId());
         }
 
+        // Update maps for the selected VM
+        cpuLoad.put(selectedVm, cpuLoad.get(selectedVm) + cloudletCpuDemand);
+        ramUsage.put(selectedVm, ramUsage.get(selectedVm) + cloudletRamDemand);
+        taskCount.put(selectedVm, taskCount.get(selectedVm) + 1);
+
         return selectedVm;
     }
 
+    /**
+     * Same decisions as calling {@link #selectVmFor} per cloudlet, with the scoring amortised over the chunk:
+     * a VM's score only depends on its own load, so the scores are computed once per chunk and only the
+     * selected VM is rescored after each assignment, instead of every VM for every cloudlet.
+     */
+    @Override
+    public int[] selectVmsFor(List<Cloudlet> cloudlets, List<Vm> vms) {
+        if (vms.isEmpty()) {
+            throw new IllegalStateException("No VMs available for Cloudlet mapping");
+        }
+
+        updateReferenceRam(vms);
+        double[] scores = new double[vms.size()];
+        for (int v = 0; v < vms.size(); v++) {
+            Vm vm = vms.get(v);
+            cpuLoad.putIfAbsent(vm, 0.0);
+            ramUsage.putIfAbsent(vm, 0.0);
+            taskCount.putIfAbsent(vm, 0);
+            scores[v] = this.calculateLoadScore(vm);
+        }
+
+        int[] assignment = new int[cloudlets.size()];
+        for (int i = 0; i < assignment.length; i++) {
+            Cloudlet cloudlet = cloudlets.get(i);
+
+            int selected = -1;
+            double lowestScore = Double.MAX_VALUE;
+            for (int v = 0; v < scores.length; v++) {
+                if (vms.get(v).getPesNumber() < cloudlet.getPesNumber()) {
+                    continue;
+                }
+                if (scores[v] < lowestScore) {
+                    lowestScore = scores[v];
+                    selected = v;
+                }
+            }
+
+            if (selected < 0) {
+                throw new IllegalStateException("No VM has enough PEs for Cloudlet " + cloudlet.getId());
+            }
+
+            Vm selectedVm = vms.get(selected);
+            cpuLoad.put(selectedVm, cpuLoad.get(selectedVm) + WeightedResourcePolicy.calculateCpuDemand(cloudlet));
+            ramUsage.put(selectedVm, ramUsage.get(selectedVm) + WeightedResourcePolicy.calculateRamDemand(cloudlet));
+            taskCount.put(selectedVm, taskCount.get(selectedVm) + 1);
+            scores[selected] = this.calculateLoadScore(selectedVm);
+            assignment[i] = selected;
+        }
+        return assignment;
+    }
+
     /**
      * Calculate the CPU demand of a cloudlet in Million Instructions (MI).
      */
@@ -89,10 +180,17 @@ public class WeightedResourcePolicy implements CloudletVmSelectionPolicy {
                 ? cloudlet.getUtilizationModelCpu().getUtilization()
                 : 1.0;
 
+        return calculateCpuDemand(cloudlet.getLength(), cpuUtil);
+    }
+
+    /**
+     * Same as {@link #calculateCpuDemand(Cloudlet)}, for a task described by its length and CPU utilization.
+     */
+    public static double calculateCpuDemand(long length, double cpuUtil) {
         if (cpuUtil <= 0.0)
             cpuUtil = 0.01;
 
-        return cloudlet.getLength() / cpuUtil;
+        return length / cpuUtil;
     }
 
     /**
@@ -106,11 +204,24 @@ public class WeightedResourcePolicy implements CloudletVmSelectionPolicy {
         return ramUtil;
     }
 
+    private void updateReferenceRam(List<Vm> vms) {
+        if (vms == referenceVms) {
+            return;
+        }
+        long totalRam = 0;
+        for (Vm vm : vms) {
+            totalRam += vm.getRam().getCapacity();
+        }
+        referenceVms = vms;
+        referenceRam = (double) totalRam / vms.size();
+    }
+
     /**
      * Calculate the load score for a VM.
      * Lower score means less loaded (more available resources).
      *
-     * score = CPU_WEIGHT * (execution / cpu_capacity) + RAM_WEIGHT * (avg_ram_per_task * no_cores)
+     * score = CPU_WEIGHT * (execution / cpu_capacity)
+     *       + RAM_WEIGHT * (avg_ram_per_task * no_cores * reference_ram / vm_ram)
      */
     private double calculateLoadScore(Vm vm) {
         // CPU capacity = MIPS * (no. of PEs (cores))
@@ -129,10 +240,13 @@ public class WeightedResourcePolicy implements CloudletVmSelectionPolicy {
                 ? currentRamUsage / currentTaskCount
                 : 0.0;
         double estimatedAvgRam = avgRamPerTask * vm.getPesNumber();
+        // Normalised by the VM's RAM capacity, as the CPU load is by its CPU capacity
+        double vmRam = vm.getRam().getCapacity();
+        double ramLoadFraction = vmRam > 0 ? estimatedAvgRam * (referenceRam / vmRam) : estimatedAvgRam;
 
         // Weighted score
-        double cpuComponent = getCpuWeight() * cpuLoadFraction;
-        double ramComponent = getRamWeight() * estimatedAvgRam;
+        double cpuComponent = cpuScoreWeight * cpuLoadFraction;
+        double ramComponent = ramScoreWeight * ramLoadFraction;
         double totalScore = cpuComponent + ramComponent;
 
         return totalScore;
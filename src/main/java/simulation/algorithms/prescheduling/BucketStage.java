@@ -0,0 +1,66 @@
+package simulation.algorithms.prescheduling;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+import java.util.List;
+
+/**
+ * Groups tasks into equal-width key buckets and submits bucket by bucket, keeping the original
+ * order inside each bucket. A coarser, O(N) alternative to a full sort: light tasks still go first
+ * (or last), but tasks of similar size are not reordered among themselves.
+ */
+public class BucketStage implements PreSchedulingStage {
+
+    private final TaskKey key;
+    private final int bucketCount;
+    private final boolean descending;
+
+    public BucketStage(TaskKey key, int bucketCount, boolean descending) {
+        if (bucketCount <= 0) {
+            throw new IllegalArgumentException("Bucket count must be positive: " + bucketCount);
+        }
+        this.key = key;
+        this.bucketCount = bucketCount;
+        this.descending = descending;
+    }
+
+    @Override
+    public String getName() {
+        return "bucket(" + key.getName() + ", " + bucketCount + (descending ? ", desc)" : ", asc)");
+    }
+
+    @Override
+    public int[] order(List<Cloudlet> cloudlets) {
+        double[] keys = TaskKey.computeAll(key, cloudlets);
+        int n = keys.length;
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double k : keys) {
+            min = Math.min(min, k);
+            max = Math.max(max, k);
+        }
+        double width = (max - min) / bucketCount;
+
+        // Counting sort on bucket index
+        int[] bucketOf = new int[n];
+        int[] counts = new int[bucketCount + 1];
+        for (int i = 0; i < n; i++) {
+            int bucket = width > 0 ? Math.min(bucketCount - 1, (int) ((keys[i] - min) / width)) : 0;
+            if (descending) {
+                bucket = bucketCount - 1 - bucket;
+            }
+            bucketOf[i] = bucket;
+            counts[bucket + 1]++;
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            counts[b + 1] += counts[b];
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[counts[bucketOf[i]]++] = i;
+        }
+        return order;
+    }
+}
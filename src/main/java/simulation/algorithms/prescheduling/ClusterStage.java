@@ -0,0 +1,194 @@
+package simulation.algorithms.prescheduling;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Clusters tasks with k-means over several features (e.g. CPU demand and RAM demand) and submits
+ * cluster by cluster, smallest centroid first, keeping the original order inside each cluster.
+ *
+ * Features are min-max normalised so none dominates. Initial centroids use k-means++ with a fixed seed,
+ * so the same workload always produces the same order (which is what makes the result cacheable).
+ */
+public class ClusterStage implements PreSchedulingStage {
+
+    private static final int MAX_ITERATIONS = 20;
+    private static final long SEED = 42;
+
+    private final List<TaskKey> features;
+    private final int clusterCount;
+
+    public ClusterStage(List<TaskKey> features, int clusterCount) {
+        if (features.isEmpty() || clusterCount <= 0) {
+            throw new IllegalArgumentException("Clustering needs at least one feature and one cluster");
+        }
+        this.features = List.copyOf(features);
+        this.clusterCount = clusterCount;
+    }
+
+    @Override
+    public String getName() {
+        return "cluster(" + features.stream().map(TaskKey::getName).collect(Collectors.joining(", "))
+                + ", k=" + clusterCount + ")";
+    }
+
+    @Override
+    public int[] order(List<Cloudlet> cloudlets) {
+        int n = cloudlets.size();
+        int d = features.size();
+        if (n == 0) {
+            return new int[0];
+        }
+
+        double[][] points = new double[d][];
+        for (int f = 0; f < d; f++) {
+            points[f] = normalise(TaskKey.computeAll(features.get(f), cloudlets));
+        }
+
+        int k = Math.min(clusterCount, n);
+        double[][] centroids = initialCentroids(points, n, k);
+        int[] assignment = new int[n];
+
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            boolean changed = iteration == 0;
+            for (int i = 0; i < n; i++) {
+                int best = nearest(points, i, centroids);
+                if (best != assignment[i]) {
+                    assignment[i] = best;
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                break;
+            }
+            recompute(points, assignment, centroids);
+        }
+
+        // Rank clusters by centroid magnitude, then emit them in that order
+        Integer[] clusterOrder = new Integer[k];
+        double[] magnitude = new double[k];
+        for (int c = 0; c < k; c++) {
+            clusterOrder[c] = c;
+            for (int f = 0; f < d; f++) {
+                magnitude[c] += centroids[c][f];
+            }
+        }
+        Arrays.sort(clusterOrder, (a, b) -> Double.compare(magnitude[a], magnitude[b]));
+        int[] rank = new int[k];
+        for (int r = 0; r < k; r++) {
+            rank[clusterOrder[r]] = r;
+        }
+
+        int[] starts = new int[k + 1];
+        for (int i = 0; i < n; i++) {
+            starts[rank[assignment[i]] + 1]++;
+        }
+        for (int r = 0; r < k; r++) {
+            starts[r + 1] += starts[r];
+        }
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[starts[rank[assignment[i]]]++] = i;
+        }
+        return order;
+    }
+
+    private static double[] normalise(double[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double v : values) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        double range = max - min;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = range > 0 ? (values[i] - min) / range : 0.0;
+        }
+        return values;
+    }
+
+    private static double[][] initialCentroids(double[][] points, int n, int k) {
+        int d = points.length;
+        Random random = new Random(SEED);
+        double[][] centroids = new double[k][d];
+        double[] distance = new double[n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+
+        int chosen = random.nextInt(n);
+        for (int c = 0; c < k; c++) {
+            for (int f = 0; f < d; f++) {
+                centroids[c][f] = points[f][chosen];
+            }
+            if (c == k - 1) {
+                break;
+            }
+
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                distance[i] = Math.min(distance[i], squaredDistance(points, i, centroids[c]));
+                total += distance[i];
+            }
+            if (total == 0) {
+                chosen = random.nextInt(n);
+                continue;
+            }
+            double target = random.nextDouble() * total;
+            chosen = n - 1;
+            for (int i = 0; i < n; i++) {
+                target -= distance[i];
+                if (target <= 0) {
+                    chosen = i;
+                    break;
+                }
+            }
+        }
+        return centroids;
+    }
+
+    private static int nearest(double[][] points, int i, double[][] centroids) {
+        int best = 0;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < centroids.length; c++) {
+            double distance = squaredDistance(points, i, centroids[c]);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static void recompute(double[][] points, int[] assignment, double[][] centroids) {
+        int k = centroids.length;
+        int d = points.length;
+        double[][] sums = new double[k][d];
+        int[] counts = new int[k];
+        for (int i = 0; i < assignment.length; i++) {
+            counts[assignment[i]]++;
+            for (int f = 0; f < d; f++) {
+                sums[assignment[i]][f] += points[f][i];
+            }
+        }
+        for (int c = 0; c < k; c++) {
+            if (counts[c] == 0) {
+                continue; // keep an empty cluster's centroid where it was
+            }
+            for (int f = 0; f < d; f++) {
+                centroids[c][f] = sums[c][f] / counts[c];
+            }
+        }
+    }
+
+    private static double squaredDistance(double[][] points, int i, double[] centroid) {
+        double sum = 0;
+        for (int f = 0; f < centroid.length; f++) {
+            double delta = points[f][i] - centroid[f];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+}
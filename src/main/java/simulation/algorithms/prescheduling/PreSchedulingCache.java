@@ -0,0 +1,112 @@
+package simulation.algorithms.prescheduling;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import task.model.DeadlineCloudlet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches pre-scheduling orders per (workload, stage), so batches and sweeps that run the same workload
+ * many times compute each order once.
+ *
+ * Workloads are identified by a fingerprint of their task attributes, not by file name, so generated
+ * workloads and edited files never hit a stale entry. Entries are permutations (int[]), which stay valid
+ * for the fresh cloudlets each run creates. The cache is shared across threads and evicts least recently
+ * used entries beyond {@link #MAX_ENTRIES}.
+ */
+public enum PreSchedulingCache {
+    INSTANCE;
+
+    private static final int MAX_ENTRIES = 256;
+
+    private final Map<String, int[]> orders = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Reorders the cloudlets in place according to the stage, reusing a cached order when possible.
+     */
+    public void apply(PreSchedulingStage stage, List<Cloudlet> cloudlets) {
+        int[] order = getOrder(stage, cloudlets);
+
+        List<Cloudlet> original = new ArrayList<>(cloudlets);
+        for (int i = 0; i < order.length; i++) {
+            cloudlets.set(i, original.get(order[i]));
+        }
+    }
+
+    public int[] getOrder(PreSchedulingStage stage, List<Cloudlet> cloudlets) {
+        String stageKey = stage.getCacheKey();
+        if (stageKey == null) {
+            return stage.order(cloudlets);
+        }
+
+        String key = fingerprint(cloudlets) + "/" + stageKey;
+        synchronized (this) {
+            int[] cached = orders.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        // Computed outside the lock; two threads racing on the same key just compute it twice
+        int[] order = stage.order(cloudlets);
+        synchronized (this) {
+            orders.put(key, order);
+        }
+        return order;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        orders.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * 64-bit hash over every task attribute a stage can depend on, in workload order.
+     */
+    static String fingerprint(List<Cloudlet> cloudlets) {
+        long hash = 0xcbf29ce484222325L;
+        for (Cloudlet c : cloudlets) {
+            hash = mix(hash, c.getLength());
+            hash = mix(hash, c.getPesNumber());
+            hash = mix(hash, Double.doubleToLongBits(utilization(c.getUtilizationModelCpu())));
+            hash = mix(hash, Double.doubleToLongBits(utilization(c.getUtilizationModelRam())));
+            hash = mix(hash, Double.doubleToLongBits(utilization(c.getUtilizationModelBw())));
+            hash = mix(hash, c.getPriority());
+            hash = mix(hash, Double.doubleToLongBits(c.getSubmissionDelay()));
+            hash = mix(hash, Double.doubleToLongBits(DeadlineCloudlet.dueTimeOf(c)));
+        }
+        return cloudlets.size() + ":" + Long.toHexString(hash);
+    }
+
+    private static double utilization(org.cloudsimplus.utilizationmodels.UtilizationModel model) {
+        return model == null ? -1.0 : model.getUtilization(0);
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L;
+        return hash ^ (hash >>> 29);
+    }
+}
@@ -0,0 +1,29 @@
+package simulation.algorithms.prescheduling;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+import java.util.List;
+
+/**
+ * Reorders a workload before it is submitted, e.g. sorting, bucketing or clustering tasks.
+ *
+ * A stage returns a permutation instead of reordering the list itself, so the result can be cached
+ * per workload by {@link PreSchedulingCache} and re-applied to the fresh cloudlets of later runs.
+ */
+public interface PreSchedulingStage {
+
+    String getName();
+
+    /**
+     * @return the submission order: element i is the index (in the given list) of the i-th task to submit
+     */
+    int[] order(List<Cloudlet> cloudlets);
+
+    /**
+     * Identifies this stage and its parameters in the cache, or null if the order must never be cached
+     * (e.g. when it depends on state outside the workload).
+     */
+    default String getCacheKey() {
+        return getName();
+    }
+}
@@ -0,0 +1,57 @@
+package simulation.algorithms.prescheduling;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Stable sort of the tasks by a key computed once per task (instead of twice per comparison).
+ * Workloads of at least {@link #PARALLEL_THRESHOLD} tasks are sorted with Arrays.parallelSort,
+ * which is also stable, so both paths produce the same order.
+ */
+public class SortStage implements PreSchedulingStage {
+
+    public static final int PARALLEL_THRESHOLD = 50_000;
+
+    private final TaskKey key;
+    private final boolean descending;
+
+    public SortStage(TaskKey key, boolean descending) {
+        this.key = key;
+        this.descending = descending;
+    }
+
+    @Override
+    public String getName() {
+        return "sort(" + key.getName() + (descending ? ", desc)" : ", asc)");
+    }
+
+    @Override
+    public int[] order(List<Cloudlet> cloudlets) {
+        double[] keys = TaskKey.computeAll(key, cloudlets);
+
+        Integer[] indices = new Integer[keys.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+
+        Comparator<Integer> byKey = (a, b) -> Double.compare(keys[a], keys[b]);
+        if (descending) {
+            byKey = byKey.reversed();
+        }
+
+        if (indices.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(indices, byKey);
+        } else {
+            Arrays.sort(indices, byKey);
+        }
+
+        int[] order = new int[indices.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = indices[i];
+        }
+        return order;
+    }
+}
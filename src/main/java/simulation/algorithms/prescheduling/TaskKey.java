@@ -0,0 +1,43 @@
+package simulation.algorithms.prescheduling;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A named per-task scalar used by pre-scheduling stages (sort key, bucketing key, clustering feature).
+ * The name identifies the function in the {@link PreSchedulingCache}, so two keys with the same name
+ * must compute the same values.
+ */
+public interface TaskKey {
+
+    String getName();
+
+    double of(Cloudlet cloudlet);
+
+    static TaskKey of(String name, ToDoubleFunction<Cloudlet> function) {
+        return new TaskKey() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public double of(Cloudlet cloudlet) {
+                return function.applyAsDouble(cloudlet);
+            }
+        };
+    }
+
+    /**
+     * Evaluates the key once per task.
+     */
+    static double[] computeAll(TaskKey key, List<Cloudlet> cloudlets) {
+        double[] values = new double[cloudlets.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = key.of(cloudlets.get(i));
+        }
+        return values;
+    }
+}
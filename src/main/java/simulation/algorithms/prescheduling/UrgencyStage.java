@@ -0,0 +1,94 @@
+package simulation.algorithms.prescheduling;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import simulation.algorithms.WeightedResourcePolicy;
+import task.model.DeadlineCloudlet;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders the workload the way a priority queue would release its tasks, so tasks are dispatched (and queue on
+ * their VMs) by urgency. A task enters the queue at its submission delay, so urgency only orders tasks that
+ * arrive together: all of them for a batch workload; for one that arrives over time, the order within VM
+ * queues is up to the cloudlet scheduler (see {@link simulation.topology.EdfCloudletScheduler}). Putting an
+ * urgent late task ahead of earlier arrivals would only make ready-time estimates, such as those of
+ * EarliestFinishTimePolicy, reserve PEs from its arrival on while the earlier tasks wait.
+ *
+ * Keys are computed once per task and sorted, which yields the same order as polling a heap, ties broken by
+ * workload order.
+ *
+ * Orders (among tasks with the same submission delay):
+ * 1. EARLIEST_DEADLINE: earliest due time first, then highest priority; tasks without a deadline last
+ * 2. WEIGHTED_PRIORITY: smallest CPU demand per unit of weight first, with weight = priority + 1
+ *    (Smith's rule, which minimises the priority-weighted mean completion time), then earliest due time
+ */
+public class UrgencyStage implements PreSchedulingStage {
+
+    public enum Order {
+        EARLIEST_DEADLINE,
+        WEIGHTED_PRIORITY
+    }
+
+    private final Order order;
+
+    public UrgencyStage(Order order) {
+        this.order = order;
+    }
+
+    @Override
+    public String getName() {
+        return order == Order.EARLIEST_DEADLINE
+                ? "urgency(arrival, dueTime, priority)"
+                : "urgency(arrival, cpuDemand / (priority + 1), dueTime)";
+    }
+
+    @Override
+    public int[] order(List<Cloudlet> cloudlets) {
+        int n = cloudlets.size();
+        double[] arrival = new double[n];
+        double[] primary = new double[n];
+        double[] secondary = new double[n];
+        for (int i = 0; i < n; i++) {
+            Cloudlet cloudlet = cloudlets.get(i);
+            arrival[i] = Math.max(0.0, cloudlet.getSubmissionDelay());
+            double dueTime = DeadlineCloudlet.dueTimeOf(cloudlet);
+            if (order == Order.EARLIEST_DEADLINE) {
+                primary[i] = dueTime;
+                secondary[i] = -cloudlet.getPriority();
+            } else {
+                double weight = Math.max(1, cloudlet.getPriority() + 1);
+                double cpuUtil = cloudlet.getUtilizationModelCpu() != null
+                        ? cloudlet.getUtilizationModelCpu().getUtilization()
+                        : 1.0;
+                primary[i] = WeightedResourcePolicy.calculateCpuDemand(cloudlet.getLength(), cpuUtil) / weight;
+                secondary[i] = dueTime;
+            }
+        }
+
+        Integer[] indices = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        Comparator<Integer> byUrgency = (a, b) -> {
+            int byArrival = Double.compare(arrival[a], arrival[b]);
+            if (byArrival != 0) {
+                return byArrival;
+            }
+            int byPrimary = Double.compare(primary[a], primary[b]);
+            return byPrimary != 0 ? byPrimary : Double.compare(secondary[a], secondary[b]);
+        };
+        if (n >= SortStage.PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(indices, byUrgency);
+        } else {
+            Arrays.sort(indices, byUrgency);
+        }
+
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = indices[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,180 @@
+package simulation.benchmark;
+
+import simulation.dispatch.*;
+import simulation.instrumentation.LatencyHistogram;
+import simulation.topology.TopologyConfig;
+import task.CreateTasks;
+import task.generator.WorkloadGenerator;
+import task.model.CloudletInfo;
+import task.model.WorkloadType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Load generator for the {@link DispatchService}: closed-loop client threads send placement requests as fast as
+ * they are answered, and complete their placements after {@link #IN_FLIGHT_PER_CLIENT} newer ones, so the
+ * policies see completion callbacks and a steady load. For each policy and client count it reports throughput
+ * and decision latency percentiles over the measurement window, after a warm-up of the same length.
+ *
+ * Each client records latencies into its own {@link LatencyHistogram}; they are merged once the clients stop.
+ * After every run all placements are completed, and the service must be back to no running tasks.
+ *
+ * Throughput only scales up to the number of cores; more clients than cores measure contention and
+ * scheduling delay instead.
+ *
+ * Usage: DispatchLoadBenchmark [maxClients] [seconds]
+ */
+public class DispatchLoadBenchmark {
+
+    private static final int TASKS = 10_000;
+    private static final int IN_FLIGHT_PER_CLIENT = 32;
+
+    private static final Map<String, Function<DispatchFleet, DispatchPolicy>> POLICIES = new LinkedHashMap<>();
+
+    static {
+        POLICIES.put("RoundRobin (lock-free)", ConcurrentRoundRobinPolicy::new);
+        POLICIES.put("Weighted (optimistic)", ConcurrentWeightedResourcePolicy::new);
+        POLICIES.put("Weighted (synchronized)",
+                fleet -> new SynchronizedDispatchPolicy(new ConcurrentWeightedResourcePolicy(fleet)));
+    }
+
+    private static final int WARMUP = 0;
+    private static final int MEASURE = 1;
+    private static final int STOP = 2;
+
+    private static class Client extends Thread {
+        private final DispatchService service;
+        private final CloudletInfo[] tasks;
+        private final int offset;
+        private final AtomicInteger phase;
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        Client(DispatchService service, CloudletInfo[] tasks, int offset, AtomicInteger phase) {
+            this.service = service;
+            this.tasks = tasks;
+            this.offset = offset;
+            this.phase = phase;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            DispatchService.Placement[] inFlight = new DispatchService.Placement[IN_FLIGHT_PER_CLIENT];
+            int next = offset;
+            int slot = 0;
+            int current;
+            while ((current = phase.get()) != STOP) {
+                CloudletInfo task = tasks[next];
+                next = next + 1 == tasks.length ? 0 : next + 1;
+
+                long start = System.nanoTime();
+                DispatchService.Placement placement = service.dispatch(task);
+                long elapsed = System.nanoTime() - start;
+                if (current == MEASURE) {
+                    latency.record(elapsed);
+                }
+
+                if (inFlight[slot] != null) {
+                    service.complete(inFlight[slot]);
+                }
+                inFlight[slot] = placement;
+                slot = slot + 1 == inFlight.length ? 0 : slot + 1;
+            }
+            for (DispatchService.Placement placement : inFlight) {
+                if (placement != null) {
+                    service.complete(placement);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxClients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 2.0;
+
+        DispatchFleet fleet = DispatchFleet.fromTopology(TopologyConfig.load(TopologyConfig.DEFAULT_TOPOLOGY_FILE));
+        CloudletInfo[] tasks = new WorkloadGenerator(CreateTasks.RANDOM_SEED).createCloudletInfos(TASKS,
+                WorkloadType.BALANCED, CreateTasks.PES_NUMBER, CreateTasks.MIN_LENGTH, CreateTasks.MAX_LENGTH,
+                CreateTasks.FILE_SIZE, CreateTasks.OUTPUT_SIZE);
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i].setId(i);
+        }
+
+        List<Integer> clientCounts = new ArrayList<>();
+        for (int clients = 1; clients <= maxClients; clients *= 2) {
+            clientCounts.add(clients);
+        }
+
+        System.out.println("=".repeat(100));
+        System.out.printf(Locale.US, "DISPATCH LOAD: %d VMs, %d cores, %.1f s warm-up + %.1f s measured per run%n",
+                fleet.size(), Runtime.getRuntime().availableProcessors(), seconds, seconds);
+        System.out.println("=".repeat(100));
+        System.out.printf("%-26s %8s %14s %10s %10s %10s %10s %12s%n", "Policy", "Clients", "Decisions/s",
+                "p50 (ns)", "p99 (ns)", "p99.9 (ns)", "Max (us)", "Retries/1k");
+        System.out.println("-".repeat(100));
+
+        for (Map.Entry<String, Function<DispatchFleet, DispatchPolicy>> entry : POLICIES.entrySet()) {
+            for (int clients : clientCounts) {
+                runOnce(entry.getKey(), entry.getValue().apply(fleet), fleet, tasks, clients, seconds);
+            }
+            System.out.println("-".repeat(100));
+        }
+    }
+
+    private static void runOnce(String name, DispatchPolicy policy, DispatchFleet fleet, CloudletInfo[] tasks,
+                                int clientCount, double seconds) throws InterruptedException {
+        DispatchService service = new DispatchService(policy, fleet);
+        AtomicInteger phase = new AtomicInteger(WARMUP);
+        List<Client> clients = new ArrayList<>(clientCount);
+        for (int i = 0; i < clientCount; i++) {
+            clients.add(new Client(service, tasks, i * tasks.length / clientCount, phase));
+        }
+        long windowMillis = (long) (seconds * 1000);
+
+        for (Client client : clients) {
+            client.start();
+        }
+        Thread.sleep(windowMillis);
+        long retriesBefore = retries(policy);
+        phase.set(MEASURE);
+        long start = System.nanoTime();
+        Thread.sleep(windowMillis);
+        phase.set(STOP);
+        long elapsed = System.nanoTime() - start;
+        long retries = retries(policy) - retriesBefore;
+        for (Client client : clients) {
+            client.join();
+        }
+
+        LatencyHistogram latency = new LatencyHistogram();
+        for (Client client : clients) {
+            latency.add(client.latency);
+        }
+        for (int v = 0; v < fleet.size(); v++) {
+            if (service.getRunning(v) != 0) {
+                throw new IllegalStateException(name + ": VM " + v + " still has running tasks after the run");
+            }
+        }
+
+        double throughput = latency.getCount() / (elapsed / 1e9);
+        System.out.printf(Locale.US, "%-26s %8d %14.0f %10d %10d %10d %10.1f %12s%n", name, clientCount, throughput,
+                latency.getPercentile(0.50), latency.getPercentile(0.99), latency.getPercentile(0.999),
+                latency.getMax() / 1e3,
+                retriesBefore < 0 ? "-" : String.format(Locale.US, "%.2f", 1000.0 * retries / latency.getCount()));
+    }
+
+    private static long retries(DispatchPolicy policy) {
+        if (policy instanceof SynchronizedDispatchPolicy) {
+            policy = ((SynchronizedDispatchPolicy) policy).getDelegate();
+        }
+        return policy instanceof ConcurrentWeightedResourcePolicy
+                ? ((ConcurrentWeightedResourcePolicy) policy).getRetries()
+                : -1;
+    }
+}
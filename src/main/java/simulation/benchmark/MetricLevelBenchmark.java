@@ -0,0 +1,109 @@
+package simulation.benchmark;
+
+import simulation.MetricLevel;
+import simulation.WorkloadSimulationRunner;
+import simulation.WorkloadSimulationRunner.MachineUtilizationReport;
+import simulation.algorithms.WeightedResourcePolicy;
+import task.model.CloudletInfo;
+import task.utils.TaskUtils;
+import task.utils.UtilizationModelCache;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Measures what each {@link MetricLevel} costs: median wall time and allocation per run, relative to OFF.
+ * Also checks that the level does not change the schedule (makespan must be identical).
+ * Levels are interleaved within each repetition so heap growth and JIT state do not favour one of them.
+ *
+ * Usage: MetricLevelBenchmark [workload.json] [repetitions]
+ */
+public class MetricLevelBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        Path workload = Path.of(args.length > 0 ? args[0] : "output/tasks/tasks_1000_balanced.json");
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        CloudletInfo[] infos = TaskUtils.INSTANCE.loadCloudletInfosFromJson(workload);
+        UtilizationModelCache cache = new UtilizationModelCache();
+
+        System.out.println("=".repeat(80));
+        System.out.println("METRIC LEVELS: " + workload + " (" + repetitions + " runs each)");
+        System.out.println("=".repeat(80));
+
+        // Warm-up
+        runOnce(infos, cache, MetricLevel.FULL, new long[1], new double[1], new int[1]);
+
+        double offWallMs = 0;
+        double offAllocatedMb = 0;
+        double offMakespan = 0;
+
+        System.out.printf("%-8s %12s %10s %14s %10s %12s%n",
+                "Level", "Wall (ms)", "vs OFF", "Alloc (MB)", "vs OFF", "Samples");
+        System.out.println("-".repeat(80));
+
+        MetricLevel[] levels = MetricLevel.values();
+        long[][] wallMs = new long[levels.length][repetitions];
+        long[][] allocated = new long[levels.length][repetitions];
+        double[][] makespans = new double[levels.length][1];
+        int[][] sampleCounts = new int[levels.length][1];
+
+        for (int r = 0; r < repetitions; r++) {
+            for (int l = 0; l < levels.length; l++) {
+                long[] elapsed = new long[1];
+                long before = ScalabilityBenchmark.threadAllocatedBytes();
+                runOnce(infos, cache, levels[l], elapsed, makespans[l], sampleCounts[l]);
+                allocated[l][r] = ScalabilityBenchmark.threadAllocatedBytes() - before;
+                wallMs[l][r] = elapsed[0];
+            }
+        }
+
+        for (int l = 0; l < levels.length; l++) {
+            MetricLevel level = levels[l];
+            double[] makespan = makespans[l];
+            int[] samples = sampleCounts[l];
+            double medianWall = median(wallMs[l]);
+            double medianAllocatedMb = median(allocated[l]) / 1e6;
+            if (level == MetricLevel.OFF) {
+                offWallMs = medianWall;
+                offAllocatedMb = medianAllocatedMb;
+                offMakespan = makespan[0];
+            }
+
+            System.out.printf(Locale.US, "%-8s %12.0f %+9.1f%% %14.1f %+9.1f%% %12d%n",
+                    level, medianWall, relative(medianWall, offWallMs),
+                    medianAllocatedMb, relative(medianAllocatedMb, offAllocatedMb), samples[0]);
+
+            if (makespan[0] != offMakespan) {
+                System.out.printf(Locale.US, "  WARNING: makespan %.4f differs from OFF (%.4f)%n",
+                        makespan[0], offMakespan);
+            }
+        }
+    }
+
+    private static void runOnce(CloudletInfo[] infos, UtilizationModelCache cache, MetricLevel level,
+                                long[] elapsedMs, double[] makespan, int[] samples) throws Exception {
+        MachineUtilizationReport[] machineReport = new MachineUtilizationReport[1];
+        WorkloadSimulationRunner.RunSummary summary = new WorkloadSimulationRunner(new WeightedResourcePolicy())
+                .setMetricLevel(level)
+                .setReportSink((task, machine) -> machineReport[0] = machine)
+                .run("benchmark", TaskUtils.INSTANCE.toCloudlets(infos, cache), false);
+        elapsedMs[0] = summary.elapsedMs;
+        makespan[0] = summary.makespan;
+        samples[0] = machineReport[0].vms.stream().mapToInt(v -> v.ramSamples).sum();
+    }
+
+    private static double median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2.0;
+    }
+
+    private static double relative(double value, double reference) {
+        return reference == 0 ? 0 : 100.0 * (value - reference) / reference;
+    }
+}
@@ -0,0 +1,325 @@
+package simulation.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import simulation.WorkloadSimulationRunner;
+import simulation.algorithms.*;
+import simulation.topology.TopologyConfig;
+import task.generator.WorkloadGenerator;
+import task.model.WorkloadType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * End-to-end scalability benchmark for {@link WorkloadSimulationRunner}.
+ *
+ * Runs a matrix of task counts x VM counts x policies on generated workloads and records, per cell,
+ * wall time, simulation events, peak heap and bytes allocated by the simulation thread.
+ *
+ * Usage: ScalabilityBenchmark [baseline|check] [quick|full]
+ *  - baseline: runs the matrix and writes the baseline file
+ *  - check:    runs the matrix and exits with status 1 if any cell regresses beyond the tolerances below
+ *
+ * The full matrix (up to 1M tasks and 4,096 VMs) takes hours; the quick matrix is meant for every change.
+ * Wall time is the fastest of a cell's repetitions and is only gated when both runs have at least
+ * MIN_GATED_REPETITIONS of them on the same JVM version and processor count; events and allocation are
+ * (nearly) deterministic and always gated. A change to the simulation's defaults changes these numbers too, so
+ * it should come with a regenerated baseline.
+ */
+public class ScalabilityBenchmark {
+
+    private static final Path OUTPUT_DIR = Path.of("output/benchmarks");
+
+    private static final int[] QUICK_TASK_COUNTS = {200, 1_000};
+    private static final int[] QUICK_VM_COUNTS = {8, 64};
+    private static final int[] FULL_TASK_COUNTS = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int[] FULL_VM_COUNTS = {8, 64, 512, 4_096};
+
+    private static final List<Class<? extends CloudletVmSelectionPolicy>> POLICY_CLASSES = List.of(
+            RoundRobinCloudletVmPolicy.class,
+            WeightedResourcePolicy.class,
+            SortedTaskBestFitPolicy.class
+    );
+
+    // Each cell keeps the lowest wall time, heap and allocation of its repetitions: interference only adds to them
+    private static final int QUICK_REPETITIONS = 5;
+    private static final int FULL_REPETITIONS = 1;
+    private static final int MIN_GATED_REPETITIONS = 3;
+    // Rounds over every policy before measuring, so the first cells are not paying for JIT compilation
+    private static final int WARM_UP_ROUNDS = 3;
+
+    // Allowed relative growth before a cell counts as a regression
+    private static final double WALL_TIME_TOLERANCE = 0.25;
+    private static final double ALLOCATION_TOLERANCE = 0.10;
+    private static final double PEAK_HEAP_TOLERANCE = 0.25;
+    private static final double EVENTS_TOLERANCE = 0.05;
+    // Cells faster than this are dominated by timer noise, so wall time is not gated on them
+    private static final long MIN_GATED_WALL_MS = 200;
+
+    // Same generation parameters as CreateTasks
+    private static final long RANDOM_SEED = 2507;
+    private static final long MIN_LENGTH = 500_000L;
+    private static final long MAX_LENGTH = 5_000_000L;
+
+    // The default VM class fits 4 VMs on one default host
+    private static final int VMS_PER_HOST = 4;
+
+    public static class BenchmarkResult {
+        public String policy;
+        public int tasks;
+        public int vms;
+        public long wallMs;
+        public long eventsProcessed;
+        public long peakHeapBytes;
+        public long allocatedBytes;
+        public double makespan;
+
+        String key() {
+            return policy + "/" + tasks + "/" + vms;
+        }
+    }
+
+    public static class Baseline {
+        public String profile;
+        public String javaVersion;
+        public int availableProcessors;
+        public int repetitions;
+        public List<BenchmarkResult> results = new ArrayList<>();
+    }
+
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    public static void main(String[] args) throws Exception {
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        String mode = args.length > 0 ? args[0] : "check";
+        String profile = args.length > 1 ? args[1] : "quick";
+        boolean full = profile.equals("full");
+
+        int[] taskCounts = full ? FULL_TASK_COUNTS : QUICK_TASK_COUNTS;
+        int[] vmCounts = full ? FULL_VM_COUNTS : QUICK_VM_COUNTS;
+        int repetitions = full ? FULL_REPETITIONS : QUICK_REPETITIONS;
+
+        Path baselinePath = OUTPUT_DIR.resolve("scalability_baseline_" + profile + ".json");
+        Path latestPath = OUTPUT_DIR.resolve("scalability_latest_" + profile + ".json");
+        Files.createDirectories(OUTPUT_DIR);
+
+        System.out.println("=".repeat(80));
+        System.out.printf("SCALABILITY BENCHMARK (%s, %s)%n", mode, profile);
+        System.out.println("=".repeat(80));
+
+        warmUp();
+
+        Baseline current = new Baseline();
+        current.profile = profile;
+        current.javaVersion = System.getProperty("java.version");
+        current.availableProcessors = Runtime.getRuntime().availableProcessors();
+        current.repetitions = repetitions;
+
+        System.out.printf("%-28s %9s %6s %10s %12s %12s %14s%n",
+                "Policy", "Tasks", "VMs", "Wall (ms)", "Events", "PeakHeap MB", "Alloc MB");
+        System.out.println("-".repeat(97));
+
+        for (int taskCount : taskCounts) {
+            for (int vmCount : vmCounts) {
+                for (Class<? extends CloudletVmSelectionPolicy> policyClass : POLICY_CLASSES) {
+                    BenchmarkResult result = runCell(policyClass, taskCount, vmCount, repetitions);
+                    current.results.add(result);
+                    System.out.printf(Locale.US, "%-28s %9d %6d %10d %12d %12.1f %14.1f%n",
+                            result.policy, result.tasks, result.vms, result.wallMs, result.eventsProcessed,
+                            result.peakHeapBytes / 1e6, result.allocatedBytes / 1e6);
+                }
+            }
+        }
+
+        writeJson(current, latestPath);
+
+        if (mode.equals("baseline")) {
+            writeJson(current, baselinePath);
+            System.out.printf("%nBaseline written to: %s%n", baselinePath);
+            return;
+        }
+
+        if (!Files.exists(baselinePath)) {
+            System.err.printf("%nNo baseline at %s. Run with 'baseline' first.%n", baselinePath);
+            System.exit(2);
+        }
+
+        List<String> regressions = compare(readJson(baselinePath), current);
+        System.out.println();
+        if (regressions.isEmpty()) {
+            System.out.println("No regressions against " + baselinePath);
+        } else {
+            System.out.println("REGRESSIONS:");
+            regressions.forEach(r -> System.out.println("  - " + r));
+            System.exit(1);
+        }
+    }
+
+    private static void warmUp() throws Exception {
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            for (Class<? extends CloudletVmSelectionPolicy> policyClass : POLICY_CLASSES) {
+                runOnce(policyClass, 200, 8);
+            }
+        }
+    }
+
+    private static BenchmarkResult runCell(Class<? extends CloudletVmSelectionPolicy> policyClass,
+                                           int taskCount, int vmCount, int repetitions) throws Exception {
+        BenchmarkResult cell = null;
+        for (int i = 0; i < repetitions; i++) {
+            BenchmarkResult run = runOnce(policyClass, taskCount, vmCount);
+            if (cell == null) {
+                cell = run;
+                continue;
+            }
+            cell.wallMs = Math.min(cell.wallMs, run.wallMs);
+            cell.peakHeapBytes = Math.min(cell.peakHeapBytes, run.peakHeapBytes);
+            cell.allocatedBytes = Math.min(cell.allocatedBytes, run.allocatedBytes);
+        }
+        return cell;
+    }
+
+    private static BenchmarkResult runOnce(Class<? extends CloudletVmSelectionPolicy> policyClass,
+                                           int taskCount, int vmCount) throws Exception {
+        List<Cloudlet> cloudlets = new WorkloadGenerator(RANDOM_SEED).createCloudlets(
+                taskCount, WorkloadType.BALANCED, 1, MIN_LENGTH, MAX_LENGTH, 300L, 300L);
+        CloudletVmSelectionPolicy policy = policyClass.getDeclaredConstructor().newInstance();
+        WorkloadSimulationRunner runner = new WorkloadSimulationRunner(policy, topologyFor(vmCount))
+                .setWriteResults(false);
+
+        System.gc();
+        resetPeakHeap();
+        long allocatedBefore = threadAllocatedBytes();
+        long start = System.nanoTime();
+
+        WorkloadSimulationRunner.RunSummary summary =
+                runner.run("generated_" + taskCount + "_balanced", cloudlets, false);
+
+        long wallMs = (System.nanoTime() - start) / 1_000_000;
+        long allocatedAfter = threadAllocatedBytes();
+
+        BenchmarkResult result = new BenchmarkResult();
+        result.policy = policyClass.getSimpleName();
+        result.tasks = taskCount;
+        result.vms = vmCount;
+        result.wallMs = wallMs;
+        result.eventsProcessed = summary.eventsProcessed;
+        result.peakHeapBytes = peakHeap();
+        result.allocatedBytes = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+        result.makespan = summary.makespan;
+        return result;
+    }
+
+    static TopologyConfig topologyFor(int vmCount) {
+        TopologyConfig topology = TopologyConfig.defaultTopology();
+        topology.name = "benchmark_" + vmCount;
+        topology.hosts.get(0).count = (vmCount + VMS_PER_HOST - 1) / VMS_PER_HOST;
+        topology.vms.get(0).count = vmCount;
+        return topology;
+    }
+
+    private static List<String> compare(Baseline baseline, Baseline current) {
+        Map<String, BenchmarkResult> byKey = new HashMap<>();
+        for (BenchmarkResult r : baseline.results) {
+            byKey.put(r.key(), r);
+        }
+
+        // Minima of too few samples, or from another machine, are not comparable
+        boolean gateWallTime = baseline.repetitions >= MIN_GATED_REPETITIONS
+                && current.repetitions >= MIN_GATED_REPETITIONS
+                && Objects.equals(baseline.javaVersion, current.javaVersion)
+                && baseline.availableProcessors == current.availableProcessors;
+        if (!gateWallTime) {
+            System.out.printf("%nWall time not gated: baseline has %d repetitions on Java %s with %d processors, "
+                            + "this run %d on Java %s with %d%n", baseline.repetitions, baseline.javaVersion,
+                    baseline.availableProcessors, current.repetitions, current.javaVersion,
+                    current.availableProcessors);
+        }
+
+        List<String> regressions = new ArrayList<>();
+        for (BenchmarkResult now : current.results) {
+            BenchmarkResult before = byKey.get(now.key());
+            if (before == null) {
+                continue;
+            }
+            if (gateWallTime && before.wallMs >= MIN_GATED_WALL_MS) {
+                checkGrowth(regressions, now.key(), "wall time", before.wallMs, now.wallMs, WALL_TIME_TOLERANCE);
+            }
+            checkGrowth(regressions, now.key(), "events", before.eventsProcessed, now.eventsProcessed, EVENTS_TOLERANCE);
+            checkGrowth(regressions, now.key(), "peak heap", before.peakHeapBytes, now.peakHeapBytes, PEAK_HEAP_TOLERANCE);
+            if (before.allocatedBytes > 0 && now.allocatedBytes > 0) {
+                checkGrowth(regressions, now.key(), "allocation", before.allocatedBytes, now.allocatedBytes,
+                        ALLOCATION_TOLERANCE);
+            }
+        }
+        return regressions;
+    }
+
+    private static void checkGrowth(List<String> regressions, String key, String metric,
+                                    long before, long now, double tolerance) {
+        if (before > 0 && now > before * (1.0 + tolerance)) {
+            regressions.add(String.format(Locale.US, "%s: %s %d -> %d (+%.1f%%, tolerance %.0f%%)",
+                    key, metric, before, now, 100.0 * (now - before) / before, tolerance * 100));
+        }
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Sum of the per-pool heap peaks since the last reset. Pools peak at different moments,
+     * so this is an upper bound on the real peak, but it is stable across runs, which is what the gate needs.
+     */
+    private static long peakHeap() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or -1 when the JVM does not expose it.
+     * CloudSim Plus runs the whole simulation on the calling thread, so this covers the run.
+     */
+    static long threadAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static void writeJson(Baseline baseline, Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            gson.toJson(baseline, writer);
+        }
+    }
+
+    private static Baseline readJson(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path)) {
+            return gson.fromJson(reader, Baseline.class);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package simulation.benchmark;
+
+import simulation.MetricLevel;
+import simulation.WorkloadSimulationRunner;
+import simulation.WorkloadSimulationRunner.RunSummary;
+import simulation.WorkloadSimulationRunner.ShadowStats;
+import simulation.algorithms.*;
+import simulation.topology.TopologyConfig;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Checks shadow evaluation against the simulations it saves: one run of the primary policy with all
+ * candidates shadowing it, then one full simulation per candidate. Reports each candidate's estimated and
+ * simulated makespan, the Spearman rank correlation between the two, and the wall time of the shadowed run
+ * against that of the full runs.
+ *
+ * Candidates marked with "~" have a pre-scheduling stage, which their full run applies but their shadow does
+ * not (shadows see the primary's order), so their two makespans describe different runs.
+ *
+ * Usage: ShadowEvaluationBenchmark [workload.json] [topology.json]
+ */
+public class ShadowEvaluationBenchmark {
+
+    private static Map<String, Supplier<CloudletVmSelectionPolicy>> candidates() {
+        Map<String, Supplier<CloudletVmSelectionPolicy>> candidates = new LinkedHashMap<>();
+        candidates.put("RoundRobin", RoundRobinCloudletVmPolicy::new);
+        candidates.put("Weighted(4, 30)", WeightedResourcePolicy::new);
+        candidates.put("Weighted(1, 30)", () -> new WeightedResourcePolicy(1, 30));
+        candidates.put("Weighted(16, 30)", () -> new WeightedResourcePolicy(16, 30));
+        candidates.put("Weighted(4, 5)", () -> new WeightedResourcePolicy(4, 5));
+        candidates.put("Weighted(4, 120)", () -> new WeightedResourcePolicy(4, 120));
+        candidates.put("SortedTaskBestFit", SortedTaskBestFitPolicy::new);
+        candidates.put("RamAware", RamAwarePolicy::new);
+        return candidates;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path workloadFile = Path.of(args.length > 0 ? args[0] : "output/tasks/tasks_3000_balanced.json");
+        Path topologyFile = args.length > 1 ? Path.of(args[1]) : TopologyConfig.DEFAULT_TOPOLOGY_FILE;
+        TopologyConfig topology = TopologyConfig.load(topologyFile);
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        Map<String, Supplier<CloudletVmSelectionPolicy>> candidates = candidates();
+        Map<String, CloudletVmSelectionPolicy> shadows = new LinkedHashMap<>();
+        candidates.forEach((name, policy) -> shadows.put(name, policy.get()));
+
+        long start = System.nanoTime();
+        RunSummary shadowed = new WorkloadSimulationRunner(new EarliestFinishTimePolicy(), topology)
+                .setMetricLevel(MetricLevel.OFF)
+                .setReportSink(null)
+                .setShadowPolicies(shadows)
+                .run(workloadFile, false);
+        double shadowedMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.println("=".repeat(96));
+        System.out.println("SHADOW EVALUATION: " + workloadFile + " on " + topologyFile);
+        System.out.println("=".repeat(96));
+        System.out.printf("%-28s %10s %14s %14s %9s %9s %11s%n",
+                "Policy", "Agreement%", "EstMakespan", "SimMakespan", "Error%", "ns/dec", "Sim (ms)");
+        System.out.println("-".repeat(96));
+
+        ShadowStats primary = shadowed.shadow.get(0);
+        System.out.printf(Locale.US, "%-28s %10s %14.2f %14.2f %+9.2f %9.0f %11.0f%n",
+                primary.policy + " *", "-", primary.estimatedMakespan, shadowed.makespan,
+                error(primary.estimatedMakespan, shadowed.makespan), primary.meanDecisionNanos, shadowedMillis);
+
+        List<Double> estimated = new ArrayList<>();
+        List<Double> simulated = new ArrayList<>();
+        double fullMillis = 0;
+        for (ShadowStats stats : shadowed.shadow.subList(1, shadowed.shadow.size())) {
+            if (stats.error != null) {
+                System.out.printf("%-28s failed: %s%n", stats.policy, stats.error);
+                continue;
+            }
+            CloudletVmSelectionPolicy policy = candidates.get(stats.policy).get();
+            start = System.nanoTime();
+            RunSummary full = new WorkloadSimulationRunner(policy, topology)
+                    .setMetricLevel(MetricLevel.OFF)
+                    .setReportSink(null)
+                    .run(workloadFile, false);
+            double millis = (System.nanoTime() - start) / 1e6;
+            fullMillis += millis;
+
+            estimated.add(stats.estimatedMakespan);
+            simulated.add(full.makespan);
+            String name = policy.getPreSchedulingStage() != null ? stats.policy + " ~" : stats.policy;
+            System.out.printf(Locale.US, "%-28s %10.2f %14.2f %14.2f %+9.2f %9.0f %11.0f%n",
+                    name, stats.agreement * 100.0, stats.estimatedMakespan, full.makespan,
+                    error(stats.estimatedMakespan, full.makespan), stats.meanDecisionNanos, millis);
+        }
+        System.out.println("=".repeat(96));
+        System.out.printf(Locale.US, "Rank correlation (Spearman) of estimated and simulated makespans: %.3f%n",
+                spearman(estimated, simulated));
+        System.out.printf(Locale.US, "One shadowed run: %.0f ms; %d full runs: %.0f ms%n",
+                shadowedMillis, estimated.size(), fullMillis);
+    }
+
+    private static double error(double estimated, double simulated) {
+        return simulated > 0 ? (estimated / simulated - 1) * 100.0 : 0.0;
+    }
+
+    private static double spearman(List<Double> a, List<Double> b) {
+        int n = a.size();
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double[] rankA = ranks(a);
+        double[] rankB = ranks(b);
+        double meanRank = (n + 1) / 2.0;
+        double covariance = 0;
+        double varianceA = 0;
+        double varianceB = 0;
+        for (int i = 0; i < n; i++) {
+            covariance += (rankA[i] - meanRank) * (rankB[i] - meanRank);
+            varianceA += (rankA[i] - meanRank) * (rankA[i] - meanRank);
+            varianceB += (rankB[i] - meanRank) * (rankB[i] - meanRank);
+        }
+        return varianceA == 0 || varianceB == 0 ? Double.NaN : covariance / Math.sqrt(varianceA * varianceB);
+    }
+
+    // 1-based ranks, ties sharing their average rank
+    private static double[] ranks(List<Double> values) {
+        int n = values.size();
+        double[] ranks = new double[n];
+        for (int i = 0; i < n; i++) {
+            int below = 0;
+            int equal = 0;
+            for (int j = 0; j < n; j++) {
+                int cmp = Double.compare(values.get(j), values.get(i));
+                if (cmp < 0) {
+                    below++;
+                } else if (cmp == 0) {
+                    equal++;
+                }
+            }
+            ranks[i] = below + (equal + 1) / 2.0;
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,70 @@
+package simulation.benchmark;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import simulation.WorkloadSimulationRunner;
+import simulation.algorithms.CloudletVmSelectionPolicy;
+import simulation.algorithms.WeightedResourcePolicy;
+import task.utils.TaskUtils;
+import task.utils.UtilizationModelCache;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reports what the shared utilization models save and what quantising them costs in accuracy.
+ *
+ * For each precision it loads the workload through a {@link UtilizationModelCache}, prints the
+ * heap saved and the input rounding error, then runs the simulation and compares makespan and
+ * mean task finish time against the exact (precision 0) run.
+ *
+ * Usage: UtilizationModelCacheBenchmark [workload.json]
+ */
+public class UtilizationModelCacheBenchmark {
+
+    private static final double[] PRECISIONS = {0.0, 0.0001, 0.001, 0.01};
+
+    public static void main(String[] args) throws Exception {
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        Path workload = Path.of(args.length > 0 ? args[0] : "output/tasks/tasks_1000_balanced.json");
+
+        System.out.println("=".repeat(80));
+        System.out.println("UTILIZATION MODEL CACHE: " + workload);
+        System.out.println("=".repeat(80));
+
+        double exactMakespan = 0;
+        double exactMeanFinish = 0;
+
+        for (double precision : PRECISIONS) {
+            UtilizationModelCache cache = new UtilizationModelCache(precision);
+
+            long allocatedBefore = ScalabilityBenchmark.threadAllocatedBytes();
+            List<Cloudlet> cloudlets = TaskUtils.INSTANCE.loadCloudletsFromJson(workload, cache);
+            long loadAllocated = ScalabilityBenchmark.threadAllocatedBytes() - allocatedBefore;
+
+            CloudletVmSelectionPolicy policy = new WeightedResourcePolicy();
+            WorkloadSimulationRunner.RunSummary summary = new WorkloadSimulationRunner(policy)
+                    .setWriteResults(false)
+                    .run(workload.getFileName().toString(), cloudlets, false);
+
+            double meanFinish = cloudlets.stream().mapToDouble(Cloudlet::getFinishTime).average().orElse(0);
+            if (precision == 0.0) {
+                exactMakespan = summary.makespan;
+                exactMeanFinish = meanFinish;
+            }
+
+            System.out.printf(Locale.US, "%nPrecision %s%n", precision == 0.0 ? "exact" : String.valueOf(precision));
+            System.out.println("  " + cache.summary());
+            System.out.printf(Locale.US, "  Load allocation: %.1f MB%n", loadAllocated / 1e6);
+            System.out.printf(Locale.US, "  Makespan: %.2f (%+.4f%% vs exact)%n",
+                    summary.makespan, relativeChange(summary.makespan, exactMakespan));
+            System.out.printf(Locale.US, "  Mean finish time: %.2f (%+.4f%% vs exact)%n",
+                    meanFinish, relativeChange(meanFinish, exactMeanFinish));
+        }
+    }
+
+    private static double relativeChange(double value, double reference) {
+        return reference == 0 ? 0 : 100.0 * (value - reference) / reference;
+    }
+}
@@ -0,0 +1,58 @@
+package simulation.benchmark;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.vms.Vm;
+import simulation.topology.TopologyConfig;
+import simulation.topology.TopologyFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares the VM allocation policies on one topology: places all of its VMs and reports the wall time of the
+ * placement, the VMs placed and the hosts in use. The scanning policies of CloudSim Plus grow with hosts x VMs,
+ * the indexed ones do not; try it on config/topology/heterogeneous_large.json.
+ *
+ * Usage: VmPlacementBenchmark [topology.json]
+ */
+public class VmPlacementBenchmark {
+
+    private static final List<String> POLICIES = List.of(
+            "simple", "bestFit", "firstFit", "roundRobin", "indexedBestFit", "indexedWorstFit", "binPacking");
+
+    public static void main(String[] args) throws Exception {
+        Path topologyFile = args.length > 0 ? Path.of(args[0]) : TopologyConfig.DEFAULT_TOPOLOGY_FILE;
+        TopologyConfig topology = TopologyConfig.load(topologyFile);
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        System.out.println("=".repeat(70));
+        System.out.println("VM PLACEMENT: " + topologyFile);
+        System.out.println("=".repeat(70));
+        System.out.printf("%-18s %12s %14s %14s%n", "Policy", "Time (ms)", "VMs placed", "Hosts used");
+        System.out.println("-".repeat(70));
+
+        for (String policy : POLICIES) {
+            topology.vmAllocationPolicy = policy;
+            long start = System.nanoTime();
+
+            CloudSimPlus simulation = new CloudSimPlus();
+            Datacenter datacenter = TopologyFactory.INSTANCE.createDatacenter(simulation, topology);
+            DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+            List<Vm> vms = TopologyFactory.INSTANCE.createVms(topology, false);
+            broker.submitVmList(vms);
+            // No cloudlets: the run ends once the VMs are placed
+            simulation.terminateAt(1);
+            simulation.start();
+
+            double millis = (System.nanoTime() - start) / 1e6;
+            long hostsUsed = datacenter.getHostList().stream().filter(h -> !h.getVmCreatedList().isEmpty()).count();
+            System.out.printf(Locale.US, "%-18s %12.0f %6d / %5d %6d / %5d%n", policy, millis,
+                    broker.getVmCreatedList().size(), vms.size(), hostsUsed, datacenter.getHostList().size());
+        }
+        System.out.println("=".repeat(70));
+    }
+}
@@ -0,0 +1,87 @@
+package simulation.daemon;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps parsed files (workloads, topologies) across daemon jobs. An entry is reused while the file's size and
+ * modification time are unchanged, so editing or regenerating a file is picked up by the next job. Least
+ * recently used entries are evicted beyond the capacity.
+ */
+class FileCache<T> {
+
+    @FunctionalInterface
+    interface Parser<T> {
+        T parse(Path path) throws IOException;
+    }
+
+    private static class Cached<T> {
+        final long size;
+        final long modified;
+        final T value;
+
+        Cached(long size, long modified, T value) {
+            this.size = size;
+            this.modified = modified;
+            this.value = value;
+        }
+    }
+
+    private final Parser<T> parser;
+    private final Map<Path, Cached<T>> entries;
+    private long hits;
+    private long misses;
+
+    FileCache(int capacity, Parser<T> parser) {
+        this.parser = parser;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Cached<T>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    T get(Path path) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        synchronized (this) {
+            Cached<T> entry = entries.get(key);
+            if (entry != null && entry.size == size && entry.modified == modified) {
+                hits++;
+                return entry.value;
+            }
+            misses++;
+        }
+
+        // Parsed outside the lock, so a large file does not block jobs on other files
+        T value = parser.parse(key);
+        synchronized (this) {
+            entries.put(key, new Cached<>(size, modified, value));
+        }
+        return value;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+}
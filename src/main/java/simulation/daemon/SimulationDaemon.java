@@ -0,0 +1,315 @@
+package simulation.daemon;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import simulation.MetricLevel;
+import simulation.WorkloadSimulationRunner;
+import simulation.WorkloadSimulationRunner.RunSummary;
+import simulation.algorithms.CloudletVmSelectionPolicy;
+import simulation.pipeline.ParsedWorkload;
+import simulation.topology.TopologyConfig;
+import task.utils.TaskUtils;
+import task.utils.UtilizationModelCache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-lived process that runs simulation jobs on a warm JVM, so short experiments skip JVM startup, class
+ * loading and JIT warm-up. Parsed workloads and topologies are cached between jobs (see {@link FileCache}).
+ *
+ * Jobs are one JSON object per line, read from stdin or, with {@code --port}, from connections to a loopback
+ * socket; every job gets exactly one JSON line back:
+ * <pre>
+ *   {"id": "a", "workload": "output/tasks/tasks_200_balanced.json", "policy": "SortedTaskBestFitPolicy"}
+ *   {"id": "a", "ok": true, "makespan": 12783.57, "elapsedMs": 41, ...}
+ * </pre>
+ * Optional job fields: "topology" (file, default topology when absent), "metricLevel" (OFF, SUMMARY, FULL;
+ * default OFF) and "writeResults" (write the usual JSON reports, default false). Other commands:
+ * {"command": "stats"}, {"command": "clearCache"} and {"command": "shutdown"}.
+ *
+ * On the socket, connections are served concurrently and jobs within a connection in order. Anything the
+ * runner prints goes to stderr, so stdout carries responses only. For fast cold starts, see
+ * scripts/daemon-cds.sh, which builds an AppCDS archive from the warm-up jobs in config/daemon.
+ */
+public class SimulationDaemon {
+
+    public static final int DEFAULT_PORT = 7071;
+
+    private static final String POLICY_PACKAGE = "simulation.algorithms.";
+    private static final int CACHE_CAPACITY = 32;
+    private static final String USAGE = "Usage: SimulationDaemon [--port <port>] [--warmup <jobs.jsonl>]";
+
+    /**
+     * One request line.
+     */
+    public static class Job {
+        public String id;
+        // run (default) | stats | clearCache | shutdown
+        public String command;
+        public String workload;
+        public String policy;
+        public String topology;
+        public String metricLevel;
+        public boolean writeResults;
+    }
+
+    /**
+     * One response line; fields that do not apply to the command are left out.
+     */
+    public static class Response {
+        public String id;
+        public boolean ok;
+        public String error;
+        public String policy;
+        public String workload;
+        public Integer totalTasks;
+        public Integer vmCount;
+        public Double makespan;
+        public Double simulationClock;
+        // Time to fetch the parsed workload and create fresh cloudlets, and to simulate
+        public Long loadMs;
+        public Long elapsedMs;
+        public Integer cachedWorkloads;
+        public Long workloadCacheHits;
+        public Long workloadCacheMisses;
+    }
+
+    private final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+    private final FileCache<ParsedWorkload> workloads = new FileCache<>(CACHE_CAPACITY,
+            path -> new ParsedWorkload(path.getFileName().toString(),
+                    TaskUtils.INSTANCE.loadCloudletInfos(path)));
+    private final FileCache<TopologyConfig> topologies = new FileCache<>(CACHE_CAPACITY, TopologyConfig::load);
+    private final TopologyConfig defaultTopology = TopologyConfig.defaultTopology();
+    // Exact, so it interns nothing and holds no models between jobs
+    private final UtilizationModelCache modelCache = new UtilizationModelCache();
+
+    private volatile boolean shutdown;
+
+    /**
+     * Handles one request line and returns the response line (without the line break).
+     */
+    public String handle(String line) {
+        Job job;
+        try {
+            job = gson.fromJson(line, Job.class);
+        } catch (JsonParseException e) {
+            return gson.toJson(failure(null, "Invalid job: " + e.getMessage()));
+        }
+        if (job == null) {
+            return gson.toJson(failure(null, "Empty job"));
+        }
+
+        try {
+            String command = job.command == null ? "run" : job.command;
+            switch (command) {
+                case "run":
+                    return gson.toJson(run(job));
+                case "stats":
+                    return gson.toJson(stats(job));
+                case "clearCache":
+                    workloads.clear();
+                    topologies.clear();
+                    modelCache.clear();
+                    return gson.toJson(stats(job));
+                case "shutdown":
+                    shutdown = true;
+                    return gson.toJson(stats(job));
+                default:
+                    return gson.toJson(failure(job.id, "Unknown command: " + command));
+            }
+        } catch (Exception e) {
+            return gson.toJson(failure(job.id, e.getClass().getSimpleName() + ": " + e.getMessage()));
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    private Response run(Job job) throws Exception {
+        if (job.workload == null || job.policy == null) {
+            return failure(job.id, "A job needs a workload and a policy");
+        }
+
+        long loadStart = System.nanoTime();
+        ParsedWorkload workload = workloads.get(Path.of(job.workload));
+        TopologyConfig topology = job.topology == null ? defaultTopology : topologies.get(Path.of(job.topology));
+        MetricLevel metricLevel = job.metricLevel == null ? MetricLevel.OFF : MetricLevel.valueOf(job.metricLevel);
+        List<Cloudlet> cloudlets = workload.createCloudlets(modelCache);
+        long loadMs = (System.nanoTime() - loadStart) / 1_000_000;
+
+        WorkloadSimulationRunner runner = new WorkloadSimulationRunner(createPolicy(job.policy), topology)
+                .setMetricLevel(metricLevel)
+                .setWriteResults(job.writeResults);
+        RunSummary summary = runner.run(workload.getName(), cloudlets, false);
+
+        Response response = new Response();
+        response.id = job.id;
+        response.ok = true;
+        response.policy = summary.policy;
+        response.workload = summary.workloadFile;
+        response.totalTasks = summary.totalTasks;
+        response.vmCount = summary.vmCount;
+        response.makespan = summary.makespan;
+        response.simulationClock = summary.simulationClock;
+        response.loadMs = loadMs;
+        response.elapsedMs = summary.elapsedMs;
+        return response;
+    }
+
+    private Response stats(Job job) {
+        Response response = new Response();
+        response.id = job.id;
+        response.ok = true;
+        response.cachedWorkloads = workloads.size();
+        response.workloadCacheHits = workloads.getHits();
+        response.workloadCacheMisses = workloads.getMisses();
+        return response;
+    }
+
+    private static Response failure(String id, String error) {
+        Response response = new Response();
+        response.id = id;
+        response.ok = false;
+        response.error = error;
+        return response;
+    }
+
+    /**
+     * Resolves a simple name from simulation.algorithms, or a fully qualified class name.
+     */
+    private static CloudletVmSelectionPolicy createPolicy(String name) throws ReflectiveOperationException {
+        Class<?> policyClass;
+        try {
+            policyClass = Class.forName(name.contains(".") ? name : POLICY_PACKAGE + name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+        if (!CloudletVmSelectionPolicy.class.isAssignableFrom(policyClass)) {
+            throw new IllegalArgumentException("Not a selection policy: " + name);
+        }
+        return (CloudletVmSelectionPolicy) policyClass.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Answers every line of the reader in order, until end of input or a shutdown command.
+     */
+    public void serve(Reader in, Writer out) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        PrintWriter writer = new PrintWriter(out, false);
+        String line;
+        while (!shutdown && (line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            writer.println(handle(line));
+            writer.flush();
+        }
+    }
+
+    /**
+     * Accepts loopback connections on the port until a shutdown command arrives.
+     */
+    public void serve(int port) throws IOException {
+        ExecutorService connections = Executors.newCachedThreadPool();
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.err.printf("Simulation daemon listening on %s:%d%n", server.getInetAddress().getHostAddress(),
+                    server.getLocalPort());
+            // Lets the accept loop notice a shutdown requested on another connection
+            server.setSoTimeout(500);
+            while (!shutdown) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                connections.submit(() -> {
+                    try (socket) {
+                        serve(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+                                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        System.err.println("Connection failed: " + e.getMessage());
+                    }
+                    return null;
+                });
+            }
+        } finally {
+            connections.shutdown();
+        }
+    }
+
+    /**
+     * Runs the jobs of a warm-up file and discards the responses, so the first real job meets compiled code.
+     */
+    public void warmUp(Path jobsFile) throws IOException {
+        long start = System.currentTimeMillis();
+        int jobs = 0;
+        for (String line : Files.readAllLines(jobsFile)) {
+            if (!line.isBlank()) {
+                handle(line);
+                jobs++;
+            }
+        }
+        System.err.printf("Warm-up: %d jobs in %d ms%n", jobs, System.currentTimeMillis() - start);
+    }
+
+    public static void main(String[] args) throws IOException {
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        Integer port = null;
+        Path warmUpJobs = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = i + 1 < args.length ? Integer.parseInt(args[++i]) : DEFAULT_PORT;
+                    break;
+                case "--warmup":
+                    if (i + 1 >= args.length) {
+                        System.err.println(USAGE);
+                        return;
+                    }
+                    warmUpJobs = Path.of(args[++i]);
+                    break;
+                default:
+                    System.err.println(USAGE);
+                    return;
+            }
+        }
+
+        // stdout carries responses only; whatever the simulation prints goes to stderr
+        PrintStream responses = System.out;
+        System.setOut(System.err);
+
+        SimulationDaemon daemon = new SimulationDaemon();
+        if (warmUpJobs != null) {
+            daemon.warmUp(warmUpJobs);
+        }
+        if (port != null) {
+            daemon.serve(port);
+        } else {
+            daemon.serve(new InputStreamReader(System.in, StandardCharsets.UTF_8),
+                    new OutputStreamWriter(responses, StandardCharsets.UTF_8));
+        }
+    }
+}
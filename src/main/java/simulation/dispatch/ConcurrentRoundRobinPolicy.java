@@ -0,0 +1,40 @@
+package simulation.dispatch;
+
+import task.model.CloudletInfo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free version of {@link simulation.algorithms.RoundRobinCloudletVmPolicy}.
+ *
+ * The shared cursor is a single {@link AtomicLong} claimed with getAndIncrement, so concurrent requests each
+ * take a distinct position and never retry. Like the simulation policy it skips VMs with fewer PEs than the
+ * task requires; a skipped position is simply consumed. Round robin keeps no load, so release does nothing.
+ */
+public class ConcurrentRoundRobinPolicy implements DispatchPolicy {
+
+    private final DispatchFleet fleet;
+    // Long, so the cursor never wraps around in practice and the sequence stays a clean cycle
+    private final AtomicLong nextIndex = new AtomicLong();
+
+    public ConcurrentRoundRobinPolicy(DispatchFleet fleet) {
+        this.fleet = fleet;
+    }
+
+    @Override
+    public int select(CloudletInfo task) {
+        if (task.getPes() > fleet.getMaxPes()) {
+            throw new IllegalStateException("No VM has enough PEs for task " + task.getId());
+        }
+        while (true) {
+            int vm = (int) (nextIndex.getAndIncrement() % fleet.size());
+            if (fleet.getPes(vm) >= task.getPes()) {
+                return vm;
+            }
+        }
+    }
+
+    @Override
+    public void release(int vm, CloudletInfo task) {
+    }
+}
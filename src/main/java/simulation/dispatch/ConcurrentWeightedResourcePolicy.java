@@ -0,0 +1,144 @@
+package simulation.dispatch;
+
+import simulation.algorithms.WeightedResourcePolicy;
+import task.model.CloudletInfo;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free version of {@link WeightedResourcePolicy}, with the same score:
+ *
+ * score = CPU_WEIGHT * (cpu_load / cpu_capacity) + RAM_WEIGHT * (avg_ram_per_task * no_cores)
+ *
+ * Each VM's load (CPU demand, RAM usage, task count) is an immutable snapshot in its own slot of an
+ * {@link AtomicReferenceArray}. The argmin is optimistic: a request scores every VM from the snapshots it reads,
+ * without locking, then commits to the best VM with a compare-and-set from the snapshot it scored to that
+ * snapshot plus the task. If another request changed that VM in between, the CAS fails and the request scores
+ * again, since the VM may no longer be the least loaded. A failed CAS means another request succeeded, so the
+ * policy is lock-free; {@link #getRetries} counts the rescans.
+ *
+ * Slots are {@link #SLOT_STRIDE} references apart, so updates to neighbouring VMs do not contend for the same
+ * cache line.
+ */
+public class ConcurrentWeightedResourcePolicy implements DispatchPolicy {
+
+    // 16 compressed references (or 8 uncompressed) per 64-byte cache line
+    private static final int SLOT_STRIDE = 16;
+
+    private static final class VmLoad {
+        static final VmLoad EMPTY = new VmLoad(0.0, 0.0, 0);
+
+        final double cpu;
+        final double ram;
+        final int tasks;
+
+        VmLoad(double cpu, double ram, int tasks) {
+            this.cpu = cpu;
+            this.ram = ram;
+            this.tasks = tasks;
+        }
+
+        VmLoad add(double cpuDemand, double ramDemand) {
+            return new VmLoad(cpu + cpuDemand, ram + ramDemand, tasks + 1);
+        }
+
+        VmLoad remove(double cpuDemand, double ramDemand) {
+            // Back to exactly zero once empty, so rounding errors of the subtractions do not accumulate
+            return tasks <= 1 ? EMPTY : new VmLoad(cpu - cpuDemand, ram - ramDemand, tasks - 1);
+        }
+    }
+
+    private final DispatchFleet fleet;
+    private final double cpuScoreWeight;
+    private final double ramScoreWeight;
+    private final AtomicReferenceArray<VmLoad> loads;
+    private final double[] cpuCapacity;
+    private final LongAdder retries = new LongAdder();
+
+    public ConcurrentWeightedResourcePolicy(DispatchFleet fleet) {
+        this(fleet, WeightedResourcePolicy.CPU_WEIGHT, WeightedResourcePolicy.RAM_WEIGHT);
+    }
+
+    public ConcurrentWeightedResourcePolicy(DispatchFleet fleet, double cpuScoreWeight, double ramScoreWeight) {
+        this.fleet = fleet;
+        this.cpuScoreWeight = cpuScoreWeight;
+        this.ramScoreWeight = ramScoreWeight;
+        this.loads = new AtomicReferenceArray<>(fleet.size() * SLOT_STRIDE);
+        this.cpuCapacity = new double[fleet.size()];
+        for (int v = 0; v < fleet.size(); v++) {
+            loads.set(v * SLOT_STRIDE, VmLoad.EMPTY);
+            cpuCapacity[v] = fleet.getMips(v) * fleet.getPes(v);
+        }
+    }
+
+    @Override
+    public int select(CloudletInfo task) {
+        double cpuDemand = WeightedResourcePolicy.calculateCpuDemand(task.getLength(), task.getCpuUtil());
+        double ramDemand = task.getRamUtil();
+
+        while (true) {
+            int selectedVm = -1;
+            VmLoad selectedLoad = null;
+            double lowestScore = Double.MAX_VALUE;
+
+            for (int v = 0; v < fleet.size(); v++) {
+                if (fleet.getPes(v) < task.getPes()) {
+                    continue;
+                }
+                VmLoad load = loads.get(v * SLOT_STRIDE);
+                double score = score(v, load);
+                if (score < lowestScore) {
+                    lowestScore = score;
+                    selectedVm = v;
+                    selectedLoad = load;
+                }
+            }
+
+            if (selectedVm < 0) {
+                throw new IllegalStateException("No VM has enough PEs for task " + task.getId());
+            }
+            if (loads.compareAndSet(selectedVm * SLOT_STRIDE, selectedLoad, selectedLoad.add(cpuDemand, ramDemand))) {
+                return selectedVm;
+            }
+            retries.increment();
+        }
+    }
+
+    @Override
+    public void release(int vm, CloudletInfo task) {
+        double cpuDemand = WeightedResourcePolicy.calculateCpuDemand(task.getLength(), task.getCpuUtil());
+        double ramDemand = task.getRamUtil();
+        int slot = vm * SLOT_STRIDE;
+        while (true) {
+            VmLoad load = loads.get(slot);
+            if (load.tasks == 0) {
+                throw new IllegalStateException("Released task " + task.getId() + " from VM " + vm + " with no load");
+            }
+            if (loads.compareAndSet(slot, load, load.remove(cpuDemand, ramDemand))) {
+                return;
+            }
+        }
+    }
+
+    private double score(int vm, VmLoad load) {
+        double cpuLoadFraction = load.cpu / cpuCapacity[vm];
+        double avgRamPerTask = load.tasks > 0 ? load.ram / load.tasks : 0.0;
+        double estimatedAvgRam = avgRamPerTask * fleet.getPes(vm);
+        return cpuScoreWeight * cpuLoadFraction + ramScoreWeight * estimatedAvgRam;
+    }
+
+    /**
+     * Rescans caused by a concurrent update of the chosen VM, since creation.
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Tasks currently charged to the VM.
+     */
+    public int getTaskCount(int vm) {
+        return loads.get(vm * SLOT_STRIDE).tasks;
+    }
+}
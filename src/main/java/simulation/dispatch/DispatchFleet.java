@@ -0,0 +1,76 @@
+package simulation.dispatch;
+
+import org.cloudsimplus.vms.Vm;
+import simulation.topology.TopologyConfig;
+
+import java.util.List;
+
+/**
+ * The VMs a {@link DispatchPolicy} places tasks on, as plain capacities indexed 0..size-1. Online dispatch has
+ * no simulation, so VMs are identified by index rather than by CloudSim Plus {@link Vm} objects. Immutable.
+ */
+public final class DispatchFleet {
+
+    private final double[] mips;
+    private final int[] pes;
+    private final int maxPes;
+
+    public DispatchFleet(double[] mips, int[] pes) {
+        if (mips.length == 0 || mips.length != pes.length) {
+            throw new IllegalArgumentException("A fleet needs at least one VM and one PE count per VM");
+        }
+        this.mips = mips.clone();
+        this.pes = pes.clone();
+        int widest = 0;
+        for (int p : pes) {
+            widest = Math.max(widest, p);
+        }
+        this.maxPes = widest;
+    }
+
+    /**
+     * VMs in the order {@link simulation.topology.TopologyFactory} creates them.
+     */
+    public static DispatchFleet fromTopology(TopologyConfig topology) {
+        int count = topology.getVmCount();
+        double[] mips = new double[count];
+        int[] pes = new int[count];
+        int v = 0;
+        for (TopologyConfig.VmClass vmClass : topology.vms) {
+            for (int i = 0; i < vmClass.count; i++, v++) {
+                mips[v] = vmClass.mipsPerPe;
+                pes[v] = vmClass.pes;
+            }
+        }
+        return new DispatchFleet(mips, pes);
+    }
+
+    public static DispatchFleet fromVms(List<Vm> vms) {
+        double[] mips = new double[vms.size()];
+        int[] pes = new int[vms.size()];
+        for (int v = 0; v < vms.size(); v++) {
+            mips[v] = vms.get(v).getMips();
+            pes[v] = (int) vms.get(v).getPesNumber();
+        }
+        return new DispatchFleet(mips, pes);
+    }
+
+    public int size() {
+        return mips.length;
+    }
+
+    /**
+     * MIPS of each PE of the VM.
+     */
+    public double getMips(int vm) {
+        return mips[vm];
+    }
+
+    public int getPes(int vm) {
+        return pes[vm];
+    }
+
+    public int getMaxPes() {
+        return maxPes;
+    }
+}
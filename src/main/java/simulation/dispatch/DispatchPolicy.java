@@ -0,0 +1,26 @@
+package simulation.dispatch;
+
+import task.model.CloudletInfo;
+
+/**
+ * Online counterpart of {@link simulation.algorithms.CloudletVmSelectionPolicy}: places tasks on the VMs of a
+ * {@link DispatchFleet} as requests arrive, and is told when they finish so their load can be released.
+ *
+ * Unlike the simulation policies, which are only ever called from the simulation thread, implementations must
+ * be safe to call from any number of threads at once.
+ */
+public interface DispatchPolicy {
+
+    /**
+     * Chooses a VM for the task and charges the task's load to it.
+     *
+     * @return the VM index in the fleet
+     * @throws IllegalStateException if no VM has enough PEs for the task
+     */
+    int select(CloudletInfo task);
+
+    /**
+     * Completion callback: the task placed on the VM by {@link #select} has finished.
+     */
+    void release(int vm, CloudletInfo task);
+}
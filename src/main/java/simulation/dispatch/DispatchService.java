@@ -0,0 +1,100 @@
+package simulation.dispatch;
+
+import task.model.CloudletInfo;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process online dispatcher: answers placement requests from any number of client threads with a
+ * {@link DispatchPolicy}, and takes completion callbacks that release the placed load.
+ *
+ * Every placement is a {@link Placement} handle that is completed exactly once; completing it twice is an
+ * error rather than a second release, which would corrupt the policy's load. Counters are {@link LongAdder}s,
+ * so bookkeeping adds no contention point of its own.
+ */
+public class DispatchService {
+
+    /**
+     * One task placed on one VM, until completed.
+     */
+    public static final class Placement {
+        public final CloudletInfo task;
+        public final int vm;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        Placement(CloudletInfo task, int vm) {
+            this.task = task;
+            this.vm = vm;
+        }
+
+        public boolean isCompleted() {
+            return completed.get();
+        }
+    }
+
+    private final DispatchPolicy policy;
+    private final DispatchFleet fleet;
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder[] running;
+
+    public DispatchService(DispatchPolicy policy, DispatchFleet fleet) {
+        this.policy = policy;
+        this.fleet = fleet;
+        this.running = new LongAdder[fleet.size()];
+        for (int v = 0; v < running.length; v++) {
+            running[v] = new LongAdder();
+        }
+    }
+
+    /**
+     * Places the task; safe to call from any thread.
+     *
+     * @throws IllegalStateException if no VM has enough PEs for the task
+     */
+    public Placement dispatch(CloudletInfo task) {
+        int vm = policy.select(task);
+        dispatched.increment();
+        running[vm].increment();
+        return new Placement(task, vm);
+    }
+
+    /**
+     * Completion callback for a placement returned by {@link #dispatch}; safe to call from any thread.
+     *
+     * @throws IllegalStateException if the placement was already completed
+     */
+    public void complete(Placement placement) {
+        if (!placement.completed.compareAndSet(false, true)) {
+            throw new IllegalStateException("Task " + placement.task.getId() + " was already completed");
+        }
+        policy.release(placement.vm, placement.task);
+        running[placement.vm].decrement();
+        completed.increment();
+    }
+
+    public DispatchPolicy getPolicy() {
+        return policy;
+    }
+
+    public DispatchFleet getFleet() {
+        return fleet;
+    }
+
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Tasks dispatched to the VM and not completed yet. Exact once all calls have returned; a moving
+     * estimate while requests are in flight.
+     */
+    public long getRunning(int vm) {
+        return running[vm].sum();
+    }
+}
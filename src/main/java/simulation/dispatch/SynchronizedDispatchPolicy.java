@@ -0,0 +1,30 @@
+package simulation.dispatch;
+
+import task.model.CloudletInfo;
+
+/**
+ * Serialises every call of the wrapped policy behind one lock: the straightforward way to share a
+ * single-threaded policy, kept as the baseline the lock-free policies are measured against.
+ */
+public class SynchronizedDispatchPolicy implements DispatchPolicy {
+
+    private final DispatchPolicy delegate;
+
+    public SynchronizedDispatchPolicy(DispatchPolicy delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized int select(CloudletInfo task) {
+        return delegate.select(task);
+    }
+
+    @Override
+    public synchronized void release(int vm, CloudletInfo task) {
+        delegate.release(vm, task);
+    }
+
+    public DispatchPolicy getDelegate() {
+        return delegate;
+    }
+}
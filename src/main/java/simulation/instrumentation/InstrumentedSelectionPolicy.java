@@ -0,0 +1,128 @@
+package simulation.instrumentation;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+import simulation.algorithms.CloudletVmSelectionPolicy;
+import simulation.algorithms.prescheduling.PreSchedulingStage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Wraps a selection policy and measures what each {@link #selectVmFor} call costs: wall time into a
+ * {@link LatencyHistogram}, and bytes allocated on the calling thread where the JVM exposes per-thread
+ * allocation counters (HotSpot does). The pre-scheduling stage is passed through unchanged and not timed.
+ *
+ * One instance per run; decisions are made on the simulation thread, so no synchronisation is needed.
+ */
+public class InstrumentedSelectionPolicy implements CloudletVmSelectionPolicy {
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+
+    // Bytes a back-to-back pair of counter reads reports on its own, subtracted from every decision
+    private static final long COUNTER_OVERHEAD = calibrateCounterOverhead();
+
+    private final CloudletVmSelectionPolicy delegate;
+    // Whether the delegate implements selectVmsFor itself
+    private final boolean batched;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private long allocatedBytes;
+
+    public InstrumentedSelectionPolicy(CloudletVmSelectionPolicy delegate) {
+        this.delegate = delegate;
+        this.batched = overridesSelectVmsFor(delegate);
+    }
+
+    @Override
+    public Vm selectVmFor(Cloudlet cloudlet, List<Vm> availableVms) {
+        long allocatedBefore = threadAllocatedBytes();
+        long start = System.nanoTime();
+        Vm vm = delegate.selectVmFor(cloudlet, availableVms);
+        latency.record(System.nanoTime() - start);
+        if (allocatedBefore >= 0) {
+            allocatedBytes += Math.max(0, threadAllocatedBytes() - allocatedBefore - COUNTER_OVERHEAD);
+        }
+        return vm;
+    }
+
+    /**
+     * A delegate without its own batch implementation goes through the default one, which calls the timed
+     * {@link #selectVmFor} per cloudlet. A batch implementation is timed as a whole, and its cost is spread
+     * evenly over the chunk's decisions, so percentiles then describe the amortised cost per decision.
+     */
+    @Override
+    public int[] selectVmsFor(List<Cloudlet> cloudlets, List<Vm> availableVms) {
+        if (!batched) {
+            return CloudletVmSelectionPolicy.super.selectVmsFor(cloudlets, availableVms);
+        }
+        long allocatedBefore = threadAllocatedBytes();
+        long start = System.nanoTime();
+        int[] assignment = delegate.selectVmsFor(cloudlets, availableVms);
+        long perDecision = cloudlets.isEmpty() ? 0 : (System.nanoTime() - start) / cloudlets.size();
+        for (int i = 0; i < cloudlets.size(); i++) {
+            latency.record(perDecision);
+        }
+        if (allocatedBefore >= 0) {
+            allocatedBytes += Math.max(0, threadAllocatedBytes() - allocatedBefore - COUNTER_OVERHEAD);
+        }
+        return assignment;
+    }
+
+    @Override
+    public PreSchedulingStage getPreSchedulingStage() {
+        return delegate.getPreSchedulingStage();
+    }
+
+    public CloudletVmSelectionPolicy getDelegate() {
+        return delegate;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Total bytes allocated by the wrapped policy, or -1 if this JVM cannot count allocations.
+     */
+    public long getAllocatedBytes() {
+        return ALLOCATION_COUNTER == null ? -1 : allocatedBytes;
+    }
+
+    private static long threadAllocatedBytes() {
+        return ALLOCATION_COUNTER == null ? -1
+                : ALLOCATION_COUNTER.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean;
+            }
+        }
+        return null;
+    }
+
+    private static boolean overridesSelectVmsFor(CloudletVmSelectionPolicy policy) {
+        try {
+            return policy.getClass().getMethod("selectVmsFor", List.class, List.class).getDeclaringClass()
+                    != CloudletVmSelectionPolicy.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static long calibrateCounterOverhead() {
+        if (ALLOCATION_COUNTER == null) {
+            return 0;
+        }
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 100; i++) {
+            long before = threadAllocatedBytes();
+            overhead = Math.min(overhead, threadAllocatedBytes() - before);
+        }
+        return overhead;
+    }
+}
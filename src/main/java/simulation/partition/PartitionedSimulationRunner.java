@@ -0,0 +1,478 @@
+package simulation.partition;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
+import simulation.MetricLevel;
+import simulation.WorkloadSimulationRunner;
+import simulation.WorkloadSimulationRunner.DeadlineStats;
+import simulation.WorkloadSimulationRunner.DecisionLatency;
+import simulation.WorkloadSimulationRunner.MachineUtilizationReport;
+import simulation.WorkloadSimulationRunner.ReportSink;
+import simulation.WorkloadSimulationRunner.RunSummary;
+import simulation.WorkloadSimulationRunner.TaskCompletionReport;
+import simulation.WorkloadSimulationRunner.TaskStats;
+import simulation.WorkloadSimulationRunner.VmStats;
+import simulation.algorithms.CloudletVmSelectionPolicy;
+import simulation.algorithms.SortedTaskBestFitPolicy;
+import simulation.algorithms.prescheduling.PreSchedulingCache;
+import simulation.algorithms.prescheduling.PreSchedulingStage;
+import simulation.instrumentation.LatencyHistogram;
+import simulation.topology.TopologyConfig;
+import task.utils.TaskUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Simulates a large fleet as independent cells, one CloudSim Plus instance per cell, on separate threads.
+ *
+ * The topology is sliced into cells with the same host and VM mix (every class count is split evenly,
+ * remainders spread over the cells). A global dispatcher assigns each cloudlet to a cell by running the
+ * selection policy over one aggregate VM per cell (total PEs, mean MIPS per PE, total RAM), considering
+ * only cells that have a VM wide enough for the task. Each cell then runs a regular
+ * {@link WorkloadSimulationRunner} with its own instance of the policy, and the cell reports are merged
+ * into one task report and one machine report, so the usual sinks and the notebook work unchanged.
+ *
+ * Approximation: cells never share capacity. A task waits for the VMs of its cell even when another cell
+ * has idle VMs, and the dispatcher balances aggregate cell capacity rather than individual VMs, so the
+ * makespan tends to overestimate the single-simulation makespan. The error grows with fewer tasks per cell
+ * and with heavy-tailed task sizes; {@link #main} can run both modes to measure it for a given workload and
+ * topology. Cluster averages are means over all VMs, exactly as in a single run.
+ *
+ * Not supported in this mode: decision logs, streamed results and early termination.
+ */
+public class PartitionedSimulationRunner {
+
+    private final Supplier<? extends CloudletVmSelectionPolicy> policyFactory;
+    private final TopologyConfig topology;
+    private final int cellCount;
+    private final List<TopologyConfig> cellTopologies;
+    private int threads;
+    private ReportSink reportSink = WorkloadSimulationRunner.WRITE_JSON;
+    private MetricLevel metricLevel = MetricLevel.SUMMARY;
+
+    /**
+     * Outcome of one cell, for the console table and for callers measuring load imbalance.
+     */
+    public static class CellSummary {
+        public int cell;
+        public int hostCount;
+        public int vmCount;
+        public int taskCount;
+        public double makespan;
+        public long elapsedMs;
+
+        CellSummary(int cell, int hostCount, int vmCount, int taskCount, double makespan, long elapsedMs) {
+            this.cell = cell;
+            this.hostCount = hostCount;
+            this.vmCount = vmCount;
+            this.taskCount = taskCount;
+            this.makespan = makespan;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+
+    private static class CellResult {
+        RunSummary summary;
+        TaskCompletionReport taskReport;
+        MachineUtilizationReport machineReport;
+    }
+
+    /**
+     * @param policyFactory creates a fresh policy for the dispatcher and for each cell (policies keep state)
+     */
+    public PartitionedSimulationRunner(Supplier<? extends CloudletVmSelectionPolicy> policyFactory,
+                                       TopologyConfig topology, int cellCount) {
+        this.policyFactory = Objects.requireNonNull(policyFactory);
+        this.topology = Objects.requireNonNull(topology);
+        if (cellCount <= 0) {
+            throw new IllegalArgumentException("Cell count must be positive: " + cellCount);
+        }
+        topology.validate();
+        this.cellCount = cellCount;
+        this.cellTopologies = splitTopology(topology, cellCount);
+        this.threads = Math.min(cellCount, Runtime.getRuntime().availableProcessors());
+    }
+
+    public PartitionedSimulationRunner setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Receives the merged reports (WRITE_JSON by default). Pass null to skip building reports.
+     */
+    public PartitionedSimulationRunner setReportSink(ReportSink reportSink) {
+        this.reportSink = reportSink;
+        return this;
+    }
+
+    public PartitionedSimulationRunner setMetricLevel(MetricLevel metricLevel) {
+        this.metricLevel = Objects.requireNonNull(metricLevel);
+        return this;
+    }
+
+    public List<TopologyConfig> getCellTopologies() {
+        return cellTopologies;
+    }
+
+    public RunSummary run(Path workloadFile, boolean consoleOutput) throws IOException {
+        List<Cloudlet> cloudlets = TaskUtils.INSTANCE.loadCloudlets(workloadFile);
+        return run(workloadFile.getFileName().toString(), cloudlets, consoleOutput);
+    }
+
+    /**
+     * Dispatches the (fresh) cloudlets to cells, simulates the cells in parallel and merges their reports.
+     */
+    public RunSummary run(String workloadName, List<Cloudlet> cloudlets, boolean consoleOutput) throws IOException {
+        long startTimeMs = System.currentTimeMillis();
+
+        CloudletVmSelectionPolicy dispatcher = policyFactory.get();
+        String policyName = dispatcher.getClass().getSimpleName() + "Partitioned" + cellCount;
+
+        // Global ids and order first, so cells keep the dispatch order and merged task ids stay unique
+        for (int i = 0; i < cloudlets.size(); i++) {
+            if (cloudlets.get(i).getId() < 0) {
+                cloudlets.get(i).setId(i);
+            }
+        }
+        PreSchedulingStage preScheduling = dispatcher.getPreSchedulingStage();
+        if (preScheduling != null) {
+            PreSchedulingCache.INSTANCE.apply(preScheduling, cloudlets);
+        }
+
+        List<List<Cloudlet>> cellCloudlets = dispatch(dispatcher, cloudlets);
+
+        List<CellResult> results = simulateCells(workloadName, cellCloudlets);
+
+        long elapsedTimeMs = System.currentTimeMillis() - startTimeMs;
+
+        double makespan = 0;
+        double clock = 0;
+        long events = 0;
+        for (CellResult result : results) {
+            makespan = Math.max(makespan, result.summary.makespan);
+            clock = Math.max(clock, result.summary.simulationClock);
+            events += result.summary.eventsProcessed;
+        }
+
+        // Over all cells at once, as the percentiles do not merge
+        DeadlineStats deadlines = DeadlineStats.of(cloudlets, clock);
+
+        if (consoleOutput) {
+            printCellTable(getCellSummaries(results, cellCloudlets), makespan, elapsedTimeMs);
+        }
+
+        if (reportSink != null) {
+            TaskCompletionReport taskReport =
+                    mergeTaskReports(results, cloudlets, workloadName, policyName, makespan, clock);
+            taskReport.deadlines = deadlines;
+            reportSink.accept(taskReport, mergeMachineReports(results, workloadName, policyName));
+        }
+
+        RunSummary summary = new RunSummary(policyName, workloadName, cloudlets.size(), topology.getVmCount(),
+                makespan, clock, events, elapsedTimeMs);
+        summary.deadlines = deadlines;
+        return summary;
+    }
+
+    /**
+     * Runs the policy over one aggregate VM per cell. Aggregates are never simulated; they only carry
+     * the capacities the policies read (PEs, MIPS, RAM).
+     */
+    private List<List<Cloudlet>> dispatch(CloudletVmSelectionPolicy dispatcher, List<Cloudlet> cloudlets) {
+        List<Vm> cellVms = new ArrayList<>(cellCount);
+        long[] widestVm = new long[cellCount];
+        for (int c = 0; c < cellCount; c++) {
+            TopologyConfig cell = cellTopologies.get(c);
+            long pes = 0;
+            double mips = 0;
+            long ram = 0;
+            for (TopologyConfig.VmClass vmClass : cell.vms) {
+                pes += (long) vmClass.count * vmClass.pes;
+                mips += (double) vmClass.count * vmClass.pes * vmClass.mipsPerPe;
+                ram += vmClass.count * vmClass.ram;
+                widestVm[c] = Math.max(widestVm[c], vmClass.pes);
+            }
+            Vm aggregate = new VmSimple(c, mips / pes, pes);
+            aggregate.setRam(ram);
+            cellVms.add(aggregate);
+        }
+
+        // Candidate cells per task width: only cells with a VM that can run the task
+        Map<Long, List<Vm>> candidatesByPes = new HashMap<>();
+        List<List<Cloudlet>> cellCloudlets = new ArrayList<>(cellCount);
+        for (int c = 0; c < cellCount; c++) {
+            cellCloudlets.add(new ArrayList<>(cloudlets.size() / cellCount + 1));
+        }
+        for (Cloudlet cloudlet : cloudlets) {
+            List<Vm> candidates = candidatesByPes.computeIfAbsent(cloudlet.getPesNumber(), pes -> {
+                List<Vm> eligible = new ArrayList<>();
+                for (int c = 0; c < cellCount; c++) {
+                    if (widestVm[c] >= pes) {
+                        eligible.add(cellVms.get(c));
+                    }
+                }
+                return Collections.unmodifiableList(eligible);
+            });
+            if (candidates.isEmpty()) {
+                throw new IllegalStateException("No cell has a VM with enough PEs for Cloudlet " + cloudlet.getId());
+            }
+            Vm cell = dispatcher.selectVmFor(cloudlet, candidates);
+            cellCloudlets.get((int) cell.getId()).add(cloudlet);
+        }
+        return cellCloudlets;
+    }
+
+    private List<CellResult> simulateCells(String workloadName, List<List<Cloudlet>> cellCloudlets)
+            throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<CellResult>> futures = new ArrayList<>(cellCount);
+            for (int c = 0; c < cellCount; c++) {
+                TopologyConfig cellTopology = cellTopologies.get(c);
+                List<Cloudlet> tasks = cellCloudlets.get(c);
+                futures.add(executor.submit(() -> simulateCell(workloadName, cellTopology, tasks)));
+            }
+
+            List<CellResult> results = new ArrayList<>(cellCount);
+            for (Future<CellResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while simulating cells", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Cell simulation failed", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CellResult simulateCell(String workloadName, TopologyConfig cellTopology, List<Cloudlet> tasks)
+            throws IOException {
+        CloudletVmSelectionPolicy policy = policyFactory.get();
+        CellResult result = new CellResult();
+
+        // Only the selection step: the dispatcher already applied the policy's pre-scheduling order globally
+        CloudletVmSelectionPolicy cellPolicy = policy::selectVmFor;
+        WorkloadSimulationRunner runner = new WorkloadSimulationRunner(cellPolicy, cellTopology)
+                .setMetricLevel(metricLevel)
+                .setReportSink(reportSink == null ? null : (taskReport, machineReport) -> {
+                    result.taskReport = taskReport;
+                    result.machineReport = machineReport;
+                });
+        result.summary = runner.run(workloadName, tasks, false);
+        return result;
+    }
+
+    private TaskCompletionReport mergeTaskReports(List<CellResult> results, List<Cloudlet> cloudlets,
+                                                  String workloadName, String policyName,
+                                                  double makespan, double clock) {
+        Map<Long, TaskStats> statsById = new HashMap<>(cloudlets.size() * 2);
+        long vmIdOffset = 0;
+        for (int c = 0; c < cellCount; c++) {
+            for (TaskStats stats : results.get(c).taskReport.tasks) {
+                if (stats.vmId >= 0) {
+                    stats.vmId += vmIdOffset;
+                }
+                statsById.put(stats.id, stats);
+            }
+            vmIdOffset += cellTopologies.get(c).getVmCount();
+        }
+
+        // Same order as a single run: the (pre-scheduled) submission order
+        List<TaskStats> tasks = new ArrayList<>(cloudlets.size());
+        for (Cloudlet c : cloudlets) {
+            tasks.add(statsById.get(c.getId()));
+        }
+        return new TaskCompletionReport(policyName, workloadName, makespan, clock, tasks);
+    }
+
+    private MachineUtilizationReport mergeMachineReports(List<CellResult> results, String workloadName,
+                                                         String policyName) {
+        List<VmStats> vms = new ArrayList<>(topology.getVmCount());
+        long vmIdOffset = 0;
+        for (int c = 0; c < cellCount; c++) {
+            for (VmStats stats : results.get(c).machineReport.vms) {
+                stats.vmId += vmIdOffset;
+                vms.add(stats);
+            }
+            vmIdOffset += cellTopologies.get(c).getVmCount();
+        }
+        MachineUtilizationReport merged = new MachineUtilizationReport(policyName, workloadName, vms);
+
+        // Cell-level decisions only; the dispatcher's choice of cell is not timed
+        LatencyHistogram latency = new LatencyHistogram();
+        long allocatedBytes = 0;
+        for (CellResult result : results) {
+            DecisionLatency cellLatency = result.machineReport.decisionLatency;
+            if (cellLatency == null) {
+                return merged;
+            }
+            latency.add(cellLatency.histogram);
+            allocatedBytes = allocatedBytes < 0 || cellLatency.allocatedBytes < 0 ? -1
+                    : allocatedBytes + cellLatency.allocatedBytes;
+        }
+        merged.decisionLatency = new DecisionLatency(latency, allocatedBytes);
+        return merged;
+    }
+
+    private List<CellSummary> getCellSummaries(List<CellResult> results, List<List<Cloudlet>> cellCloudlets) {
+        List<CellSummary> summaries = new ArrayList<>(cellCount);
+        for (int c = 0; c < cellCount; c++) {
+            TopologyConfig cell = cellTopologies.get(c);
+            RunSummary summary = results.get(c).summary;
+            summaries.add(new CellSummary(c, cell.getHostCount(), cell.getVmCount(), cellCloudlets.get(c).size(),
+                    summary.makespan, summary.elapsedMs));
+        }
+        return summaries;
+    }
+
+    private void printCellTable(List<CellSummary> cells, double makespan, long elapsedTimeMs) {
+        System.out.println("Cell\tHosts\tVMs\tTasks\tMakespan\tWall(ms)");
+        long cellTimeMs = 0;
+        double meanMakespan = 0;
+        for (CellSummary cell : cells) {
+            System.out.printf(Locale.US, "%4d\t%5d\t%3d\t%5d\t%8.2f\t%8d%n",
+                    cell.cell, cell.hostCount, cell.vmCount, cell.taskCount, cell.makespan, cell.elapsedMs);
+            cellTimeMs += cell.elapsedMs;
+            meanMakespan += cell.makespan / cells.size();
+        }
+        System.out.printf(Locale.US, "%nTotal simulated completion time (makespan): %.2f seconds%n", makespan);
+        System.out.printf(Locale.US, "Cell imbalance (max / mean makespan): %.3f%n",
+                meanMakespan > 0 ? makespan / meanMakespan : 1.0);
+        System.out.printf(Locale.US, "Real-world execution time: %d ms (sum of cells %d ms, %d threads)%n",
+                elapsedTimeMs, cellTimeMs, threads);
+    }
+
+    /**
+     * Slices every host and VM class evenly over the cells. Remainders go to different cells for different
+     * classes, so no cell ends up with all the leftovers.
+     */
+    static List<TopologyConfig> splitTopology(TopologyConfig topology, int cellCount) {
+        List<TopologyConfig> cells = new ArrayList<>(cellCount);
+        for (int c = 0; c < cellCount; c++) {
+            TopologyConfig cell = new TopologyConfig();
+            cell.name = topology.name + "/cell" + c;
+            cell.vmAllocationPolicy = topology.vmAllocationPolicy;
+            cell.schedulingInterval = topology.schedulingInterval;
+            cells.add(cell);
+        }
+
+        int rotation = 0;
+        for (TopologyConfig.HostClass hostClass : topology.hosts) {
+            int[] counts = split(hostClass.count, cellCount, rotation++);
+            for (int c = 0; c < cellCount; c++) {
+                if (counts[c] > 0) {
+                    TopologyConfig.HostClass slice = copy(hostClass);
+                    slice.count = counts[c];
+                    cells.get(c).hosts.add(slice);
+                }
+            }
+        }
+        for (TopologyConfig.VmClass vmClass : topology.vms) {
+            int[] counts = split(vmClass.count, cellCount, rotation++);
+            for (int c = 0; c < cellCount; c++) {
+                if (counts[c] > 0) {
+                    TopologyConfig.VmClass slice = copy(vmClass);
+                    slice.count = counts[c];
+                    cells.get(c).vms.add(slice);
+                }
+            }
+        }
+
+        for (TopologyConfig cell : cells) {
+            if (cell.hosts.isEmpty() || cell.vms.isEmpty()) {
+                throw new IllegalArgumentException("Topology '" + topology.name + "' is too small for "
+                        + cellCount + " cells: " + cell.name + " gets no hosts or no VMs");
+            }
+        }
+        return cells;
+    }
+
+    private static int[] split(int count, int cellCount, int rotation) {
+        int[] counts = new int[cellCount];
+        for (int c = 0; c < cellCount; c++) {
+            counts[c] = count / cellCount;
+        }
+        for (int r = 0; r < count % cellCount; r++) {
+            counts[(rotation + r) % cellCount]++;
+        }
+        return counts;
+    }
+
+    private static TopologyConfig.HostClass copy(TopologyConfig.HostClass source) {
+        TopologyConfig.HostClass copy = new TopologyConfig.HostClass();
+        copy.name = source.name;
+        copy.pes = source.pes;
+        copy.mipsPerPe = source.mipsPerPe;
+        copy.ram = source.ram;
+        copy.bw = source.bw;
+        copy.storage = source.storage;
+        copy.vmScheduler = source.vmScheduler;
+        return copy;
+    }
+
+    private static TopologyConfig.VmClass copy(TopologyConfig.VmClass source) {
+        TopologyConfig.VmClass copy = new TopologyConfig.VmClass();
+        copy.name = source.name;
+        copy.pes = source.pes;
+        copy.mipsPerPe = source.mipsPerPe;
+        copy.ram = source.ram;
+        copy.bw = source.bw;
+        copy.size = source.size;
+        copy.cloudletScheduler = source.cloudletScheduler;
+        return copy;
+    }
+
+    public static void main(String[] args) throws IOException {
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        Path workloadJson = Path.of("output/tasks/tasks_5000_balanced.json");
+        Path topologyJson = Path.of("config/topology/heterogeneous_large.json");
+        int cells = Runtime.getRuntime().availableProcessors();
+        // Also run the whole fleet as one simulation and report the partitioning error
+        boolean compareWithSingle = false;
+
+        Supplier<CloudletVmSelectionPolicy> policy = SortedTaskBestFitPolicy::new;
+//        Supplier<CloudletVmSelectionPolicy> policy = WeightedResourcePolicy::new;
+
+        TopologyConfig topology = TopologyConfig.load(topologyJson);
+        System.out.println("Workload: " + workloadJson);
+        System.out.printf("Topology: %s (%d hosts, %d VMs) in %d cells%n",
+                topology.name, topology.getHostCount(), topology.getVmCount(), cells);
+        System.out.println();
+
+        RunSummary partitioned = new PartitionedSimulationRunner(policy, topology, cells).run(workloadJson, true);
+
+        if (compareWithSingle) {
+            RunSummary single = new WorkloadSimulationRunner(policy.get(), topology)
+                    .setReportSink(null)
+                    .run(workloadJson, false);
+            System.out.printf(Locale.US, "%nSingle simulation: makespan %.2f in %d ms%n",
+                    single.makespan, single.elapsedMs);
+            System.out.printf(Locale.US, "Partitioning error: %+.2f%% makespan, %.2fx wall time%n",
+                    (partitioned.makespan / single.makespan - 1) * 100.0,
+                    (double) single.elapsedMs / Math.max(1, partitioned.elapsedMs));
+        }
+    }
+}
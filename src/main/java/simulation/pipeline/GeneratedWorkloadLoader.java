@@ -0,0 +1,172 @@
+package simulation.pipeline;
+
+import task.CreateTasks;
+import task.generator.WorkloadGenerator;
+import task.model.CloudletInfo;
+import task.model.WorkloadType;
+import task.utils.TaskFileWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Generates a workload in memory when the pipeline's parse stage asks for it, instead of reading a task file.
+ * Until then a loader is only its parameters, so a sweep over thousands of workloads holds no tasks up front,
+ * and generation overlaps the simulations of earlier workloads like parsing does.
+ *
+ * Parameters default to those of {@link CreateTasks}. Each loader draws from its own seed, so the same
+ * loader always yields the same workload, whatever order the pipeline loads it in. Note that this differs
+ * from the files CreateTasks writes, which share one generator in sequence.
+ *
+ * Persisting is optional: with {@link #setPersistDirectory} each workload is also written as a task file
+ * named after the loader (JSON, or binary for {@link task.utils.BinaryTaskFile#EXTENSION}), which
+ * {@link WorkloadLoader#fromJson} reads back to the same tasks.
+ */
+public class GeneratedWorkloadLoader implements WorkloadLoader {
+
+    private final int taskCount;
+    private final WorkloadType workloadType;
+    private final long seed;
+
+    private int pesNumber = CreateTasks.PES_NUMBER;
+    private long minLength = CreateTasks.MIN_LENGTH;
+    private long maxLength = CreateTasks.MAX_LENGTH;
+    private long fileSize = CreateTasks.FILE_SIZE;
+    private long outputSize = CreateTasks.OUTPUT_SIZE;
+    // 0: no deadlines
+    private double deadlineReferenceMips;
+    private double minSlack;
+    private double maxSlack;
+    private int priorityLevels;
+    private String name;
+    private Path persistDirectory;
+    private String persistExtension = ".json";
+
+    public GeneratedWorkloadLoader(int taskCount, WorkloadType workloadType, long seed) {
+        if (taskCount <= 0) {
+            throw new IllegalArgumentException("Task count must be positive");
+        }
+        this.taskCount = taskCount;
+        this.workloadType = workloadType;
+        this.seed = seed;
+    }
+
+    public GeneratedWorkloadLoader setLengthRange(long minLength, long maxLength) {
+        if (minLength <= 0 || maxLength < minLength) {
+            throw new IllegalArgumentException("Length range must satisfy 0 < min <= max");
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        return this;
+    }
+
+    public GeneratedWorkloadLoader setPesNumber(int pesNumber) {
+        this.pesNumber = pesNumber;
+        return this;
+    }
+
+    public GeneratedWorkloadLoader setFileSizes(long fileSize, long outputSize) {
+        this.fileSize = fileSize;
+        this.outputSize = outputSize;
+        return this;
+    }
+
+    /**
+     * Gives the tasks deadlines, see {@link WorkloadGenerator#setDeadlines}.
+     */
+    public GeneratedWorkloadLoader setDeadlines(double referenceMips, double minSlack, double maxSlack) {
+        if (referenceMips <= 0 || minSlack < 0 || maxSlack < minSlack) {
+            throw new IllegalArgumentException("Deadlines need MIPS > 0 and 0 <= minSlack <= maxSlack");
+        }
+        this.deadlineReferenceMips = referenceMips;
+        this.minSlack = minSlack;
+        this.maxSlack = maxSlack;
+        return this;
+    }
+
+    /**
+     * Gives the tasks priorities, see {@link WorkloadGenerator#setPriorityLevels}.
+     */
+    public GeneratedWorkloadLoader setPriorityLevels(int priorityLevels) {
+        this.priorityLevels = priorityLevels;
+        return this;
+    }
+
+    /**
+     * Overrides the name derived from the parameters, e.g. tasks_1000_balanced_500000-5000000_seed2507
+     * (with a _slack and _prio suffix when tasks have deadlines or priorities).
+     */
+    public GeneratedWorkloadLoader setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Also writes each generated workload to this directory; null (the default) keeps it in memory only.
+     *
+     * @param extension ".json" or {@link task.utils.BinaryTaskFile#EXTENSION}
+     */
+    public GeneratedWorkloadLoader setPersistDirectory(Path persistDirectory, String extension) {
+        this.persistDirectory = persistDirectory;
+        this.persistExtension = extension;
+        return this;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public WorkloadType getWorkloadType() {
+        return workloadType;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getMinLength() {
+        return minLength;
+    }
+
+    public long getMaxLength() {
+        return maxLength;
+    }
+
+    @Override
+    public String getName() {
+        if (name != null) {
+            return name;
+        }
+        String base = String.format("tasks_%d_%s_%d-%d_seed%d",
+                taskCount, workloadType.name().toLowerCase(), minLength, maxLength, seed);
+        if (deadlineReferenceMips > 0) {
+            base += String.format(Locale.US, "_slack%.0f-%.0f", minSlack, maxSlack);
+        }
+        if (priorityLevels > 1) {
+            base += "_prio" + priorityLevels;
+        }
+        return base;
+    }
+
+    @Override
+    public ParsedWorkload load() throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator(seed).setPriorityLevels(priorityLevels);
+        if (deadlineReferenceMips > 0) {
+            generator.setDeadlines(deadlineReferenceMips, minSlack, maxSlack);
+        }
+        CloudletInfo[] infos = generator.createCloudletInfos(
+                taskCount, workloadType, pesNumber, minLength, maxLength, fileSize, outputSize);
+
+        if (persistDirectory != null) {
+            Path file = persistDirectory.resolve(getName() + persistExtension);
+            try (TaskFileWriter writer = TaskFileWriter.open(file, workloadType.name())) {
+                for (CloudletInfo info : infos) {
+                    writer.write(info);
+                }
+            }
+        }
+
+        return new ParsedWorkload(getName(), infos);
+    }
+}
@@ -0,0 +1,39 @@
+package simulation.pipeline;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import task.model.CloudletInfo;
+import task.utils.TaskUtils;
+import task.utils.UtilizationModelCache;
+
+import java.util.List;
+
+/**
+ * A workload parsed once and shared by every run that uses it.
+ * Each run materialises its own cloudlets, since CloudSim Plus cloudlets carry per-simulation state.
+ */
+public class ParsedWorkload {
+
+    private final String name;
+    private final CloudletInfo[] infos;
+
+    public ParsedWorkload(String name, CloudletInfo[] infos) {
+        this.name = name;
+        this.infos = infos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return infos.length;
+    }
+
+    public CloudletInfo[] getInfos() {
+        return infos;
+    }
+
+    public List<Cloudlet> createCloudlets(UtilizationModelCache modelCache) {
+        return TaskUtils.INSTANCE.toCloudlets(infos, modelCache);
+    }
+}
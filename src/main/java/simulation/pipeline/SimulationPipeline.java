@@ -0,0 +1,260 @@
+package simulation.pipeline;
+
+import simulation.MetricLevel;
+import simulation.WorkloadSimulationRunner;
+import simulation.algorithms.CloudletVmSelectionPolicy;
+import simulation.topology.TopologyConfig;
+import task.utils.UtilizationModelCache;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Runs workload x policy simulations as a three-stage pipeline:
+ *
+ * 1. parse:    workloads are loaded on I/O threads, at most {@link #PARSE_AHEAD} at a time,
+ *              and each one becomes one job per policy
+ * 2. simulate: a fixed pool sized to the CPU cores takes jobs from a bounded queue
+ * 3. write:    reports are serialised and written asynchronously on I/O threads
+ *
+ * The bounded job queue and write permits give back-pressure, so a fast parser or a slow disk
+ * cannot pile up parsed workloads or pending reports in memory while the simulate threads stay busy.
+ *
+ * I/O stages run on virtual threads when the JVM supports them (Java 21+), and on a small platform pool otherwise.
+ */
+public class SimulationPipeline {
+
+    private static final int PARSE_AHEAD = 2;
+    private static final int IO_FALLBACK_THREADS = 4;
+
+    public static class JobResult {
+        public final String workload;
+        public final String policy;
+        public final boolean success;
+        public final long elapsedMs;
+        public final String errorMessage;
+        public final WorkloadSimulationRunner.RunSummary summary;
+
+        JobResult(String workload, String policy, boolean success, long elapsedMs, String errorMessage,
+                  WorkloadSimulationRunner.RunSummary summary) {
+            this.workload = workload;
+            this.policy = policy;
+            this.success = success;
+            this.elapsedMs = elapsedMs;
+            this.errorMessage = errorMessage;
+            this.summary = summary;
+        }
+    }
+
+    private static class SimulationJob {
+        static final SimulationJob POISON = new SimulationJob(null, null);
+
+        final ParsedWorkload workload;
+        final Class<? extends CloudletVmSelectionPolicy> policyClass;
+
+        SimulationJob(ParsedWorkload workload, Class<? extends CloudletVmSelectionPolicy> policyClass) {
+            this.workload = workload;
+            this.policyClass = policyClass;
+        }
+    }
+
+    private final List<Class<? extends CloudletVmSelectionPolicy>> policyClasses;
+    private final TopologyConfig topology;
+    private final int simulateThreads;
+    private final UtilizationModelCache modelCache = new UtilizationModelCache();
+
+    private WorkloadSimulationRunner.ReportSink reportSink = WorkloadSimulationRunner.WRITE_JSON;
+    private MetricLevel metricLevel = MetricLevel.SUMMARY;
+
+    public SimulationPipeline(List<Class<? extends CloudletVmSelectionPolicy>> policyClasses,
+                              TopologyConfig topology, int simulateThreads) {
+        this.policyClasses = List.copyOf(policyClasses);
+        this.topology = topology;
+        this.simulateThreads = simulateThreads;
+    }
+
+    /**
+     * Sink the write stage hands reports to; defaults to the JSON files in output/results. Null skips writing.
+     */
+    public SimulationPipeline setReportSink(WorkloadSimulationRunner.ReportSink reportSink) {
+        this.reportSink = reportSink;
+        return this;
+    }
+
+    public SimulationPipeline setMetricLevel(MetricLevel metricLevel) {
+        this.metricLevel = metricLevel;
+        return this;
+    }
+
+    public static boolean isUsingVirtualThreads() {
+        return virtualThreadFactoryMethod() != null;
+    }
+
+    /**
+     * Runs every workload with every policy and returns one result per job, once all reports are written.
+     *
+     * @param onJobDone called from pipeline threads as each job finishes, e.g. for progress output
+     */
+    public List<JobResult> run(List<WorkloadLoader> loaders, Consumer<JobResult> onJobDone) throws InterruptedException {
+        BlockingQueue<SimulationJob> jobs = new ArrayBlockingQueue<>(simulateThreads * 2);
+        Semaphore parsePermits = new Semaphore(PARSE_AHEAD);
+        Semaphore writePermits = new Semaphore(simulateThreads * 2);
+        List<CompletableFuture<JobResult>> results = new CopyOnWriteArrayList<>();
+
+        ExecutorService ioExecutor = newIoExecutor();
+        ExecutorService simulateExecutor = Executors.newFixedThreadPool(simulateThreads);
+
+        try {
+            // Stage 2: simulate workers
+            List<Future<?>> workers = new ArrayList<>(simulateThreads);
+            for (int i = 0; i < simulateThreads; i++) {
+                workers.add(simulateExecutor.submit(() ->
+                        simulateLoop(jobs, ioExecutor, writePermits, results, onJobDone)));
+            }
+
+            // Stage 1: parse, bounded by the parse permits and by the job queue capacity
+            List<Future<?>> parsers = new ArrayList<>(loaders.size());
+            for (WorkloadLoader loader : loaders) {
+                parsePermits.acquire();
+                parsers.add(ioExecutor.submit(() -> parse(loader, jobs, parsePermits, results, onJobDone)));
+            }
+            for (Future<?> parser : parsers) {
+                await(parser);
+            }
+
+            for (int i = 0; i < simulateThreads; i++) {
+                jobs.put(SimulationJob.POISON);
+            }
+            for (Future<?> worker : workers) {
+                await(worker);
+            }
+
+            // Stage 3 drains before the results are handed back
+            List<JobResult> done = new ArrayList<>(results.size());
+            for (CompletableFuture<JobResult> result : results) {
+                done.add(result.join());
+            }
+            return done;
+        } finally {
+            simulateExecutor.shutdownNow();
+            ioExecutor.shutdown();
+        }
+    }
+
+    private Void parse(WorkloadLoader loader, BlockingQueue<SimulationJob> jobs, Semaphore parsePermits,
+                       List<CompletableFuture<JobResult>> results, Consumer<JobResult> onJobDone)
+            throws InterruptedException {
+        try {
+            ParsedWorkload workload = loader.load();
+            for (Class<? extends CloudletVmSelectionPolicy> policyClass : policyClasses) {
+                jobs.put(new SimulationJob(workload, policyClass));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Class<? extends CloudletVmSelectionPolicy> policyClass : policyClasses) {
+                JobResult failed = new JobResult(loader.getName(), policyClass.getSimpleName(), false, 0,
+                        "Failed to load workload: " + e.getMessage(), null);
+                results.add(CompletableFuture.completedFuture(failed));
+                onJobDone.accept(failed);
+            }
+        } finally {
+            parsePermits.release();
+        }
+        return null;
+    }
+
+    private Void simulateLoop(BlockingQueue<SimulationJob> jobs, ExecutorService ioExecutor, Semaphore writePermits,
+                              List<CompletableFuture<JobResult>> results, Consumer<JobResult> onJobDone)
+            throws InterruptedException {
+        while (true) {
+            SimulationJob job = jobs.take();
+            if (job == SimulationJob.POISON) {
+                return null;
+            }
+            results.add(simulate(job, ioExecutor, writePermits, onJobDone));
+        }
+    }
+
+    private CompletableFuture<JobResult> simulate(SimulationJob job, ExecutorService ioExecutor,
+                                                  Semaphore writePermits, Consumer<JobResult> onJobDone)
+            throws InterruptedException {
+        String workloadName = job.workload.getName();
+        String policyName = job.policyClass.getSimpleName();
+        long startTime = System.currentTimeMillis();
+
+        WorkloadSimulationRunner.TaskCompletionReport[] taskReport = new WorkloadSimulationRunner.TaskCompletionReport[1];
+        WorkloadSimulationRunner.MachineUtilizationReport[] machineReport =
+                new WorkloadSimulationRunner.MachineUtilizationReport[1];
+
+        WorkloadSimulationRunner.RunSummary summary;
+        try {
+            CloudletVmSelectionPolicy policy = job.policyClass.getDeclaredConstructor().newInstance();
+            WorkloadSimulationRunner runner = new WorkloadSimulationRunner(policy, topology)
+                    .setMetricLevel(metricLevel)
+                    .setReportSink(reportSink == null ? null : (task, machine) -> {
+                        taskReport[0] = task;
+                        machineReport[0] = machine;
+                    });
+            summary = runner.run(workloadName, job.workload.createCloudlets(modelCache), false);
+        } catch (Exception e) {
+            JobResult failed = new JobResult(workloadName, policyName, false,
+                    System.currentTimeMillis() - startTime, e.getMessage(), null);
+            onJobDone.accept(failed);
+            return CompletableFuture.completedFuture(failed);
+        }
+
+        long elapsedMs = System.currentTimeMillis() - startTime;
+        if (reportSink == null) {
+            JobResult result = new JobResult(workloadName, policyName, true, elapsedMs, null, summary);
+            onJobDone.accept(result);
+            return CompletableFuture.completedFuture(result);
+        }
+
+        writePermits.acquire();
+        return CompletableFuture.supplyAsync(() -> {
+            JobResult result;
+            try {
+                reportSink.accept(taskReport[0], machineReport[0]);
+                result = new JobResult(workloadName, policyName, true, elapsedMs, null, summary);
+            } catch (IOException | RuntimeException e) {
+                result = new JobResult(workloadName, policyName, false, elapsedMs,
+                        "Failed to write results: " + e.getMessage(), summary);
+            } finally {
+                writePermits.release();
+            }
+            onJobDone.accept(result);
+            return result;
+        }, ioExecutor);
+    }
+
+    private static void await(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Pipeline stage failed", e.getCause());
+        }
+    }
+
+    private static ExecutorService newIoExecutor() {
+        Method factory = virtualThreadFactoryMethod();
+        if (factory != null) {
+            try {
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // fall through to platform threads
+            }
+        }
+        return Executors.newFixedThreadPool(IO_FALLBACK_THREADS);
+    }
+
+    private static Method virtualThreadFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package simulation.pipeline;
+
+import task.utils.TaskUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Produces one workload for the parse stage of a {@link SimulationPipeline}.
+ */
+public interface WorkloadLoader {
+
+    /**
+     * Name used in reports and result file names, known before the workload is loaded.
+     */
+    String getName();
+
+    ParsedWorkload load() throws IOException;
+
+    /**
+     * Loads a task file; despite the name, binary task files ({@link task.utils.BinaryTaskFile}) work too.
+     */
+    static WorkloadLoader fromJson(Path taskFile) {
+        String name = taskFile.getFileName().toString();
+        return new WorkloadLoader() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public ParsedWorkload load() throws IOException {
+                return new ParsedWorkload(name, TaskUtils.INSTANCE.loadCloudletInfos(taskFile));
+            }
+        };
+    }
+}
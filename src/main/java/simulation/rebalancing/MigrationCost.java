@@ -0,0 +1,27 @@
+package simulation.rebalancing;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+
+/**
+ * Delay, in simulated seconds, before a cloudlet moved by the {@link QueueRebalancer} reaches its new VM.
+ * The cloudlet sits in neither queue meanwhile, so a costly move only pays off for a long enough queue.
+ */
+@FunctionalInterface
+public interface MigrationCost {
+
+    double delay(Cloudlet cloudlet, Vm from, Vm to);
+
+    MigrationCost NONE = (cloudlet, from, to) -> 0.0;
+
+    /**
+     * A fixed latency plus the transfer of the cloudlet's input file at the given bandwidth
+     * (file size units per second, as the workload defines file sizes).
+     */
+    static MigrationCost transfer(double latencySeconds, double bandwidth) {
+        if (latencySeconds < 0 || bandwidth <= 0) {
+            throw new IllegalArgumentException("Latency must be >= 0 and bandwidth > 0");
+        }
+        return (cloudlet, from, to) -> latencySeconds + cloudlet.getFileSize() / bandwidth;
+    }
+}
@@ -0,0 +1,409 @@
+package simulation.rebalancing;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletExecution;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.core.CloudSimTag;
+import org.cloudsimplus.listeners.EventInfo;
+import org.cloudsimplus.vms.Vm;
+import simulation.MetricLevel;
+import simulation.WorkloadSimulationRunner;
+import simulation.WorkloadSimulationRunner.RunSummary;
+import simulation.WorkloadSimulationRunner.TaskStats;
+import simulation.algorithms.*;
+import simulation.topology.TopologyConfig;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Moves cloudlets that are still waiting in a VM's queue to VMs that would run them sooner.
+ *
+ * Once the VM mapper has picked a VM, a cloudlet stays in that VM's space-shared waiting queue even when
+ * other VMs go idle, which is what stretches the tail of a run. The rebalancer checks the queues on clock
+ * ticks (every tick, or at most once per interval) and estimates each VM's backlog: the seconds its
+ * running and queued work needs, bounded both by its PEs and by its RAM (CloudSim Plus slows cloudlets
+ * down while a VM's RAM is oversubscribed, so RAM-heavy queues drain slower than their PEs suggest).
+ * While the largest and smallest backlogs differ by more than the threshold, it walks the queue of the
+ * most loaded VM from the back and moves the first cloudlet that another VM would finish at least the
+ * threshold sooner than its estimated finish in place, {@link MigrationCost} included.
+ * Running cloudlets are never moved, and a cloudlet is moved at most once by default: a moved cloudlet
+ * joins the end of its new queue, so it would otherwise be the first candidate every time that queue
+ * grows, and could bounce between VMs until the end of the run.
+ *
+ * A move cancels the cloudlet on its VM and submits it to the new VM's datacenter after the migration
+ * delay. CloudSim Plus restarts the waiting time at resubmission, so the session keeps the original
+ * arrival times and reports waiting times through {@link Session#getWaitingTime}.
+ * VMs with a time-shared cloudlet scheduler start every cloudlet immediately and are never rebalanced.
+ */
+public class QueueRebalancer {
+
+    public static final double DEFAULT_THRESHOLD = 60.0;
+    public static final int DEFAULT_MAX_MOVES_PER_ROUND = 64;
+    public static final int DEFAULT_MAX_MOVES_PER_CLOUDLET = 1;
+
+    private double interval;
+    private double threshold = DEFAULT_THRESHOLD;
+    private int maxMovesPerRound = DEFAULT_MAX_MOVES_PER_ROUND;
+    private int maxMovesPerCloudlet = DEFAULT_MAX_MOVES_PER_CLOUDLET;
+    private MigrationCost migrationCost = MigrationCost.NONE;
+
+    /**
+     * Minimum simulated seconds between two rounds; 0 (the default) checks on every clock tick, i.e. after
+     * every batch of events. Larger fleets may want an interval, as a round scans every VM queue.
+     */
+    public QueueRebalancer setInterval(double interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Interval must be >= 0");
+        }
+        this.interval = interval;
+        return this;
+    }
+
+    /**
+     * Backlog difference, in seconds, between the most and least loaded VMs above which cloudlets are moved.
+     */
+    public QueueRebalancer setThreshold(double threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must be >= 0");
+        }
+        this.threshold = threshold;
+        return this;
+    }
+
+    public QueueRebalancer setMaxMovesPerRound(int maxMovesPerRound) {
+        if (maxMovesPerRound < 1) {
+            throw new IllegalArgumentException("At least one move per round is required");
+        }
+        this.maxMovesPerRound = maxMovesPerRound;
+        return this;
+    }
+
+    public QueueRebalancer setMaxMovesPerCloudlet(int maxMovesPerCloudlet) {
+        if (maxMovesPerCloudlet < 1) {
+            throw new IllegalArgumentException("At least one move per cloudlet is required");
+        }
+        this.maxMovesPerCloudlet = maxMovesPerCloudlet;
+        return this;
+    }
+
+    public QueueRebalancer setMigrationCost(MigrationCost migrationCost) {
+        this.migrationCost = Objects.requireNonNull(migrationCost);
+        return this;
+    }
+
+    public double getInterval() {
+        return interval;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Starts rebalancing the given VMs for one simulation run. Moved cloudlets are resubmitted on behalf of
+     * the broker that owns them.
+     */
+    public Session attach(CloudSimPlus simulation, DatacenterBroker broker, List<Vm> vms) {
+        Session session = new Session(simulation, broker, vms);
+        simulation.addOnClockTickListener(session::onClockTick);
+        return session;
+    }
+
+    /**
+     * Rebalancing state and counters of one run.
+     */
+    public class Session {
+        private final CloudSimPlus simulation;
+        private final DatacenterBroker broker;
+        private final List<Vm> vms;
+        // Per VM: seconds of work per PE, and RAM fraction x seconds; the backlog is the larger of the two
+        private final double[] cpuLoad;
+        private final double[] ramLoad;
+        private final double[] backlog;
+        private final boolean[] exhausted;
+        // Arrival time of every moved cloudlet before its first move, by cloudlet id
+        private final Map<Long, Double> originalArrival = new HashMap<>();
+        private final Map<Long, Integer> moveCounts = new HashMap<>();
+        // Moved cloudlets not yet resubmitted (the migration delay has not elapsed), with their target VM
+        private final List<Cloudlet> inTransit = new ArrayList<>();
+        private final List<Integer> inTransitTarget = new ArrayList<>();
+        private BiConsumer<Cloudlet, Vm> moveListener;
+
+        private double lastRound = Double.NEGATIVE_INFINITY;
+        private int rounds;
+        private int moves;
+        private double migrationDelay;
+
+        private Session(CloudSimPlus simulation, DatacenterBroker broker, List<Vm> vms) {
+            this.simulation = simulation;
+            this.broker = broker;
+            this.vms = vms;
+            this.cpuLoad = new double[vms.size()];
+            this.ramLoad = new double[vms.size()];
+            this.backlog = new double[vms.size()];
+            this.exhausted = new boolean[vms.size()];
+        }
+
+        /**
+         * Called with the cloudlet and its new VM after every move, e.g. to record it in a decision log.
+         */
+        public void setMoveListener(BiConsumer<Cloudlet, Vm> moveListener) {
+            this.moveListener = moveListener;
+        }
+
+        private void onClockTick(EventInfo evt) {
+            double now = evt.getTime();
+            if (now - lastRound < interval) {
+                return;
+            }
+            lastRound = now;
+            rebalance();
+        }
+
+        private void rebalance() {
+            boolean anyWaiting = false;
+            for (Vm vm : vms) {
+                if (!vm.getCloudletScheduler().getCloudletWaitingList().isEmpty()) {
+                    anyWaiting = true;
+                    break;
+                }
+            }
+            if (!anyWaiting) {
+                return;
+            }
+
+            for (int v = 0; v < vms.size(); v++) {
+                Vm vm = vms.get(v);
+                cpuLoad[v] = 0;
+                ramLoad[v] = 0;
+                backlog[v] = 0;
+                for (CloudletExecution ce : vm.getCloudletScheduler().getCloudletExecList()) {
+                    Cloudlet c = ce.getCloudlet();
+                    addLoad(v, c, runTime(c, Math.max(0, c.getLength() - c.getFinishedLengthSoFar()), vm));
+                }
+                for (CloudletExecution ce : vm.getCloudletScheduler().getCloudletWaitingList()) {
+                    addLoad(v, ce.getCloudlet(), runTime(ce.getCloudlet(), ce.getCloudlet().getLength(), vm));
+                }
+                exhausted[v] = vm.getCloudletScheduler().getCloudletWaitingList().isEmpty();
+            }
+            // The datacenter changes the status once the cloudlet arrives
+            for (int i = inTransit.size() - 1; i >= 0; i--) {
+                Cloudlet cloudlet = inTransit.get(i);
+                if (cloudlet.getStatus() == Cloudlet.Status.INSTANTIATED) {
+                    int v = inTransitTarget.get(i);
+                    addLoad(v, cloudlet, runTime(cloudlet, cloudlet.getLength(), vms.get(v)));
+                } else {
+                    inTransit.remove(i);
+                    inTransitTarget.remove(i);
+                }
+            }
+
+            int roundMoves = 0;
+            while (roundMoves < maxMovesPerRound) {
+                int source = -1;
+                double minBacklog = Double.MAX_VALUE;
+                for (int v = 0; v < vms.size(); v++) {
+                    minBacklog = Math.min(minBacklog, backlog[v]);
+                    if (!exhausted[v] && (source < 0 || backlog[v] > backlog[source])) {
+                        source = v;
+                    }
+                }
+                if (source < 0 || backlog[source] - minBacklog <= threshold) {
+                    break;
+                }
+                if (moveFrom(source, minBacklog)) {
+                    roundMoves++;
+                } else {
+                    exhausted[source] = true;
+                }
+            }
+            if (roundMoves > 0) {
+                rounds++;
+            }
+        }
+
+        /**
+         * Moves the waiting cloudlet nearest the back of the source queue that another VM would finish at
+         * least the threshold sooner.
+         */
+        private boolean moveFrom(int source, double minBacklog) {
+            Vm from = vms.get(source);
+            List<CloudletExecution> waiting = from.getCloudletScheduler().getCloudletWaitingList();
+            // Load of the source up to and including the current cloudlet, which bounds its finish in place
+            double cpuAhead = cpuLoad[source];
+            double ramAhead = ramLoad[source];
+            for (int i = waiting.size() - 1; i >= 0; i--) {
+                Cloudlet cloudlet = waiting.get(i).getCloudlet();
+                double sourceRunTime = runTime(cloudlet, cloudlet.getLength(), from);
+                double sourceFinish = Math.max(cpuAhead, ramAhead);
+                cpuAhead -= sourceRunTime * cloudlet.getPesNumber() / from.getPesNumber();
+                ramAhead -= sourceRunTime * ramUtil(cloudlet);
+                if (sourceFinish - threshold <= minBacklog) {
+                    // No VM can start anything earlier, so no cloudlet further ahead can gain either
+                    break;
+                }
+                if (moveCounts.getOrDefault(cloudlet.getId(), 0) >= maxMovesPerCloudlet) {
+                    continue;
+                }
+
+                int target = -1;
+                double bestFinish = sourceFinish - threshold;
+                double bestDelay = 0;
+                for (int v = 0; v < vms.size(); v++) {
+                    Vm to = vms.get(v);
+                    if (v == source || to.getPesNumber() < cloudlet.getPesNumber()) {
+                        continue;
+                    }
+                    double delay = migrationCost.delay(cloudlet, from, to);
+                    double finish = Math.max(backlog[v], delay) + runTime(cloudlet, cloudlet.getLength(), to);
+                    if (finish < bestFinish) {
+                        bestFinish = finish;
+                        bestDelay = delay;
+                        target = v;
+                    }
+                }
+                if (target >= 0) {
+                    Vm to = vms.get(target);
+                    move(cloudlet, from, to, bestDelay);
+                    if (bestDelay > 0) {
+                        inTransit.add(cloudlet);
+                        inTransitTarget.add(target);
+                    }
+                    addLoad(source, cloudlet, -sourceRunTime);
+                    addLoad(target, cloudlet, runTime(cloudlet, cloudlet.getLength(), to));
+                    exhausted[source] = waiting.isEmpty();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void addLoad(int v, Cloudlet cloudlet, double runTime) {
+            cpuLoad[v] += runTime * cloudlet.getPesNumber() / vms.get(v).getPesNumber();
+            ramLoad[v] += runTime * ramUtil(cloudlet);
+            backlog[v] = Math.max(cpuLoad[v], ramLoad[v]);
+        }
+
+        private void move(Cloudlet cloudlet, Vm from, Vm to, double delay) {
+            originalArrival.putIfAbsent(cloudlet.getId(), cloudlet.getArrivalTime());
+            moveCounts.merge(cloudlet.getId(), 1, Integer::sum);
+            from.getCloudletScheduler().cloudletCancel(cloudlet);
+            cloudlet.setStatus(Cloudlet.Status.INSTANTIATED);
+            cloudlet.setVm(to);
+            simulation.send(broker, to.getHost().getDatacenter(), delay, CloudSimTag.CLOUDLET_SUBMIT, cloudlet);
+
+            moves++;
+            migrationDelay += delay;
+            if (moveListener != null) {
+                moveListener.accept(cloudlet, to);
+            }
+        }
+
+        /**
+         * Waiting time from the cloudlet's first arrival in a datacenter, including time spent in transit.
+         */
+        public double getWaitingTime(Cloudlet cloudlet) {
+            Double arrival = originalArrival.get(cloudlet.getId());
+            if (arrival == null || cloudlet.getExecStartTime() < 0) {
+                return cloudlet.getWaitingTime();
+            }
+            return cloudlet.getExecStartTime() - arrival;
+        }
+
+        /**
+         * Rounds that moved at least one cloudlet.
+         */
+        public int getRounds() {
+            return rounds;
+        }
+
+        public int getMoves() {
+            return moves;
+        }
+
+        public int getMovedCloudlets() {
+            return originalArrival.size();
+        }
+
+        /**
+         * Sum of the migration delays of all moves, in simulated seconds.
+         */
+        public double getMigrationDelay() {
+            return migrationDelay;
+        }
+    }
+
+    // Seconds the cloudlet runs on the VM, as the space-shared scheduler executes it
+    private static double runTime(Cloudlet cloudlet, long length, Vm vm) {
+        double cpuUtil = cloudlet.getUtilizationModelCpu() != null
+                ? cloudlet.getUtilizationModelCpu().getUtilization()
+                : 1.0;
+        return length / Math.max(cpuUtil, 0.01) / vm.getMips();
+    }
+
+    private static double ramUtil(Cloudlet cloudlet) {
+        return cloudlet.getUtilizationModelRam() != null ? cloudlet.getUtilizationModelRam().getUtilization() : 0.0;
+    }
+
+    /**
+     * Runs each policy with and without rebalancing on one workload and prints what rebalancing gained.
+     */
+    public static void main(String[] args) throws IOException {
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        Path workloadJson = Path.of("output/tasks/tasks_1000_ram_heavy.json");
+        TopologyConfig topology = TopologyConfig.load(TopologyConfig.DEFAULT_TOPOLOGY_FILE);
+
+        QueueRebalancer rebalancer = new QueueRebalancer();
+        // Charge each move a network round trip plus the input file transfer
+//        rebalancer.setMigrationCost(MigrationCost.transfer(0.5, 100));
+
+        List<Supplier<CloudletVmSelectionPolicy>> policies = List.of(
+                RoundRobinCloudletVmPolicy::new,
+                WeightedResourcePolicy::new,
+                SortedTaskBestFitPolicy::new,
+                EarliestFinishTimePolicy::new);
+
+        System.out.println("Workload: " + workloadJson);
+        System.out.printf(Locale.US, "Threshold: %.1f s, interval: %.1f s%n%n",
+                rebalancer.getThreshold(), rebalancer.getInterval());
+        System.out.printf("%-28s %12s %12s %8s %10s %10s %8s %6s%n",
+                "Policy", "Makespan", "Rebalanced", "Gain%", "MeanWait", "Rebalanced", "Gain%", "Moves");
+        System.out.println("=".repeat(100));
+
+        for (Supplier<CloudletVmSelectionPolicy> policy : policies) {
+            double[] baselineWait = new double[1];
+            RunSummary baseline = new WorkloadSimulationRunner(policy.get(), topology)
+                    .setMetricLevel(MetricLevel.OFF)
+                    .setReportSink((taskReport, machineReport) -> baselineWait[0] = meanWaitingTime(taskReport.tasks))
+                    .run(workloadJson, false);
+            RunSummary rebalanced = new WorkloadSimulationRunner(policy.get(), topology)
+                    .setMetricLevel(MetricLevel.OFF)
+                    .setReportSink(null)
+                    .setRebalancer(rebalancer)
+                    .run(workloadJson, false);
+
+            double rebalancedWait = rebalanced.rebalancing.meanWaitingTime;
+            System.out.printf(Locale.US, "%-28s %12.2f %12.2f %+8.2f %10.2f %10.2f %+8.2f %6d%n",
+                    baseline.policy, baseline.makespan, rebalanced.makespan,
+                    (1 - rebalanced.makespan / baseline.makespan) * 100.0,
+                    baselineWait[0], rebalancedWait,
+                    baselineWait[0] > 0 ? (1 - rebalancedWait / baselineWait[0]) * 100.0 : 0.0,
+                    rebalanced.rebalancing.moves);
+        }
+    }
+
+    private static double meanWaitingTime(List<TaskStats> tasks) {
+        return tasks.stream().mapToDouble(t -> t.waitingTime).average().orElse(0.0);
+    }
+}
@@ -0,0 +1,45 @@
+package simulation.replay;
+
+/**
+ * Binary layout of a decision log.
+ *
+ * A log is a header followed by a stream of records, each starting with a one-byte record type.
+ * Ids and counts are unsigned LEB128 varints holding value + 1 (so -1, "no VM", encodes as 0),
+ * times and utilizations are 8-byte doubles, strings are modified UTF-8 (DataOutput.writeUTF).
+ * A typical dispatch record is 11-13 bytes. A cloudlet moved by the queue rebalancer gets one more DISPATCH
+ * record per move; the last one names the VM it ran on. A cloudlet with a deadline gets a DEADLINE record
+ * before its first dispatch. Run-level stats of the machine report come last, before END.
+ * Version 1 logs, which have none of the DEADLINE, REBALANCING and DECISION_LATENCY records, are still read.
+ *
+ * <pre>
+ * HEADER      magic "DLOG", version:u8, policy:utf, workload:utf, vmCount:varint,
+ *             vmCount x (vmId:varint, pes:varint, mipsPerPe:double, ram:varint)
+ * DEADLINE    cloudletId:varint, dueTime:double
+ * DISPATCH    cloudletId:varint, vmId:varint, time:double
+ * START       cloudletId:varint, time:double
+ * FINISH      cloudletId:varint, vmId:varint, status:u8, waitingTime:double, execStartTime:double,
+ *             finishTime:double, actualCpuTime:double
+ * REBALANCING moves:varint, movedCloudlets:varint, rounds:varint, migrationDelay:double, meanWaitingTime:double
+ * DECISION_LATENCY decisions:varint, meanNanos:double, p50Nanos:varint, p99Nanos:varint, maxNanos:varint,
+ *             allocatedBytes:varint
+ * VM_SUMMARY  vmId:varint, avgCpu:double, peakCpu:double, avgRam:double, peakRam:double, ramSamples:varint
+ * END         makespan:double, simulationClock:double
+ * </pre>
+ */
+final class DecisionLog {
+
+    static final int MAGIC = 0x444C4F47; // "DLOG"
+    static final int VERSION = 2;
+
+    static final int DISPATCH = 1;
+    static final int START = 2;
+    static final int FINISH = 3;
+    static final int VM_SUMMARY = 4;
+    static final int END = 5;
+    static final int DEADLINE = 6;
+    static final int REBALANCING = 7;
+    static final int DECISION_LATENCY = 8;
+
+    private DecisionLog() {
+    }
+}
@@ -0,0 +1,102 @@
+package simulation.replay;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a decision log to a {@link DecisionLogVisitor}. Memory use is independent of the log size.
+ */
+public class DecisionLogReader {
+
+    private static final Cloudlet.Status[] STATUSES = Cloudlet.Status.values();
+
+    private final Path path;
+
+    public DecisionLogReader(Path path) {
+        this.path = path;
+    }
+
+    public void accept(DecisionLogVisitor visitor) throws IOException {
+        InputStream stream = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+        if (path.toString().endsWith(".gz")) {
+            stream = new GZIPInputStream(stream, 1 << 16);
+        }
+
+        try (DataInputStream in = new DataInputStream(stream)) {
+            if (in.readInt() != DecisionLog.MAGIC) {
+                throw new IOException("Not a decision log: " + path);
+            }
+            int version = in.readUnsignedByte();
+            if (version < 1 || version > DecisionLog.VERSION) {
+                throw new IOException("Unsupported decision log version " + version + ": " + path);
+            }
+
+            String policy = in.readUTF();
+            String workload = in.readUTF();
+            int vmCount = (int) readVarLong(in);
+            long[] vmIds = new long[vmCount];
+            long[] vmPes = new long[vmCount];
+            double[] vmMips = new double[vmCount];
+            long[] vmRam = new long[vmCount];
+            for (int i = 0; i < vmCount; i++) {
+                vmIds[i] = readVarLong(in);
+                vmPes[i] = readVarLong(in);
+                vmMips[i] = in.readDouble();
+                vmRam[i] = readVarLong(in);
+            }
+            visitor.onHeader(policy, workload, vmIds, vmPes, vmMips, vmRam);
+
+            int type;
+            while ((type = in.read()) != -1) {
+                switch (type) {
+                    case DecisionLog.DEADLINE:
+                        visitor.onDeadline(readVarLong(in), in.readDouble());
+                        break;
+                    case DecisionLog.DISPATCH:
+                        visitor.onDispatch(readVarLong(in), readVarLong(in), in.readDouble());
+                        break;
+                    case DecisionLog.START:
+                        visitor.onStart(readVarLong(in), in.readDouble());
+                        break;
+                    case DecisionLog.FINISH:
+                        visitor.onFinish(readVarLong(in), readVarLong(in), STATUSES[in.readUnsignedByte()].toString(),
+                                in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+                        break;
+                    case DecisionLog.VM_SUMMARY:
+                        visitor.onVmSummary(readVarLong(in), in.readDouble(), in.readDouble(), in.readDouble(),
+                                in.readDouble(), (int) readVarLong(in));
+                        break;
+                    case DecisionLog.REBALANCING:
+                        visitor.onRebalancing((int) readVarLong(in), (int) readVarLong(in), (int) readVarLong(in),
+                                in.readDouble(), in.readDouble());
+                        break;
+                    case DecisionLog.DECISION_LATENCY:
+                        visitor.onDecisionLatency(readVarLong(in), in.readDouble(), readVarLong(in), readVarLong(in),
+                                readVarLong(in), readVarLong(in));
+                        break;
+                    case DecisionLog.END:
+                        visitor.onEnd(in.readDouble(), in.readDouble());
+                        break;
+                    default:
+                        throw new IOException("Corrupt decision log, unknown record type " + type + ": " + path);
+                }
+            }
+        }
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value - 1;
+    }
+}
@@ -0,0 +1,55 @@
+package simulation.replay;
+
+import simulation.ResultsWriter;
+import simulation.WorkloadSimulationRunner;
+import simulation.topology.TopologyConfig;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Replay entry point.
+ *
+ * Usage:
+ *  DecisionLogReplay reports <log>                        rebuilds the task and machine reports without CloudSim
+ *  DecisionLogReplay resimulate <log> <workload> [topology] re-runs the simulation with the logged decisions
+ */
+public class DecisionLogReplay {
+
+    public static void main(String[] args) throws IOException {
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        if (args.length < 2) {
+            System.err.println("Usage: DecisionLogReplay reports <log> | resimulate <log> <workload.json> [topology.json]");
+            return;
+        }
+
+        Path logPath = Path.of(args[1]);
+        long startTimeMs = System.currentTimeMillis();
+
+        if (args[0].equals("reports")) {
+            ReportReplayer replayer = new ReportReplayer();
+            new DecisionLogReader(logPath).accept(replayer);
+            ResultsWriter.INSTANCE.writeTaskReport(replayer.getTaskReport());
+            ResultsWriter.INSTANCE.writeMachineReport(replayer.getMachineReport());
+        } else if (args[0].equals("resimulate") && args.length >= 3) {
+            Path workloadPath = Path.of(args[2]);
+            TopologyConfig topology = args.length > 3
+                    ? TopologyConfig.load(Path.of(args[3]))
+                    : TopologyConfig.load(TopologyConfig.DEFAULT_TOPOLOGY_FILE);
+
+            FixedDecisionPolicy policy = new FixedDecisionPolicy(logPath);
+            WorkloadSimulationRunner.RunSummary summary = new WorkloadSimulationRunner(policy, topology)
+                    .setWriteResults(false)
+                    .run(workloadPath, false);
+
+            System.out.printf("Re-simulated %s decisions of %s: makespan %.2f, %d events%n",
+                    policy.getOriginalPolicy(), summary.workloadFile, summary.makespan, summary.eventsProcessed);
+        } else {
+            System.err.println("Unknown replay mode: " + args[0]);
+            return;
+        }
+
+        System.out.printf("Replay time: %d ms%n", System.currentTimeMillis() - startTimeMs);
+    }
+}
@@ -0,0 +1,30 @@
+package simulation.replay;
+
+/**
+ * Receives the records of a decision log in the order they were written.
+ * Implement this to build a new report from existing logs without running CloudSim again.
+ */
+public interface DecisionLogVisitor {
+
+    default void onHeader(String policy, String workload, long[] vmIds, long[] vmPes, double[] vmMips, long[] vmRam) {}
+
+    default void onDeadline(long cloudletId, double dueTime) {}
+
+    default void onDispatch(long cloudletId, long vmId, double time) {}
+
+    default void onStart(long cloudletId, double time) {}
+
+    default void onFinish(long cloudletId, long vmId, String status, double waitingTime, double execStartTime,
+                          double finishTime, double actualCpuTime) {}
+
+    default void onVmSummary(long vmId, double avgCpuPercent, double peakCpuPercent, double avgRamPercent,
+                             double peakRamPercent, int ramSamples) {}
+
+    default void onRebalancing(int moves, int movedCloudlets, int rounds, double migrationDelay,
+                               double meanWaitingTime) {}
+
+    default void onDecisionLatency(long decisions, double meanNanos, long p50Nanos, long p99Nanos, long maxNanos,
+                                   long allocatedBytes) {}
+
+    default void onEnd(double makespan, double simulationClock) {}
+}
@@ -0,0 +1,168 @@
+package simulation.replay;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.listeners.CloudletVmEventInfo;
+import org.cloudsimplus.vms.Vm;
+import simulation.WorkloadSimulationRunner.DecisionLatency;
+import simulation.WorkloadSimulationRunner.RebalancingStats;
+import simulation.WorkloadSimulationRunner.VmStats;
+import task.model.DeadlineCloudlet;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records one run's dispatch decisions and cloudlet lifecycle events in the {@link DecisionLog} format.
+ *
+ * The writer is driven by the simulation thread only, so it is not synchronized.
+ * I/O failures inside simulation listeners are rethrown as {@link UncheckedIOException}.
+ */
+public class DecisionLogWriter implements Closeable {
+
+    private final DataOutputStream out;
+    private ToDoubleFunction<Cloudlet> waitingTime = Cloudlet::getWaitingTime;
+
+    public DecisionLogWriter(Path path, String policyName, String workloadName, List<Vm> vms) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        OutputStream stream = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16);
+        if (path.toString().endsWith(".gz")) {
+            stream = new GZIPOutputStream(stream, 1 << 16);
+        }
+        this.out = new DataOutputStream(stream);
+
+        out.writeInt(DecisionLog.MAGIC);
+        out.writeByte(DecisionLog.VERSION);
+        out.writeUTF(policyName);
+        out.writeUTF(workloadName);
+        writeVarLong(vms.size());
+        for (Vm vm : vms) {
+            writeVarLong(vm.getId());
+            writeVarLong(vm.getPesNumber());
+            out.writeDouble(vm.getMips());
+            writeVarLong(vm.getRam().getCapacity());
+        }
+    }
+
+    /**
+     * Where FINISH records take the waiting time from (the cloudlet's own by default).
+     */
+    public void setWaitingTime(ToDoubleFunction<Cloudlet> waitingTime) {
+        this.waitingTime = waitingTime;
+    }
+
+    /**
+     * Registers start and finish listeners on the cloudlet so its lifecycle ends up in the log, and records its
+     * due time if it has a deadline.
+     */
+    public void trackLifecycle(Cloudlet cloudlet) {
+        double dueTime = DeadlineCloudlet.dueTimeOf(cloudlet);
+        if (dueTime < Double.POSITIVE_INFINITY) {
+            try {
+                out.writeByte(DecisionLog.DEADLINE);
+                writeVarLong(cloudlet.getId());
+                out.writeDouble(dueTime);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        cloudlet.addOnStartListener(this::onStart);
+        cloudlet.addOnFinishListener(this::onFinish);
+    }
+
+    public void writeDispatch(Cloudlet cloudlet, Vm vm, double time) {
+        try {
+            out.writeByte(DecisionLog.DISPATCH);
+            writeVarLong(cloudlet.getId());
+            writeVarLong(vm.getId());
+            out.writeDouble(time);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeVmSummaries(List<VmStats> vmStats) throws IOException {
+        for (VmStats vm : vmStats) {
+            out.writeByte(DecisionLog.VM_SUMMARY);
+            writeVarLong(vm.vmId);
+            out.writeDouble(vm.avgCpuPercent);
+            out.writeDouble(vm.peakCpuPercent);
+            out.writeDouble(vm.avgRamPercent);
+            out.writeDouble(vm.peakRamPercent);
+            writeVarLong(vm.ramSamples);
+        }
+    }
+
+    public void writeRebalancing(RebalancingStats rebalancing) throws IOException {
+        out.writeByte(DecisionLog.REBALANCING);
+        writeVarLong(rebalancing.moves);
+        writeVarLong(rebalancing.movedCloudlets);
+        writeVarLong(rebalancing.rounds);
+        out.writeDouble(rebalancing.migrationDelay);
+        out.writeDouble(rebalancing.meanWaitingTime);
+    }
+
+    public void writeDecisionLatency(DecisionLatency latency) throws IOException {
+        out.writeByte(DecisionLog.DECISION_LATENCY);
+        writeVarLong(latency.decisions);
+        out.writeDouble(latency.meanNanos);
+        writeVarLong(latency.p50Nanos);
+        writeVarLong(latency.p99Nanos);
+        writeVarLong(latency.maxNanos);
+        writeVarLong(latency.allocatedBytes);
+    }
+
+    public void writeEnd(double makespan, double simulationClock) throws IOException {
+        out.writeByte(DecisionLog.END);
+        out.writeDouble(makespan);
+        out.writeDouble(simulationClock);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void onStart(CloudletVmEventInfo info) {
+        try {
+            out.writeByte(DecisionLog.START);
+            writeVarLong(info.getCloudlet().getId());
+            out.writeDouble(info.getTime());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void onFinish(CloudletVmEventInfo info) {
+        Cloudlet c = info.getCloudlet();
+        try {
+            out.writeByte(DecisionLog.FINISH);
+            writeVarLong(c.getId());
+            writeVarLong(c.getVm() == null ? -1 : c.getVm().getId());
+            out.writeByte(c.getStatus().ordinal());
+            out.writeDouble(waitingTime.applyAsDouble(c));
+            out.writeDouble(c.getExecStartTime());
+            out.writeDouble(c.getFinishTime());
+            out.writeDouble(c.getActualCpuTime());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        // -1 (no VM) is stored as 0 and everything else shifted by one, so ids stay unsigned
+        long v = value + 1;
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+}
@@ -0,0 +1,92 @@
+package simulation.replay;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+import simulation.algorithms.CloudletVmSelectionPolicy;
+import simulation.algorithms.prescheduling.PreSchedulingStage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Replays the dispatch decisions recorded in a decision log: every cloudlet goes to the VM
+ * the original policy picked, and cloudlets are submitted in the original dispatch order.
+ *
+ * Re-simulating with this policy costs only the engine, so comparing its wall time with the
+ * original run separates a policy's own decision cost from the simulation's.
+ */
+public class FixedDecisionPolicy implements CloudletVmSelectionPolicy {
+
+    private final Map<Long, Long> vmByCloudlet = new HashMap<>();
+    private final Map<Long, Integer> dispatchIndex = new HashMap<>();
+    private final String originalPolicy;
+
+    private Map<Long, Vm> vmsById;
+
+    public FixedDecisionPolicy(Path decisionLog) throws IOException {
+        String[] policy = new String[1];
+        new DecisionLogReader(decisionLog).accept(new DecisionLogVisitor() {
+            @Override
+            public void onHeader(String policyName, String workload, long[] vmIds, long[] vmPes,
+                                 double[] vmMips, long[] vmRam) {
+                policy[0] = policyName;
+            }
+
+            @Override
+            public void onDispatch(long cloudletId, long vmId, double time) {
+                vmByCloudlet.put(cloudletId, vmId);
+                dispatchIndex.putIfAbsent(cloudletId, dispatchIndex.size());
+            }
+        });
+        this.originalPolicy = policy[0];
+    }
+
+    public String getOriginalPolicy() {
+        return originalPolicy;
+    }
+
+    @Override
+    public Vm selectVmFor(Cloudlet cloudlet, List<Vm> vms) {
+        if (vmsById == null) {
+            vmsById = new HashMap<>(vms.size() * 2);
+            for (Vm vm : vms) {
+                vmsById.put(vm.getId(), vm);
+            }
+        }
+
+        Long vmId = vmByCloudlet.get(cloudlet.getId());
+        Vm vm = vmId == null ? null : vmsById.get(vmId);
+        if (vm == null) {
+            throw new IllegalStateException("Decision log has no usable decision for Cloudlet " + cloudlet.getId());
+        }
+        return vm;
+    }
+
+    @Override
+    public PreSchedulingStage getPreSchedulingStage() {
+        return new PreSchedulingStage() {
+            @Override
+            public String getName() {
+                return "loggedDispatchOrder";
+            }
+
+            @Override
+            public int[] order(List<Cloudlet> cloudlets) {
+                return IntStream.range(0, cloudlets.size())
+                        .boxed()
+                        .sorted(Comparator.comparingInt(i ->
+                                dispatchIndex.getOrDefault(cloudlets.get(i).getId(), Integer.MAX_VALUE)))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+
+            // The order comes from the log, not from the workload
+            @Override
+            public String getCacheKey() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package simulation.replay;
+
+import simulation.WorkloadSimulationRunner.DeadlineStats;
+import simulation.WorkloadSimulationRunner.DecisionLatency;
+import simulation.WorkloadSimulationRunner.MachineUtilizationReport;
+import simulation.WorkloadSimulationRunner.RebalancingStats;
+import simulation.WorkloadSimulationRunner.TaskCompletionReport;
+import simulation.WorkloadSimulationRunner.TaskStats;
+import simulation.WorkloadSimulationRunner.VmStats;
+
+import java.util.*;
+
+/**
+ * Rebuilds the standard {@link TaskCompletionReport} and {@link MachineUtilizationReport} from a decision log.
+ *
+ * Tasks are reported in dispatch order, which is the order the runner submitted them in,
+ * so the rebuilt reports match the ones written by the original run, deadline stats and lateness included.
+ * Decision log versions before 2 carry no due times, so their reports have neither.
+ */
+public class ReportReplayer implements DecisionLogVisitor {
+
+    private String policy;
+    private String workload;
+    private long[] vmIds = new long[0];
+    private double makespan;
+    private double simulationClock;
+    private RebalancingStats rebalancing;
+    private DecisionLatency decisionLatency;
+
+    private final List<Long> dispatchOrder = new ArrayList<>();
+    private final Map<Long, Long> dispatchedVm = new HashMap<>();
+    private final Map<Long, Double> dueTimes = new HashMap<>();
+    private final Map<Long, TaskStats> finished = new HashMap<>();
+    private final Map<Long, VmStats> vmSummaries = new LinkedHashMap<>();
+    private final Map<Long, Long> taskCounts = new HashMap<>();
+
+    @Override
+    public void onHeader(String policy, String workload, long[] vmIds, long[] vmPes, double[] vmMips, long[] vmRam) {
+        this.policy = policy;
+        this.workload = workload;
+        this.vmIds = vmIds;
+    }
+
+    @Override
+    public void onDeadline(long cloudletId, double dueTime) {
+        dueTimes.put(cloudletId, dueTime);
+    }
+
+    @Override
+    public void onDispatch(long cloudletId, long vmId, double time) {
+        if (dispatchedVm.put(cloudletId, vmId) == null) {
+            dispatchOrder.add(cloudletId);
+        }
+    }
+
+    @Override
+    public void onFinish(long cloudletId, long vmId, String status, double waitingTime, double execStartTime,
+                         double finishTime, double actualCpuTime) {
+        finished.put(cloudletId, new TaskStats(cloudletId, status, vmId, waitingTime, finishTime,
+                finishTime - execStartTime, actualCpuTime));
+        if (vmId >= 0) {
+            taskCounts.merge(vmId, 1L, Long::sum);
+        }
+    }
+
+    @Override
+    public void onVmSummary(long vmId, double avgCpuPercent, double peakCpuPercent, double avgRamPercent,
+                            double peakRamPercent, int ramSamples) {
+        vmSummaries.put(vmId, new VmStats(vmId, avgCpuPercent, peakCpuPercent, avgRamPercent, peakRamPercent,
+                0, ramSamples));
+    }
+
+    @Override
+    public void onRebalancing(int moves, int movedCloudlets, int rounds, double migrationDelay,
+                              double meanWaitingTime) {
+        rebalancing = new RebalancingStats(moves, movedCloudlets, rounds, migrationDelay, meanWaitingTime);
+    }
+
+    @Override
+    public void onDecisionLatency(long decisions, double meanNanos, long p50Nanos, long p99Nanos, long maxNanos,
+                                  long allocatedBytes) {
+        decisionLatency = new DecisionLatency(decisions, meanNanos, p50Nanos, p99Nanos, maxNanos, allocatedBytes);
+    }
+
+    @Override
+    public void onEnd(double makespan, double simulationClock) {
+        this.makespan = makespan;
+        this.simulationClock = simulationClock;
+    }
+
+    public TaskCompletionReport getTaskReport() {
+        List<TaskStats> tasks = new ArrayList<>(dispatchOrder.size());
+        // As DeadlineStats.of computes it: a task that did not finish is late by the end of the run
+        double[] lateness = new double[dueTimes.size()];
+        int lateCount = 0;
+        for (long cloudletId : dispatchOrder) {
+            TaskStats stats = finished.get(cloudletId);
+            boolean success = stats != null;
+            if (stats == null) {
+                // Dispatched but never finished, e.g. the run was cut short
+                stats = new TaskStats(cloudletId, "UNFINISHED", dispatchedVm.get(cloudletId), 0, 0, 0, 0);
+            }
+            Double dueTime = dueTimes.get(cloudletId);
+            if (dueTime != null) {
+                if (success) {
+                    stats.lateness = stats.finishTime - dueTime;
+                }
+                lateness[lateCount++] = (success ? stats.finishTime : simulationClock) - dueTime;
+            }
+            tasks.add(stats);
+        }
+        TaskCompletionReport report = new TaskCompletionReport(policy, workload, makespan, simulationClock, tasks);
+        report.deadlines = DeadlineStats.of(lateness, lateCount);
+        return report;
+    }
+
+    public MachineUtilizationReport getMachineReport() {
+        List<VmStats> vms = new ArrayList<>(vmIds.length);
+        for (long vmId : vmIds) {
+            VmStats summary = vmSummaries.get(vmId);
+            long taskCount = taskCounts.getOrDefault(vmId, 0L);
+            if (summary == null) {
+                vms.add(new VmStats(vmId, 0, 0, 0, 0, taskCount, 0));
+            } else {
+                summary.taskCount = taskCount;
+                vms.add(summary);
+            }
+        }
+        MachineUtilizationReport report = new MachineUtilizationReport(policy, workload, vms);
+        report.rebalancing = rebalancing;
+        report.decisionLatency = decisionLatency;
+        return report;
+    }
+}
@@ -0,0 +1,268 @@
+package simulation.shadow;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+import simulation.algorithms.WeightedResourcePolicy;
+import task.model.DeadlineCloudlet;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Analytic completion model: estimates when every cloudlet of a workload finishes under a given cloudlet-to-VM
+ * assignment, without running CloudSim Plus. VMs do not interact, so each VM's queue is played out on its own,
+ * the way the space-shared cloudlet scheduler runs it:
+ * 1. Cloudlets join the queue at their submission delay, in dispatch order when they arrive together
+ * 2. Whenever PEs are free, the first waiting cloudlets that fit start, in queue order
+ * 3. A running cloudlet needs length / (MIPS * CPU utilization) seconds of a dedicated PE, as long as its RAM
+ *    and bandwidth (utilization, a fraction of the VM's) fit next to those of the cloudlets started before it
+ * 4. Otherwise it is slowed down, as CloudSim Plus does when a VM is oversubscribed: it makes no progress while
+ *    its RAM does not fit, and runs at (bandwidth left / bandwidth requested) of full speed while only its
+ *    bandwidth does not. The first running cloudlet always runs at full speed
+ *
+ * CloudSim Plus charges oversubscription as a delay per processing update, which has no closed form, so rule 4
+ * is an approximation: estimates are meant for ranking assignments, not for replacing the simulation. Schedulers
+ * other than spaceShared are not modelled.
+ *
+ * Workload data (arrival order, run time, PEs, RAM, bandwidth, due times) is computed once per model. Scoring
+ * an assignment handles each cloudlet's arrival, start and finish as events, each updating the at most one
+ * cloudlet per PE running on the VM: O(n * PEs), plus the scans of waiting cloudlets that do not fit.
+ */
+public class CompletionModel {
+
+    // Remaining work below this many seconds counts as done, so rounding cannot leave a cloudlet running
+    private static final double EPSILON = 1e-9;
+
+    private final double[] vmMips;
+    private final int[] vmPes;
+
+    // Per cloudlet, in dispatch order
+    private final double[] arrival;
+    private final double[] demand;
+    private final int[] pes;
+    private final double[] ram;
+    private final double[] bw;
+    private final double[] dueTime;
+    private final boolean hasDeadlines;
+    // Dispatch indices sorted by arrival, ties kept in dispatch order
+    private final int[] arrivalOrder;
+
+    /**
+     * Estimated outcome of one assignment.
+     */
+    public static class Estimate {
+        public double makespan;
+        // Finish time minus arrival, averaged over all cloudlets
+        public double meanFlowTime;
+        public double meanWaitingTime;
+        // Missed deadlines and their rate, NaN when no cloudlet has a deadline
+        public int missed;
+        public double missRate = Double.NaN;
+    }
+
+    /**
+     * @param vms       the VMs assignments index into
+     * @param cloudlets the cloudlets in the order they were dispatched
+     */
+    public CompletionModel(List<Vm> vms, List<Cloudlet> cloudlets) {
+        vmMips = new double[vms.size()];
+        vmPes = new int[vms.size()];
+        for (int v = 0; v < vms.size(); v++) {
+            vmMips[v] = vms.get(v).getMips();
+            vmPes[v] = (int) vms.get(v).getPesNumber();
+        }
+
+        int n = cloudlets.size();
+        arrival = new double[n];
+        demand = new double[n];
+        pes = new int[n];
+        ram = new double[n];
+        bw = new double[n];
+        dueTime = new double[n];
+        boolean deadlines = false;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Cloudlet cloudlet = cloudlets.get(i);
+            double cpuUtil = cloudlet.getUtilizationModelCpu() != null
+                    ? cloudlet.getUtilizationModelCpu().getUtilization()
+                    : 1.0;
+            arrival[i] = Math.max(0.0, cloudlet.getSubmissionDelay());
+            demand[i] = WeightedResourcePolicy.calculateCpuDemand(cloudlet.getLength(), cpuUtil);
+            pes[i] = (int) cloudlet.getPesNumber();
+            ram[i] = cloudlet.getUtilizationModelRam() == null ? 0.0
+                    : cloudlet.getUtilizationModelRam().getUtilization();
+            bw[i] = cloudlet.getUtilizationModelBw() == null ? 0.0
+                    : cloudlet.getUtilizationModelBw().getUtilization();
+            dueTime[i] = DeadlineCloudlet.dueTimeOf(cloudlet);
+            deadlines |= dueTime[i] < Double.POSITIVE_INFINITY;
+            order[i] = i;
+        }
+        hasDeadlines = deadlines;
+        // Stable, so cloudlets arriving together keep their dispatch order
+        Arrays.sort(order, Comparator.comparingDouble(i -> arrival[i]));
+        arrivalOrder = new int[n];
+        for (int i = 0; i < n; i++) {
+            arrivalOrder[i] = order[i];
+        }
+    }
+
+    public int size() {
+        return arrival.length;
+    }
+
+    /**
+     * @param vmIndex for each cloudlet in dispatch order, the index of its VM
+     */
+    public Estimate estimate(int[] vmIndex) {
+        int n = arrival.length;
+        if (vmIndex.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " assignments, got " + vmIndex.length);
+        }
+
+        // Each VM's queue in arrival order: queue[queueStart[v] .. queueStart[v + 1])
+        int[] queueStart = new int[vmMips.length + 1];
+        for (int v : vmIndex) {
+            queueStart[v + 1]++;
+        }
+        for (int v = 0; v < vmMips.length; v++) {
+            queueStart[v + 1] += queueStart[v];
+        }
+        int[] queue = new int[n];
+        int[] fill = Arrays.copyOf(queueStart, vmMips.length);
+        for (int i : arrivalOrder) {
+            queue[fill[vmIndex[i]]++] = i;
+        }
+
+        double[] start = new double[n];
+        double[] finish = new double[n];
+        int maxPes = 0;
+        for (int pesOfVm : vmPes) {
+            maxPes = Math.max(maxPes, pesOfVm);
+        }
+        VmQueue vmQueue = new VmQueue(maxPes, n);
+        for (int v = 0; v < vmMips.length; v++) {
+            vmQueue.run(v, queue, queueStart[v], queueStart[v + 1], start, finish);
+        }
+
+        Estimate estimate = new Estimate();
+        double flowSum = 0.0;
+        double waitingSum = 0.0;
+        int withDeadline = 0;
+        for (int i = 0; i < n; i++) {
+            estimate.makespan = Math.max(estimate.makespan, finish[i]);
+            flowSum += finish[i] - arrival[i];
+            waitingSum += start[i] - arrival[i];
+            if (dueTime[i] < Double.POSITIVE_INFINITY) {
+                withDeadline++;
+                if (finish[i] > dueTime[i]) {
+                    estimate.missed++;
+                }
+            }
+        }
+        estimate.meanFlowTime = n == 0 ? 0.0 : flowSum / n;
+        estimate.meanWaitingTime = n == 0 ? 0.0 : waitingSum / n;
+        if (hasDeadlines) {
+            estimate.missRate = (double) estimate.missed / withDeadline;
+        }
+        return estimate;
+    }
+
+    /**
+     * Plays out one VM's queue at a time, reusing its arrays across VMs.
+     */
+    private final class VmQueue {
+        // Running cloudlets and their remaining work, in seconds at full speed
+        final int[] running;
+        final double[] remaining;
+        final double[] rate;
+        int runningCount;
+        // Whether each cloudlet has started, to skip cloudlets that backfilled past the head of the queue
+        final boolean[] started;
+
+        VmQueue(int maxPes, int cloudlets) {
+            running = new int[maxPes];
+            remaining = new double[maxPes];
+            rate = new double[maxPes];
+            started = new boolean[cloudlets];
+        }
+
+        void run(int v, int[] queue, int from, int to, double[] start, double[] finish) {
+            runningCount = 0;
+            int freePes = vmPes[v];
+            // Queue entries before head have started; entries before arrived have arrived
+            int head = from;
+            int arrived = from;
+            double time = 0.0;
+
+            while (head < to || runningCount > 0) {
+                while (arrived < to && arrival[queue[arrived]] <= time) {
+                    arrived++;
+                }
+
+                // First fit over the waiting cloudlets, as CloudletSchedulerSpaceShared does
+                for (int q = head; q < arrived && freePes > 0; q++) {
+                    int i = queue[q];
+                    // A cloudlet wider than its VM runs on all of the VM's PEs
+                    int p = Math.max(1, Math.min(pes[i], vmPes[v]));
+                    if (started[i] || p > freePes) {
+                        continue;
+                    }
+                    started[i] = true;
+                    start[i] = time;
+                    running[runningCount] = i;
+                    remaining[runningCount] = demand[i] / vmMips[v];
+                    runningCount++;
+                    freePes -= p;
+                }
+                while (head < to && started[queue[head]]) {
+                    head++;
+                }
+
+                // Running cloudlets keep their start order, which is the order CloudSim Plus allocates in
+                double ramLoad = 0.0;
+                double bwLoad = 0.0;
+                double nextFinish = Double.MAX_VALUE;
+                int finishing = -1;
+                for (int k = 0; k < runningCount; k++) {
+                    int i = running[k];
+                    double bwAvailable = 1.0 - bwLoad;
+                    ramLoad += ram[i];
+                    bwLoad += bw[i];
+                    if (k == 0 || (ramLoad <= 1.0 + EPSILON && bwLoad <= 1.0 + EPSILON)) {
+                        rate[k] = 1.0;
+                    } else if (ramLoad > 1.0 + EPSILON) {
+                        rate[k] = 0.0;
+                    } else {
+                        rate[k] = Math.max(0.0, bwAvailable) / bw[i];
+                    }
+                    if (rate[k] > 0 && time + remaining[k] / rate[k] < nextFinish) {
+                        nextFinish = time + remaining[k] / rate[k];
+                        finishing = k;
+                    }
+                }
+
+                double nextArrival = arrived < to ? arrival[queue[arrived]] : Double.MAX_VALUE;
+                double next = Math.min(nextFinish, nextArrival);
+                double span = next - time;
+                time = next;
+
+                int stillRunning = 0;
+                for (int k = 0; k < runningCount; k++) {
+                    int i = running[k];
+                    double left = remaining[k] - span * rate[k];
+                    // The cloudlet that set the next event finishes even if rounding leaves some work
+                    if (left <= EPSILON || (k == finishing && next == nextFinish)) {
+                        finish[i] = time;
+                        freePes += Math.max(1, Math.min(pes[i], vmPes[v]));
+                    } else {
+                        running[stillRunning] = i;
+                        remaining[stillRunning] = left;
+                        stillRunning++;
+                    }
+                }
+                runningCount = stillRunning;
+            }
+        }
+    }
+}
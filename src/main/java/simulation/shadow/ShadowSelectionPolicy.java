@@ -0,0 +1,207 @@
+package simulation.shadow;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+import simulation.WorkloadSimulationRunner.ShadowStats;
+import simulation.algorithms.CloudletVmSelectionPolicy;
+import simulation.algorithms.prescheduling.PreSchedulingStage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs candidate policies in the shadow of the one that drives the simulation. Every decision the primary
+ * policy is asked for is also offered to each candidate: the same cloudlet (or chunk, through selectVmsFor)
+ * with the same VM list, in the same order. Candidates keep their own state and their choices are only
+ * recorded, never acted on. After the run, {@link #evaluate} scores the primary's and every candidate's
+ * choices with a {@link CompletionModel}, so N policies are screened for the cost of one simulation.
+ *
+ * Candidates see the workload in the primary's dispatch order: their own pre-scheduling stages are not
+ * applied. A candidate that throws is dropped and reported with its error, so it cannot end the run.
+ * Decisions are made on the simulation thread, so no synchronisation is needed.
+ */
+public class ShadowSelectionPolicy implements CloudletVmSelectionPolicy {
+
+    private final Recorder primary;
+    private final List<Recorder> candidates = new ArrayList<>();
+    private final List<Cloudlet> offered = new ArrayList<>();
+
+    private List<Vm> vms;
+    private Map<Vm, Integer> indexOf;
+
+    /**
+     * A policy with the choices it made so far, as VM indices in offer order.
+     */
+    private static final class Recorder {
+        final String name;
+        final CloudletVmSelectionPolicy policy;
+        int[] choices = new int[1024];
+        int count;
+        long nanos;
+        String error;
+
+        Recorder(String name, CloudletVmSelectionPolicy policy) {
+            this.name = name;
+            this.policy = policy;
+        }
+
+        void record(int vm) {
+            if (count == choices.length) {
+                choices = Arrays.copyOf(choices, count * 2);
+            }
+            choices[count++] = vm;
+        }
+
+        int[] choices() {
+            return Arrays.copyOf(choices, count);
+        }
+    }
+
+    /**
+     * @param primaryName name the primary policy is reported under
+     * @param candidates  policies to shadow the primary, by the name they are reported under; they must be
+     *                    fresh instances, not shared with the primary or with another run
+     */
+    public ShadowSelectionPolicy(String primaryName, CloudletVmSelectionPolicy primary,
+                                 Map<String, ? extends CloudletVmSelectionPolicy> candidates) {
+        this.primary = new Recorder(primaryName, primary);
+        candidates.forEach((name, policy) -> {
+            if (policy == primary) {
+                throw new IllegalArgumentException("Candidate " + name + " is the primary policy itself");
+            }
+            this.candidates.add(new Recorder(name, policy));
+        });
+    }
+
+    @Override
+    public Vm selectVmFor(Cloudlet cloudlet, List<Vm> availableVms) {
+        index(availableVms);
+        offered.add(cloudlet);
+
+        long start = System.nanoTime();
+        Vm vm = primary.policy.selectVmFor(cloudlet, availableVms);
+        primary.nanos += System.nanoTime() - start;
+        primary.record(indexOf(vm));
+
+        for (Recorder candidate : candidates) {
+            if (candidate.error != null) {
+                continue;
+            }
+            try {
+                start = System.nanoTime();
+                Vm choice = candidate.policy.selectVmFor(cloudlet, availableVms);
+                candidate.nanos += System.nanoTime() - start;
+                candidate.record(indexOf(choice));
+            } catch (RuntimeException e) {
+                candidate.error = e.toString();
+            }
+        }
+        return vm;
+    }
+
+    @Override
+    public int[] selectVmsFor(List<Cloudlet> cloudlets, List<Vm> availableVms) {
+        index(availableVms);
+        offered.addAll(cloudlets);
+
+        long start = System.nanoTime();
+        int[] assignment = primary.policy.selectVmsFor(cloudlets, availableVms);
+        primary.nanos += System.nanoTime() - start;
+        for (int vm : assignment) {
+            primary.record(vm);
+        }
+
+        for (Recorder candidate : candidates) {
+            if (candidate.error != null) {
+                continue;
+            }
+            try {
+                start = System.nanoTime();
+                int[] choices = candidate.policy.selectVmsFor(cloudlets, availableVms);
+                candidate.nanos += System.nanoTime() - start;
+                for (int vm : choices) {
+                    candidate.record(vm);
+                }
+            } catch (RuntimeException e) {
+                candidate.error = e.toString();
+            }
+        }
+        return assignment;
+    }
+
+    @Override
+    public PreSchedulingStage getPreSchedulingStage() {
+        return primary.policy.getPreSchedulingStage();
+    }
+
+    /**
+     * Scores the choices recorded so far: the primary policy first, then the candidates in the order given.
+     */
+    public List<ShadowStats> evaluate() {
+        List<ShadowStats> stats = new ArrayList<>(candidates.size() + 1);
+        if (vms == null) {
+            return stats;
+        }
+        CompletionModel model = new CompletionModel(vms, offered);
+        int[] primaryChoices = primary.choices();
+        stats.add(score(primary, true, model, primaryChoices));
+        for (Recorder candidate : candidates) {
+            stats.add(score(candidate, false, model, primaryChoices));
+        }
+        return stats;
+    }
+
+    private static ShadowStats score(Recorder recorder, boolean isPrimary, CompletionModel model,
+                                     int[] primaryChoices) {
+        ShadowStats stats = new ShadowStats();
+        stats.policy = recorder.name;
+        stats.primary = isPrimary;
+        stats.decisions = recorder.count;
+        stats.meanDecisionNanos = recorder.count == 0 ? 0.0 : (double) recorder.nanos / recorder.count;
+        if (recorder.error != null) {
+            stats.error = recorder.error;
+            return stats;
+        }
+
+        int[] choices = recorder.choices();
+        int agreeing = 0;
+        for (int i = 0; i < choices.length; i++) {
+            if (choices[i] == primaryChoices[i]) {
+                agreeing++;
+            }
+        }
+        stats.agreement = choices.length == 0 ? 1.0 : (double) agreeing / choices.length;
+
+        CompletionModel.Estimate estimate = model.estimate(choices);
+        stats.estimatedMakespan = estimate.makespan;
+        stats.estimatedMeanFlowTime = estimate.meanFlowTime;
+        stats.estimatedMeanWaitingTime = estimate.meanWaitingTime;
+        stats.estimatedMissRate = Double.isNaN(estimate.missRate) ? null : estimate.missRate;
+        return stats;
+    }
+
+    private void index(List<Vm> availableVms) {
+        if (availableVms == vms) {
+            return;
+        }
+        if (vms != null) {
+            throw new IllegalStateException("Shadow evaluation covers a single VM list per run");
+        }
+        vms = availableVms;
+        indexOf = new IdentityHashMap<>(availableVms.size() * 2);
+        for (int v = 0; v < availableVms.size(); v++) {
+            indexOf.put(availableVms.get(v), v);
+        }
+    }
+
+    private int indexOf(Vm vm) {
+        Integer index = indexOf.get(vm);
+        if (index == null) {
+            throw new IllegalStateException("Policy selected a VM outside the available list: " + vm);
+        }
+        return index;
+    }
+}
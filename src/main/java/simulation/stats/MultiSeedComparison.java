@@ -0,0 +1,339 @@
+package simulation.stats;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.commons.math3.distribution.TDistribution;
+import simulation.MetricLevel;
+import simulation.WorkloadSimulationRunner;
+import simulation.algorithms.*;
+import simulation.topology.TopologyConfig;
+import task.CreateTasks;
+import task.generator.WorkloadGenerator;
+import task.model.WorkloadType;
+import task.utils.UtilizationModelCache;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Compares policies over many generated workloads instead of the single file per size and type, adding seeds
+ * until the comparison is statistically settled.
+ *
+ * Seed i generates a fresh workload from {@code firstSeed + i} with the task parameters of {@link CreateTasks},
+ * and every policy runs on that same workload, so policies are compared on paired differences (policy minus
+ * baseline makespan per seed), which cancels most of the workload-to-workload variance. Seeds run in batches
+ * of one per thread. After each batch, a Student t interval is computed for every difference, at the
+ * requested confidence with a Bonferroni correction over the compared policies. Seeding stops once every
+ * interval's half-width is within {@code precision} of the baseline's mean makespan (a fixed-width sequential
+ * procedure), or at {@code maxSeeds}.
+ *
+ * Fixed-width stopping keeps the nominal coverage asymptotically; {@code minSeeds} guards against stopping on
+ * a lucky early variance estimate. Differences whose interval excludes zero are reported as significant.
+ */
+public class MultiSeedComparison {
+
+    public static final Path OUTPUT_DIR = Path.of("output/comparisons");
+
+    public static final int DEFAULT_MIN_SEEDS = 5;
+    public static final int DEFAULT_MAX_SEEDS = 100;
+    public static final double DEFAULT_CONFIDENCE = 0.95;
+    public static final double DEFAULT_PRECISION = 0.01;
+
+    private final List<Supplier<? extends CloudletVmSelectionPolicy>> policies;
+    private final TopologyConfig topology;
+    private final int taskCount;
+    private final WorkloadType workloadType;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long firstSeed = CreateTasks.RANDOM_SEED;
+    private int minSeeds = DEFAULT_MIN_SEEDS;
+    private int maxSeeds = DEFAULT_MAX_SEEDS;
+    private double confidence = DEFAULT_CONFIDENCE;
+    private double precision = DEFAULT_PRECISION;
+
+    /**
+     * Mean of a sample with a two-sided Student t confidence interval.
+     */
+    public static class Estimate {
+        public int n;
+        public double mean;
+        public double stdDev;
+        public double halfWidth;
+        public double lower;
+        public double upper;
+
+        public Estimate(double[] values, int n, double confidence) {
+            this.n = n;
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += values[i];
+            }
+            this.mean = sum / n;
+            double squares = 0;
+            for (int i = 0; i < n; i++) {
+                squares += (values[i] - mean) * (values[i] - mean);
+            }
+            this.stdDev = n > 1 ? Math.sqrt(squares / (n - 1)) : 0.0;
+            double t = n > 1 ? new TDistribution(n - 1).inverseCumulativeProbability(0.5 + confidence / 2)
+                    : Double.POSITIVE_INFINITY;
+            this.halfWidth = t * stdDev / Math.sqrt(n);
+            this.lower = mean - halfWidth;
+            this.upper = mean + halfWidth;
+        }
+
+        public boolean excludesZero() {
+            return lower > 0 || upper < 0;
+        }
+    }
+
+    public static class PolicyResult {
+        public String policy;
+        public Estimate makespan;
+        // Paired difference to the baseline (first) policy, with the Bonferroni-corrected interval; null for it
+        public Estimate differenceToBaseline;
+        public boolean significant;
+        public double[] makespans;
+
+        PolicyResult(String policy) {
+            this.policy = policy;
+        }
+    }
+
+    public static class Report {
+        public String workloadType;
+        public int taskCount;
+        public String topology;
+        public long firstSeed;
+        public int seeds;
+        public int maxSeeds;
+        public int runs;
+        public double confidence;
+        public double precision;
+        // False if maxSeeds was reached before every interval was narrow enough
+        public boolean converged;
+        public long elapsedMs;
+        public List<PolicyResult> policies = new ArrayList<>();
+    }
+
+    public MultiSeedComparison(List<Supplier<? extends CloudletVmSelectionPolicy>> policies, TopologyConfig topology,
+                               int taskCount, WorkloadType workloadType) {
+        if (policies.size() < 2) {
+            throw new IllegalArgumentException("At least two policies are needed for a comparison");
+        }
+        this.policies = List.copyOf(policies);
+        this.topology = topology;
+        this.taskCount = taskCount;
+        this.workloadType = workloadType;
+        topology.validate();
+    }
+
+    public MultiSeedComparison setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    public MultiSeedComparison setFirstSeed(long firstSeed) {
+        this.firstSeed = firstSeed;
+        return this;
+    }
+
+    public MultiSeedComparison setSeedRange(int minSeeds, int maxSeeds) {
+        if (minSeeds < 2 || maxSeeds < minSeeds) {
+            throw new IllegalArgumentException("Need 2 <= minSeeds <= maxSeeds");
+        }
+        this.minSeeds = minSeeds;
+        this.maxSeeds = maxSeeds;
+        return this;
+    }
+
+    /**
+     * @param confidence family-wise confidence of the difference intervals, e.g. 0.95
+     * @param precision  target half-width of every difference interval, relative to the baseline mean makespan
+     */
+    public MultiSeedComparison setStoppingRule(double confidence, double precision) {
+        if (confidence <= 0 || confidence >= 1 || precision <= 0) {
+            throw new IllegalArgumentException("Need 0 < confidence < 1 and precision > 0");
+        }
+        this.confidence = confidence;
+        this.precision = precision;
+        return this;
+    }
+
+    public Report run(boolean consoleOutput) throws InterruptedException {
+        long startMs = System.currentTimeMillis();
+        int policyCount = policies.size();
+        // makespans[p][s]: policy p on seed s
+        double[][] makespans = new double[policyCount][maxSeeds];
+        String[] names = new String[policyCount];
+        for (int p = 0; p < policyCount; p++) {
+            names[p] = policies.get(p).get().getClass().getSimpleName();
+        }
+        // Bonferroni: every difference interval at 1 - alpha / (number of differences)
+        double pairConfidence = 1 - (1 - confidence) / (policyCount - 1);
+
+        if (consoleOutput) {
+            System.out.printf(Locale.US, "%d tasks, %s, %s topology, seeds from %d%n",
+                    taskCount, workloadType, topology.name, firstSeed);
+            System.out.printf(Locale.US, "Stopping when every difference to %s is within +/-%.2f%% "
+                            + "(%.0f%% family-wise confidence), after %d to %d seeds%n%n",
+                    names[0], precision * 100, confidence * 100, minSeeds, maxSeeds);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        UtilizationModelCache cache = new UtilizationModelCache();
+        int seeds = 0;
+        boolean converged = false;
+        try {
+            while (seeds < maxSeeds && !converged) {
+                int batch = Math.min(maxSeeds - seeds, Math.max(threads, minSeeds - seeds));
+                List<Future<Double>> futures = new ArrayList<>(batch * policyCount);
+                for (int s = seeds; s < seeds + batch; s++) {
+                    long seed = firstSeed + s;
+                    for (int p = 0; p < policyCount; p++) {
+                        Supplier<? extends CloudletVmSelectionPolicy> policy = policies.get(p);
+                        futures.add(executor.submit(() -> runOne(policy.get(), seed, cache)));
+                    }
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        makespans[i % policyCount][seeds + i / policyCount] = futures.get(i).get();
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Run failed", e.getCause());
+                    }
+                }
+                seeds += batch;
+
+                double target = precision * new Estimate(makespans[0], seeds, confidence).mean;
+                converged = seeds >= minSeeds;
+                StringBuilder progress = new StringBuilder();
+                for (int p = 1; p < policyCount; p++) {
+                    Estimate difference = new Estimate(difference(makespans[p], makespans[0], seeds), seeds,
+                            pairConfidence);
+                    converged &= difference.halfWidth <= target;
+                    progress.append(String.format(Locale.US, "  %s %+.1f +/- %.1f", names[p],
+                            difference.mean, difference.halfWidth));
+                }
+                if (consoleOutput) {
+                    System.out.printf(Locale.US, "%3d seeds (target +/- %.1f):%s%n", seeds, target, progress);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Report report = new Report();
+        report.workloadType = workloadType.name();
+        report.taskCount = taskCount;
+        report.topology = topology.name;
+        report.firstSeed = firstSeed;
+        report.seeds = seeds;
+        report.maxSeeds = maxSeeds;
+        report.runs = seeds * policyCount;
+        report.confidence = confidence;
+        report.precision = precision;
+        report.converged = converged;
+        for (int p = 0; p < policyCount; p++) {
+            PolicyResult result = new PolicyResult(names[p]);
+            result.makespans = Arrays.copyOf(makespans[p], seeds);
+            result.makespan = new Estimate(makespans[p], seeds, confidence);
+            if (p > 0) {
+                result.differenceToBaseline = new Estimate(difference(makespans[p], makespans[0], seeds), seeds,
+                        pairConfidence);
+                result.significant = result.differenceToBaseline.excludesZero();
+            }
+            report.policies.add(result);
+        }
+        report.elapsedMs = System.currentTimeMillis() - startMs;
+
+        if (consoleOutput) {
+            printReport(report);
+        }
+        return report;
+    }
+
+    private double runOne(CloudletVmSelectionPolicy policy, long seed, UtilizationModelCache cache)
+            throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator(seed, cache);
+        String workloadName = String.format("tasks_%d_%s_seed%d",
+                taskCount, workloadType.name().toLowerCase(), seed);
+        return new WorkloadSimulationRunner(policy, topology)
+                .setMetricLevel(MetricLevel.OFF)
+                .setReportSink(null)
+                .run(workloadName, CreateTasks.createCloudlets(generator, taskCount, workloadType), false)
+                .makespan;
+    }
+
+    private static double[] difference(double[] values, double[] baseline, int n) {
+        double[] difference = new double[n];
+        for (int i = 0; i < n; i++) {
+            difference[i] = values[i] - baseline[i];
+        }
+        return difference;
+    }
+
+    private static void printReport(Report report) {
+        System.out.println();
+        System.out.println("=".repeat(100));
+        System.out.printf(Locale.US, "%d seeds, %d runs in %.1f s (%s)%n", report.seeds, report.runs,
+                report.elapsedMs / 1000.0, report.converged
+                        ? String.format("converged; %d seeds would have taken %d runs",
+                                report.maxSeeds, report.maxSeeds * report.policies.size())
+                        : "not converged: maximum seeds reached");
+        System.out.printf("%-28s %24s %28s %12s%n", "Policy", "Mean makespan", "Difference to baseline", "");
+        System.out.println("=".repeat(100));
+        for (PolicyResult result : report.policies) {
+            String difference = "";
+            String verdict = "baseline";
+            if (result.differenceToBaseline != null) {
+                difference = String.format(Locale.US, "%+.2f +/- %.2f",
+                        result.differenceToBaseline.mean, result.differenceToBaseline.halfWidth);
+                verdict = !result.significant ? "no difference"
+                        : result.differenceToBaseline.mean < 0 ? "better" : "worse";
+            }
+            System.out.printf(Locale.US, "%-28s %24s %28s %12s%n", result.policy,
+                    String.format(Locale.US, "%.2f +/- %.2f", result.makespan.mean, result.makespan.halfWidth),
+                    difference, verdict);
+        }
+    }
+
+    public static Path writeReport(Report report) throws IOException {
+        Files.createDirectories(OUTPUT_DIR);
+        Path path = OUTPUT_DIR.resolve(String.format("multiseed_%d_%s.json",
+                report.taskCount, report.workloadType.toLowerCase()));
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            gson.toJson(report, writer);
+        }
+        return path;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        int taskCount = 1000;
+        WorkloadType workloadType = WorkloadType.BALANCED;
+        TopologyConfig topology = TopologyConfig.load(TopologyConfig.DEFAULT_TOPOLOGY_FILE);
+
+        // The first policy is the baseline the others are compared with
+        List<Supplier<? extends CloudletVmSelectionPolicy>> policies = List.of(
+                WeightedResourcePolicy::new,
+                RoundRobinCloudletVmPolicy::new,
+                SortedTaskBestFitPolicy::new,
+                EarliestFinishTimePolicy::new);
+
+        MultiSeedComparison comparison = new MultiSeedComparison(policies, topology, taskCount, workloadType)
+                .setStoppingRule(DEFAULT_CONFIDENCE, DEFAULT_PRECISION);
+        Report report = comparison.run(true);
+        System.out.println("\nReport written to: " + writeReport(report));
+    }
+}
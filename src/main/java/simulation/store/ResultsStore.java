@@ -0,0 +1,465 @@
+package simulation.store;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import simulation.WorkloadSimulationRunner.DeadlineStats;
+import simulation.WorkloadSimulationRunner.DecisionLatency;
+import simulation.WorkloadSimulationRunner.MachineUtilizationReport;
+import simulation.WorkloadSimulationRunner.ReportSink;
+import simulation.WorkloadSimulationRunner.TaskCompletionReport;
+import simulation.WorkloadSimulationRunner.TaskStats;
+import simulation.WorkloadSimulationRunner.VmStats;
+import simulation.WorkloadSimulationRunner.VmTimeSeries;
+import task.utils.TaskUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Consolidated columnar store for the reports of every run, so analysis can load one column across
+ * hundreds of runs instead of parsing two JSON files per run.
+ *
+ * Layout under the store directory:
+ * <pre>
+ *   index.json            tables, column dtypes, string dictionaries and one entry per run
+ *   tasks/&lt;column&gt;.bin    one row per task, all runs appended back to back
+ *   vms/&lt;column&gt;.bin      one row per VM, all runs appended back to back
+ *   series/&lt;column&gt;.bin   one row per time-series point (runs with MetricLevel.FULL only)
+ * </pre>
+ * Column files are raw little-endian arrays (numpy dtype given in the index), so they can be memory
+ * mapped directly. Each run's rows are contiguous; the index records their offset and count, which is
+ * what partitions the tables by workload and policy. Strings (task status) are dictionary-encoded, and
+ * values a row does not have (the lateness of a task without a deadline) are stored as NaN.
+ *
+ * Columns are appended first and the index is replaced atomically afterwards, so a crash leaves at most
+ * some unindexed trailing rows, which are truncated the next time the store is opened. One process
+ * may write to a store at a time; within that process {@link #append} is thread-safe.
+ */
+public class ResultsStore {
+
+    public static final Path DEFAULT_DIR = Path.of("output/store");
+    public static final int FORMAT_VERSION = 1;
+
+    public static final String TASKS_TABLE = "tasks";
+    public static final String VMS_TABLE = "vms";
+    public static final String SERIES_TABLE = "series";
+
+    private static final String INDEX_FILE = "index.json";
+    private static final String STATUS_DICTIONARY = "status";
+
+    private static final List<ColumnDef<TaskStats>> TASK_COLUMNS = List.of(
+            ColumnDef.int64("id", t -> t.id),
+            ColumnDef.int64("vmId", t -> t.vmId),
+            ColumnDef.dictionary("status", STATUS_DICTIONARY, t -> t.status),
+            ColumnDef.float64("waitingTime", t -> t.waitingTime),
+            ColumnDef.float64("finishTime", t -> t.finishTime),
+            ColumnDef.float64("execTime", t -> t.execTime),
+            ColumnDef.float64("actualCpuTime", t -> t.actualCpuTime),
+            ColumnDef.float64("lateness", t -> t.lateness != null ? t.lateness : Double.NaN)
+    );
+
+    private static final List<ColumnDef<VmStats>> VM_COLUMNS = List.of(
+            ColumnDef.int64("vmId", v -> v.vmId),
+            ColumnDef.float64("avgCpuPercent", v -> v.avgCpuPercent),
+            ColumnDef.float64("peakCpuPercent", v -> v.peakCpuPercent),
+            ColumnDef.float64("avgRamPercent", v -> v.avgRamPercent),
+            ColumnDef.float64("peakRamPercent", v -> v.peakRamPercent),
+            ColumnDef.int64("taskCount", v -> v.taskCount),
+            ColumnDef.int32("ramSamples", v -> v.ramSamples)
+    );
+
+    /**
+     * One point of a VM's downsampled time series, as stored in the series table.
+     */
+    private static class SeriesPoint {
+        final long vmId;
+        final VmTimeSeries series;
+        final int index;
+
+        SeriesPoint(long vmId, VmTimeSeries series, int index) {
+            this.vmId = vmId;
+            this.series = series;
+            this.index = index;
+        }
+    }
+
+    private static final List<ColumnDef<SeriesPoint>> SERIES_COLUMNS = List.of(
+            ColumnDef.int64("vmId", p -> p.vmId),
+            ColumnDef.float64("time", p -> p.series.time[p.index]),
+            ColumnDef.float32("cpuPercent", p -> p.series.cpuPercent[p.index]),
+            ColumnDef.float32("peakCpuPercent", p -> p.series.peakCpuPercent[p.index]),
+            ColumnDef.float32("ramPercent", p -> p.series.ramPercent[p.index]),
+            ColumnDef.float32("peakRamPercent", p -> p.series.peakRamPercent[p.index])
+    );
+
+    public static class Column {
+        public String name;
+        public String dtype;
+        public String file;
+        public String dictionary;
+    }
+
+    public static class Table {
+        public long rows;
+        public List<Column> columns = new ArrayList<>();
+    }
+
+    public static class RunEntry {
+        public int runId;
+        public String workload;
+        public String policy;
+        // "run" for runs appended live, "import:<file>" for reports imported from output/results
+        public String source;
+        public String recordedAt;
+        public int totalTasks;
+        public int vmCount;
+        public double makespan;
+        public double simulationClock;
+        public double avgClusterCpuPercent;
+        public double avgClusterRamPercent;
+        public long taskRowOffset;
+        public long taskRowCount;
+        public long vmRowOffset;
+        public long vmRowCount;
+        public long seriesRowOffset;
+        public long seriesRowCount;
+        // Cost of the policy's decisions in this run; absent for runs recorded without it
+        public DecisionLatency decisionLatency;
+        // Miss rate and lateness of the tasks with a deadline; absent for workloads without deadlines
+        public DeadlineStats deadlines;
+    }
+
+    public static class Index {
+        public int version = FORMAT_VERSION;
+        public Map<String, Table> tables = new LinkedHashMap<>();
+        public Map<String, List<String>> dictionaries = new LinkedHashMap<>();
+        public List<RunEntry> runs = new ArrayList<>();
+    }
+
+    private final Path directory;
+    private final Index index;
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+
+    private ResultsStore(Path directory, Index index) {
+        this.directory = directory;
+        this.index = index;
+    }
+
+    /**
+     * Opens the store in the given directory, creating it if it does not exist yet.
+     */
+    public static ResultsStore open(Path directory) throws IOException {
+        Files.createDirectories(directory.resolve(TASKS_TABLE));
+        Files.createDirectories(directory.resolve(VMS_TABLE));
+        Files.createDirectories(directory.resolve(SERIES_TABLE));
+
+        Path indexPath = directory.resolve(INDEX_FILE);
+        Index index;
+        if (Files.exists(indexPath)) {
+            try (Reader reader = Files.newBufferedReader(indexPath)) {
+                index = new Gson().fromJson(reader, Index.class);
+            }
+            if (index == null || index.version != FORMAT_VERSION) {
+                throw new IOException("Unsupported results store format in " + indexPath);
+            }
+        } else {
+            index = new Index();
+            index.tables.put(TASKS_TABLE, describe(TASKS_TABLE, TASK_COLUMNS));
+            index.tables.put(VMS_TABLE, describe(VMS_TABLE, VM_COLUMNS));
+            index.dictionaries.put(STATUS_DICTIONARY, new ArrayList<>());
+        }
+        // Stores created before time series were recorded have no series table yet
+        index.tables.computeIfAbsent(SERIES_TABLE, name -> describe(name, SERIES_COLUMNS));
+
+        ResultsStore store = new ResultsStore(directory, index);
+        // Nor lateness for the tasks they already hold
+        if (store.addMissingColumns(TASKS_TABLE, TASK_COLUMNS)) {
+            store.writeIndex();
+        }
+        store.truncateUnindexedRows(TASKS_TABLE, TASK_COLUMNS);
+        store.truncateUnindexedRows(VMS_TABLE, VM_COLUMNS);
+        store.truncateUnindexedRows(SERIES_TABLE, SERIES_COLUMNS);
+        return store;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized List<RunEntry> getRuns() {
+        return List.copyOf(index.runs);
+    }
+
+    public synchronized boolean containsSource(String source) {
+        return index.runs.stream().anyMatch(r -> source.equals(r.source));
+    }
+
+    /**
+     * Sink that appends every finished run to this store.
+     */
+    public ReportSink asReportSink() {
+        return this::append;
+    }
+
+    public RunEntry append(TaskCompletionReport taskReport, MachineUtilizationReport machineReport)
+            throws IOException {
+        return append(TaskUtils.INSTANCE.workloadName(taskReport.workloadFile), "run", taskReport, machineReport);
+    }
+
+    public synchronized RunEntry append(String workload, String source, TaskCompletionReport taskReport,
+                                        MachineUtilizationReport machineReport) throws IOException {
+        Table tasks = index.tables.get(TASKS_TABLE);
+        Table vms = index.tables.get(VMS_TABLE);
+        Table series = index.tables.get(SERIES_TABLE);
+
+        List<SeriesPoint> points = new ArrayList<>();
+        for (VmStats vm : machineReport.vms) {
+            if (vm.timeSeries != null) {
+                for (int i = 0; i < vm.timeSeries.size(); i++) {
+                    points.add(new SeriesPoint(vm.vmId, vm.timeSeries, i));
+                }
+            }
+        }
+
+        RunEntry run = new RunEntry();
+        run.runId = index.runs.isEmpty() ? 0 : index.runs.get(index.runs.size() - 1).runId + 1;
+        run.workload = workload;
+        run.policy = taskReport.policy;
+        run.source = source;
+        run.recordedAt = Instant.now().toString();
+        run.totalTasks = taskReport.totalTasks;
+        run.vmCount = machineReport.vmCount;
+        run.makespan = taskReport.makespan;
+        run.simulationClock = taskReport.simulationClock;
+        run.avgClusterCpuPercent = machineReport.avgClusterCpuPercent;
+        run.avgClusterRamPercent = machineReport.avgClusterRamPercent;
+        run.decisionLatency = machineReport.decisionLatency;
+        run.deadlines = taskReport.deadlines;
+        run.taskRowOffset = tasks.rows;
+        run.taskRowCount = taskReport.tasks.size();
+        run.vmRowOffset = vms.rows;
+        run.vmRowCount = machineReport.vms.size();
+        run.seriesRowOffset = series.rows;
+        run.seriesRowCount = points.size();
+
+        try {
+            appendRows(TASKS_TABLE, TASK_COLUMNS, taskReport.tasks);
+            appendRows(VMS_TABLE, VM_COLUMNS, machineReport.vms);
+            appendRows(SERIES_TABLE, SERIES_COLUMNS, points);
+        } catch (IOException | RuntimeException e) {
+            // Drop the partial rows so the next append starts at the indexed row count again
+            truncateUnindexedRows(TASKS_TABLE, TASK_COLUMNS);
+            truncateUnindexedRows(VMS_TABLE, VM_COLUMNS);
+            truncateUnindexedRows(SERIES_TABLE, SERIES_COLUMNS);
+            throw e;
+        }
+
+        tasks.rows += run.taskRowCount;
+        vms.rows += run.vmRowCount;
+        series.rows += run.seriesRowCount;
+        index.runs.add(run);
+        writeIndex();
+        return run;
+    }
+
+    private <T> void appendRows(String table, List<ColumnDef<T>> columns, List<T> rows) throws IOException {
+        for (ColumnDef<T> column : columns) {
+            ByteBuffer buffer = ByteBuffer.allocate(rows.size() * column.width).order(ByteOrder.LITTLE_ENDIAN);
+            for (T row : rows) {
+                column.put(buffer, row, this);
+            }
+            buffer.flip();
+
+            try (FileChannel channel = FileChannel.open(columnPath(table, column.name),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+    }
+
+    private int encode(String dictionaryName, String value) {
+        List<String> dictionary = index.dictionaries.computeIfAbsent(dictionaryName, k -> new ArrayList<>());
+        int code = dictionary.indexOf(value);
+        if (code < 0) {
+            if (dictionary.size() > 0xFF) {
+                throw new IllegalStateException("Dictionary " + dictionaryName + " exceeds 256 values");
+            }
+            dictionary.add(value);
+            code = dictionary.size() - 1;
+        }
+        return code;
+    }
+
+    private void writeIndex() throws IOException {
+        Path indexPath = directory.resolve(INDEX_FILE);
+        Path tmp = directory.resolve(INDEX_FILE + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp)) {
+            gson.toJson(index, writer);
+        }
+        Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds the columns a store created by an earlier version lacks, filled with the missing value (NaN for
+     * floats) for the rows it already has.
+     *
+     * @return whether any column was added
+     */
+    private <T> boolean addMissingColumns(String tableName, List<ColumnDef<T>> columns) throws IOException {
+        Table table = index.tables.get(tableName);
+        Set<String> present = new HashSet<>();
+        table.columns.forEach(c -> present.add(c.name));
+
+        boolean added = false;
+        for (ColumnDef<T> def : columns) {
+            if (present.contains(def.name)) {
+                continue;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(table.rows * def.width))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                def.putMissing(buffer);
+            }
+            buffer.flip();
+            try (FileChannel channel = FileChannel.open(columnPath(tableName, def.name),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            table.columns.add(describe(tableName, def));
+            added = true;
+        }
+        return added;
+    }
+
+    private <T> void truncateUnindexedRows(String table, List<ColumnDef<T>> columns) throws IOException {
+        long rows = index.tables.get(table).rows;
+        for (ColumnDef<T> column : columns) {
+            Path path = columnPath(table, column.name);
+            long expected = rows * column.width;
+            long actual = Files.exists(path) ? Files.size(path) : 0;
+            if (actual < expected) {
+                throw new IOException("Column " + path + " is shorter than the index says ("
+                        + actual + " < " + expected + " bytes)");
+            }
+            if (actual > expected) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(expected);
+                }
+            }
+        }
+    }
+
+    private Path columnPath(String table, String column) {
+        return directory.resolve(table).resolve(column + ".bin");
+    }
+
+    private static <T> Table describe(String tableName, List<ColumnDef<T>> columns) {
+        Table table = new Table();
+        for (ColumnDef<T> def : columns) {
+            table.columns.add(describe(tableName, def));
+        }
+        return table;
+    }
+
+    private static Column describe(String tableName, ColumnDef<?> def) {
+        Column column = new Column();
+        column.name = def.name;
+        column.dtype = def.dtype;
+        column.file = tableName + "/" + def.name + ".bin";
+        column.dictionary = def.dictionary;
+        return column;
+    }
+
+    private abstract static class ColumnDef<T> {
+        final String name;
+        final String dtype;
+        final int width;
+        final String dictionary;
+
+        ColumnDef(String name, String dtype, int width, String dictionary) {
+            this.name = name;
+            this.dtype = dtype;
+            this.width = width;
+            this.dictionary = dictionary;
+        }
+
+        abstract void put(ByteBuffer buffer, T row, ResultsStore store);
+
+        // Value of a row that predates the column: zero, or NaN for floats
+        void putMissing(ByteBuffer buffer) {
+            buffer.position(buffer.position() + width);
+        }
+
+        static <T> ColumnDef<T> int64(String name, ToLongFunction<T> getter) {
+            return new ColumnDef<>(name, "<i8", Long.BYTES, null) {
+                @Override
+                void put(ByteBuffer buffer, T row, ResultsStore store) {
+                    buffer.putLong(getter.applyAsLong(row));
+                }
+            };
+        }
+
+        static <T> ColumnDef<T> int32(String name, ToLongFunction<T> getter) {
+            return new ColumnDef<>(name, "<i4", Integer.BYTES, null) {
+                @Override
+                void put(ByteBuffer buffer, T row, ResultsStore store) {
+                    buffer.putInt(Math.toIntExact(getter.applyAsLong(row)));
+                }
+            };
+        }
+
+        static <T> ColumnDef<T> float64(String name, ToDoubleFunction<T> getter) {
+            return new ColumnDef<>(name, "<f8", Double.BYTES, null) {
+                @Override
+                void put(ByteBuffer buffer, T row, ResultsStore store) {
+                    buffer.putDouble(getter.applyAsDouble(row));
+                }
+
+                @Override
+                void putMissing(ByteBuffer buffer) {
+                    buffer.putDouble(Double.NaN);
+                }
+            };
+        }
+
+        static <T> ColumnDef<T> float32(String name, ToDoubleFunction<T> getter) {
+            return new ColumnDef<>(name, "<f4", Float.BYTES, null) {
+                @Override
+                void put(ByteBuffer buffer, T row, ResultsStore store) {
+                    buffer.putFloat((float) getter.applyAsDouble(row));
+                }
+
+                @Override
+                void putMissing(ByteBuffer buffer) {
+                    buffer.putFloat(Float.NaN);
+                }
+            };
+        }
+
+        static <T> ColumnDef<T> dictionary(String name, String dictionary, Function<T, String> getter) {
+            return new ColumnDef<>(name, "|u1", Byte.BYTES, dictionary) {
+                @Override
+                void put(ByteBuffer buffer, T row, ResultsStore store) {
+                    buffer.put((byte) store.encode(dictionary, getter.apply(row)));
+                }
+            };
+        }
+    }
+}
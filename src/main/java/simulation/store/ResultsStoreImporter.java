@@ -0,0 +1,86 @@
+package simulation.store;
+
+import com.google.gson.Gson;
+import simulation.ResultsWriter;
+import simulation.WorkloadSimulationRunner.MachineUtilizationReport;
+import simulation.WorkloadSimulationRunner.TaskCompletionReport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports the per-run JSON reports in output/results into the results store. It is meant for reports written
+ * before the store existed: BatchSimulationRunner appends its runs to the store as they finish, so importing
+ * their report files as well would store those runs twice.
+ *
+ * Usage: {@code ResultsStoreImporter [resultsDir] [storeDir]}
+ *
+ * The workload name is taken from the file name, so renamed reports (e.g. old_tasks_...) keep their
+ * own identity. Files already imported are skipped, so running the importer again adds nothing.
+ */
+public class ResultsStoreImporter {
+
+    private static final String TASK_SUFFIX = "_task_stats.json";
+    private static final String MACHINE_SUFFIX = "_machine_stats.json";
+
+    public static void main(String[] args) throws IOException {
+        Path resultsDir = args.length > 0 ? Path.of(args[0]) : ResultsWriter.OUTPUT_DIR;
+        Path storeDir = args.length > 1 ? Path.of(args[1]) : ResultsStore.DEFAULT_DIR;
+
+        ResultsStore store = ResultsStore.open(storeDir);
+        Gson gson = new Gson();
+
+        List<Path> taskFiles;
+        try (Stream<Path> paths = Files.list(resultsDir)) {
+            taskFiles = paths
+                    .filter(p -> p.getFileName().toString().endsWith(TASK_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        int imported = 0;
+        int skipped = 0;
+        for (Path taskFile : taskFiles) {
+            String fileName = taskFile.getFileName().toString();
+            String source = "import:" + fileName;
+            if (store.containsSource(source)) {
+                skipped++;
+                continue;
+            }
+
+            Path machineFile = taskFile.resolveSibling(
+                    fileName.substring(0, fileName.length() - TASK_SUFFIX.length()) + MACHINE_SUFFIX);
+            if (!Files.exists(machineFile)) {
+                System.err.println("Skipping " + fileName + ": no matching " + machineFile.getFileName());
+                continue;
+            }
+
+            TaskCompletionReport taskReport = read(gson, taskFile, TaskCompletionReport.class);
+            MachineUtilizationReport machineReport = read(gson, machineFile, MachineUtilizationReport.class);
+
+            String policySuffix = "_" + taskReport.policy + TASK_SUFFIX;
+            if (!fileName.endsWith(policySuffix)) {
+                System.err.println("Skipping " + fileName + ": policy " + taskReport.policy + " not in file name");
+                continue;
+            }
+            String workload = fileName.substring(0, fileName.length() - policySuffix.length());
+
+            store.append(workload, source, taskReport, machineReport);
+            imported++;
+        }
+
+        System.out.printf("Imported %d runs (%d already in store) into %s%n", imported, skipped, storeDir);
+        System.out.printf("Store now holds %d runs%n", store.getRuns().size());
+    }
+
+    private static <T> T read(Gson gson, Path path, Class<T> type) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path)) {
+            return gson.fromJson(reader, type);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package simulation.sweep;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Best (lowest) makespan found so far, shared by every worker of a sweep.
+ * Reads are a single volatile load, so runs can poll it on every clock tick.
+ */
+public class Incumbent implements DoubleSupplier {
+
+    private final AtomicLong bits = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+
+    @Override
+    public double getAsDouble() {
+        return Double.longBitsToDouble(bits.get());
+    }
+
+    /**
+     * Records a completed run's makespan; returns true if it became the new incumbent.
+     */
+    public boolean offer(double makespan) {
+        while (true) {
+            long current = bits.get();
+            if (makespan >= Double.longBitsToDouble(current)) {
+                return false;
+            }
+            if (bits.compareAndSet(current, Double.doubleToLongBits(makespan))) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package simulation.sweep;
+
+import simulation.MetricLevel;
+import simulation.WorkloadSimulationRunner;
+import simulation.WorkloadSimulationRunner.RunSummary;
+import simulation.algorithms.CloudletVmSelectionPolicy;
+import simulation.algorithms.WeightedResourcePolicy;
+import simulation.topology.TopologyConfig;
+import task.model.CloudletInfo;
+import task.utils.TaskUtils;
+import task.utils.UtilizationModelCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs one workload under many configurations (policy weights, topologies) and reports the best makespan.
+ *
+ * With pruning enabled, workers share an {@link Incumbent} and every run stops as soon as it provably cannot
+ * come within the margin of it (see {@link WorkloadSimulationRunner#setEarlyTermination}), so most of the
+ * compute goes to competitive configurations. Configurations are started in list order, so putting a
+ * known-good one first (e.g. the default weights) makes pruning effective from the start.
+ *
+ * Usage: {@code ParameterSweep [workload.json] [margin|off]}
+ */
+public class ParameterSweep {
+
+    private static final Path DEFAULT_WORKLOAD = Path.of("output/tasks/tasks_200_ram_heavy.json");
+    private static final double DEFAULT_MARGIN = 0.05;
+
+    private static final double[] CPU_WEIGHTS = {4, 1, 2, 8, 16};
+    private static final double[] RAM_WEIGHTS = {30, 0, 10, 90, 270};
+
+    public static class Configuration {
+        public final String label;
+        final Supplier<CloudletVmSelectionPolicy> policyFactory;
+        final TopologyConfig topology;
+
+        public Configuration(String label, Supplier<CloudletVmSelectionPolicy> policyFactory,
+                             TopologyConfig topology) {
+            this.label = label;
+            this.policyFactory = policyFactory;
+            this.topology = topology;
+        }
+    }
+
+    public static class Outcome {
+        public final String label;
+        public final boolean pruned;
+        // Actual makespan, or the lower bound that got the run pruned
+        public final double makespan;
+        public final double simulationClock;
+        public final long elapsedMs;
+
+        Outcome(String label, RunSummary summary) {
+            this.label = label;
+            this.pruned = summary.terminatedEarly;
+            this.makespan = summary.makespan;
+            this.simulationClock = summary.simulationClock;
+            this.elapsedMs = summary.elapsedMs;
+        }
+    }
+
+    private final String workloadName;
+    private final CloudletInfo[] workload;
+    private final int threads;
+    private final double margin;
+    private final boolean pruning;
+    private final Incumbent incumbent = new Incumbent();
+
+    /**
+     * @param margin relative slack over the incumbent before a run is pruned; negative disables pruning
+     */
+    public ParameterSweep(String workloadName, CloudletInfo[] workload, int threads, double margin) {
+        this.workloadName = workloadName;
+        this.workload = workload;
+        this.threads = threads;
+        this.margin = margin;
+        this.pruning = margin >= 0;
+    }
+
+    public Incumbent getIncumbent() {
+        return incumbent;
+    }
+
+    public List<Outcome> run(List<Configuration> configurations) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        UtilizationModelCache cache = new UtilizationModelCache();
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>(configurations.size());
+            for (Configuration config : configurations) {
+                futures.add(executor.submit(() -> runOne(config, cache)));
+            }
+
+            List<Outcome> outcomes = new ArrayList<>(futures.size());
+            for (Future<Outcome> future : futures) {
+                try {
+                    outcomes.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Sweep run failed", e.getCause());
+                }
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Outcome runOne(Configuration config, UtilizationModelCache cache) throws IOException {
+        // Only the makespan matters here, so skip utilization metrics
+        WorkloadSimulationRunner runner = new WorkloadSimulationRunner(config.policyFactory.get(), config.topology)
+                .setMetricLevel(MetricLevel.OFF)
+                .setWriteResults(false);
+        if (pruning) {
+            runner.setEarlyTermination(incumbent, margin);
+        }
+
+        RunSummary summary = runner.run(workloadName, TaskUtils.INSTANCE.toCloudlets(workload, cache), false);
+        if (!summary.terminatedEarly) {
+            incumbent.offer(summary.makespan);
+        }
+        return new Outcome(config.label, summary);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        org.cloudsimplus.util.Log.setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        Path workloadFile = args.length > 0 ? Path.of(args[0]) : DEFAULT_WORKLOAD;
+        double margin = args.length > 1
+                ? (args[1].equals("off") ? -1 : Double.parseDouble(args[1]))
+                : DEFAULT_MARGIN;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        TopologyConfig topology = TopologyConfig.load(TopologyConfig.DEFAULT_TOPOLOGY_FILE);
+
+        // Weight sweep of the weighted-resource score; the default weights come first
+        List<Configuration> configurations = new ArrayList<>();
+        for (double cpuWeight : CPU_WEIGHTS) {
+            for (double ramWeight : RAM_WEIGHTS) {
+                configurations.add(new Configuration(
+                        String.format(Locale.US, "cpu=%.0f ram=%.0f", cpuWeight, ramWeight),
+                        () -> new WeightedResourcePolicy(cpuWeight, ramWeight),
+                        topology));
+            }
+        }
+
+        CloudletInfo[] workload = TaskUtils.INSTANCE.loadCloudletInfos(workloadFile);
+
+        System.out.println("=".repeat(80));
+        System.out.println("PARAMETER SWEEP");
+        System.out.println("=".repeat(80));
+        System.out.printf("Workload: %s (%d tasks)%n", workloadFile, workload.length);
+        System.out.printf("Configurations: %d on %d threads%n", configurations.size(), threads);
+        System.out.println(margin >= 0
+                ? String.format(Locale.US, "Pruning: runs stop once %.0f%% worse than the incumbent", margin * 100)
+                : "Pruning: off");
+        System.out.println("=".repeat(80));
+
+        long start = System.currentTimeMillis();
+        ParameterSweep sweep = new ParameterSweep(workloadFile.getFileName().toString(), workload, threads, margin);
+        List<Outcome> outcomes = sweep.run(configurations);
+        long wallMs = System.currentTimeMillis() - start;
+
+        outcomes.sort(Comparator.comparing((Outcome o) -> o.pruned).thenComparingDouble(o -> o.makespan));
+
+        System.out.printf("%-20s %14s %14s %10s %8s%n", "Configuration", "Makespan", "Stopped at", "Time (ms)", "Status");
+        System.out.println("-".repeat(80));
+        for (Outcome o : outcomes) {
+            System.out.printf(Locale.US, "%-20s %s%13.2f %14.2f %10d %8s%n",
+                    o.label, o.pruned ? ">" : " ", o.makespan, o.simulationClock, o.elapsedMs,
+                    o.pruned ? "PRUNED" : "OK");
+        }
+        System.out.println("-".repeat(80));
+
+        long pruned = outcomes.stream().filter(o -> o.pruned).count();
+        long computeMs = outcomes.stream().mapToLong(o -> o.elapsedMs).sum();
+        System.out.printf(Locale.US, "Best makespan: %.2f%n", sweep.getIncumbent().getAsDouble());
+        System.out.printf("Pruned runs: %d of %d%n", pruned, outcomes.size());
+        System.out.printf("Compute: %d ms across runs, %d ms wall-clock%n", computeMs, wallMs);
+    }
+}
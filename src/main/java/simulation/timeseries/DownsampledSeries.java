@@ -0,0 +1,222 @@
+package simulation.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * CPU and RAM utilization of one VM over time, downsampled on the fly to a bounded number of points.
+ *
+ * Samples fall into fixed-width time buckets aligned to t = 0, each keeping count, mean and peak. When a sample
+ * lands beyond the last bucket, the bucket width doubles and neighbouring buckets merge, so memory stays at
+ * {@code 2 * targetPoints} buckets whatever the run length. {@link #toPoints} then reduces the occupied buckets
+ * to at most targetPoints, either by merging neighbours ({@link Method#BUCKET_MEAN}) or by picking the buckets
+ * that best preserve the curve's shape ({@link Method#LTTB}, Largest-Triangle-Three-Buckets over CPU + RAM).
+ */
+public class DownsampledSeries {
+
+    public enum Method {
+        BUCKET_MEAN,
+        LTTB
+    }
+
+    /**
+     * Downsampled result; utilizations are fractions of the VM's capacity.
+     */
+    public static class Points {
+        public final double[] time;
+        public final double[] cpuMean;
+        public final double[] cpuPeak;
+        public final double[] ramMean;
+        public final double[] ramPeak;
+
+        Points(int size) {
+            time = new double[size];
+            cpuMean = new double[size];
+            cpuPeak = new double[size];
+            ramMean = new double[size];
+            ramPeak = new double[size];
+        }
+
+        public int size() {
+            return time.length;
+        }
+    }
+
+    private static final double INITIAL_BUCKET_WIDTH = 1.0;
+
+    private final int targetPoints;
+    private final int capacity;
+    private double bucketWidth = INITIAL_BUCKET_WIDTH;
+
+    private final int[] count;
+    private final double[] timeSum;
+    private final double[] cpuSum;
+    private final double[] cpuPeak;
+    private final double[] ramSum;
+    private final double[] ramPeak;
+    private int sampleCount;
+
+    public DownsampledSeries(int targetPoints) {
+        if (targetPoints < 3) {
+            throw new IllegalArgumentException("A time series needs at least 3 points: " + targetPoints);
+        }
+        this.targetPoints = targetPoints;
+        this.capacity = 2 * targetPoints;
+        this.count = new int[capacity];
+        this.timeSum = new double[capacity];
+        this.cpuSum = new double[capacity];
+        this.cpuPeak = new double[capacity];
+        this.ramSum = new double[capacity];
+        this.ramPeak = new double[capacity];
+    }
+
+    public void add(double time, double cpu, double ram) {
+        long bucket = (long) (time / bucketWidth);
+        while (bucket >= capacity) {
+            halveResolution();
+            bucket = (long) (time / bucketWidth);
+        }
+
+        int b = (int) bucket;
+        count[b]++;
+        timeSum[b] += time;
+        cpuSum[b] += cpu;
+        ramSum[b] += ram;
+        cpuPeak[b] = Math.max(cpuPeak[b], cpu);
+        ramPeak[b] = Math.max(ramPeak[b], ram);
+        sampleCount++;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    private void halveResolution() {
+        for (int target = 0; target < capacity / 2; target++) {
+            int a = 2 * target;
+            int b = a + 1;
+            count[target] = count[a] + count[b];
+            timeSum[target] = timeSum[a] + timeSum[b];
+            cpuSum[target] = cpuSum[a] + cpuSum[b];
+            ramSum[target] = ramSum[a] + ramSum[b];
+            cpuPeak[target] = Math.max(cpuPeak[a], cpuPeak[b]);
+            ramPeak[target] = Math.max(ramPeak[a], ramPeak[b]);
+        }
+        for (int i = capacity / 2; i < capacity; i++) {
+            count[i] = 0;
+            timeSum[i] = cpuSum[i] = ramSum[i] = cpuPeak[i] = ramPeak[i] = 0;
+        }
+        bucketWidth *= 2;
+    }
+
+    public Points toPoints(Method method) {
+        int[] occupied = new int[capacity];
+        int n = 0;
+        for (int b = 0; b < capacity; b++) {
+            if (count[b] > 0) {
+                occupied[n++] = b;
+            }
+        }
+        occupied = Arrays.copyOf(occupied, n);
+
+        if (n <= targetPoints) {
+            return merge(occupied, n);
+        }
+        if (method == Method.LTTB) {
+            return select(occupied, largestTriangleThreeBuckets(occupied));
+        }
+        return merge(occupied, targetPoints);
+    }
+
+    /**
+     * Splits the occupied buckets into n runs of (nearly) equal length and merges each run into one point
+     * (count-weighted means, max of peaks).
+     */
+    private Points merge(int[] occupied, int n) {
+        Points points = new Points(n);
+        for (int p = 0; p < n; p++) {
+            int samples = 0;
+            double t = 0, cpu = 0, ram = 0, cpuMax = 0, ramMax = 0;
+            int from = (int) ((long) p * occupied.length / n);
+            int to = (int) ((long) (p + 1) * occupied.length / n);
+            for (int i = from; i < to; i++) {
+                int b = occupied[i];
+                samples += count[b];
+                t += timeSum[b];
+                cpu += cpuSum[b];
+                ram += ramSum[b];
+                cpuMax = Math.max(cpuMax, cpuPeak[b]);
+                ramMax = Math.max(ramMax, ramPeak[b]);
+            }
+            points.time[p] = t / samples;
+            points.cpuMean[p] = cpu / samples;
+            points.ramMean[p] = ram / samples;
+            points.cpuPeak[p] = cpuMax;
+            points.ramPeak[p] = ramMax;
+        }
+        return points;
+    }
+
+    private Points select(int[] occupied, int[] selected) {
+        Points points = new Points(selected.length);
+        for (int p = 0; p < selected.length; p++) {
+            int b = occupied[selected[p]];
+            points.time[p] = timeSum[b] / count[b];
+            points.cpuMean[p] = cpuSum[b] / count[b];
+            points.ramMean[p] = ramSum[b] / count[b];
+            points.cpuPeak[p] = cpuPeak[b];
+            points.ramPeak[p] = ramPeak[b];
+        }
+        return points;
+    }
+
+    /**
+     * Indices (into occupied) of the targetPoints buckets chosen by LTTB on (time, cpu mean + ram mean).
+     * The first and last buckets are always kept.
+     */
+    private int[] largestTriangleThreeBuckets(int[] occupied) {
+        int n = occupied.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            int b = occupied[i];
+            x[i] = timeSum[b] / count[b];
+            y[i] = (cpuSum[b] + ramSum[b]) / count[b];
+        }
+
+        int[] selected = new int[targetPoints];
+        selected[0] = 0;
+        selected[targetPoints - 1] = n - 1;
+
+        double every = (double) (n - 2) / (targetPoints - 2);
+        int previous = 0;
+        for (int p = 0; p < targetPoints - 2; p++) {
+            // Average of the next range is the third vertex of the triangle
+            int nextStart = (int) Math.floor((p + 1) * every) + 1;
+            int nextEnd = Math.min(n, (int) Math.floor((p + 2) * every) + 1);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            avgX /= nextEnd - nextStart;
+            avgY /= nextEnd - nextStart;
+
+            int rangeStart = (int) Math.floor(p * every) + 1;
+            int rangeEnd = (int) Math.floor((p + 1) * every) + 1;
+            double maxArea = -1;
+            int chosen = rangeStart;
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double area = Math.abs((x[previous] - avgX) * (y[i] - y[previous])
+                        - (x[previous] - x[i]) * (avgY - y[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            selected[p + 1] = chosen;
+            previous = chosen;
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,41 @@
+package simulation.topology;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletExecution;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared;
+import task.model.DeadlineCloudlet;
+
+import java.util.Optional;
+
+/**
+ * Space-shared cloudlet scheduler that starts waiting cloudlets in order of urgency instead of arrival:
+ * earliest due time first, then highest priority (see {@link DeadlineCloudlet#compareUrgency}), then arrival.
+ *
+ * Whenever PEs free up, CloudSim Plus asks for the next waiting cloudlet that fits them; this scheduler
+ * answers with the most urgent one rather than the first in the queue. That matters for workloads that
+ * arrive over time, whose queues policies cannot order up front. Cloudlets without a deadline or priority
+ * tie, so on such workloads it runs cloudlets exactly like CloudletSchedulerSpaceShared. Finding the next
+ * cloudlet scans the VM's queue, as the FIFO scheduler's does when the head of the queue does not fit.
+ */
+public class EdfCloudletScheduler extends CloudletSchedulerSpaceShared {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected Optional<CloudletExecution> findSuitableWaitingCloudlet() {
+        CloudletExecution best = null;
+        for (CloudletExecution candidate : getCloudletWaitingList()) {
+            Cloudlet cloudlet = candidate.getCloudlet();
+            // Same checks as the FIFO scheduler: not frozen, and enough free PEs
+            if (cloudlet.getStatus().ordinal() >= Cloudlet.Status.FROZEN.ordinal()
+                    || !canExecuteCloudletInternal(candidate)) {
+                continue;
+            }
+            // Strictly more urgent, so ties keep arrival order
+            if (best == null || DeadlineCloudlet.compareUrgency(cloudlet, best.getCloudlet()) < 0) {
+                best = candidate;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+}
@@ -0,0 +1,240 @@
+package simulation.topology;
+
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyAbstract;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSuitability;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * VM placement backed by an index of host free capacity, so finding a host does not scan the host list
+ * (CloudSim Plus' own best-fit policy sorts every host for every VM).
+ *
+ * Hosts are grouped by PE count. Within a group they are bucketed by available MIPS, which is what both VM
+ * schedulers check (under time sharing a host takes VM PEs beyond its free PE count while their total MIPS
+ * fit), and each bucket is a sorted set of (free RAM, host index). A query takes the first bucket of each
+ * group, walking up from the VM's MIPS (or down from the top), that holds a host with enough RAM:
+ * O(G * B * log H) for G groups, B distinct available-MIPS values and H hosts, where G and B are set by the
+ * host and VM classes, not by the fleet size. Index entries are refreshed whenever this policy
+ * allocates or deallocates a VM.
+ *
+ * Modes:
+ * 1. BEST_FIT: the host with the least available MIPS that fits the VM, then the least free RAM (tightest fit)
+ * 2. WORST_FIT: the host with the most available MIPS, then the most free RAM (spreads VMs out)
+ * 3. BIN_PACKING: best fit among the hosts that already run VMs; an empty host is only opened when none of
+ *    them fits, and then the smallest empty host that fits. Minimises the hosts in use, also in mixed fleets,
+ *    where best fit may prefer a small empty host over the leftover of a large one.
+ *
+ * Ties go to the lower host index (higher for WORST_FIT). The index covers CPU and RAM; a candidate is still
+ * checked with {@link Host#isSuitableForVm}, which also covers bandwidth, storage and failed hosts; the walk
+ * skips hosts that do not pass.
+ */
+public class IndexedVmAllocationPolicy extends VmAllocationPolicyAbstract {
+
+    public enum Mode {
+        BEST_FIT,
+        WORST_FIT,
+        BIN_PACKING
+    }
+
+    // Host index in the low bits of a RAM key, free RAM (MB) above it
+    private static final int HOST_BITS = 24;
+    private static final long HOST_MASK = (1L << HOST_BITS) - 1;
+
+    /**
+     * Hosts of one PE count, bucketed by available MIPS.
+     */
+    private static final class Shape {
+        final long pes;
+        final NavigableMap<Double, NavigableSet<Long>> active = new TreeMap<>();
+        // Only used by BIN_PACKING
+        final NavigableMap<Double, NavigableSet<Long>> empty = new TreeMap<>();
+
+        Shape(long pes) {
+            this.pes = pes;
+        }
+    }
+
+    private final Mode mode;
+
+    private List<Host> hosts;
+    private Map<Host, Integer> hostIndex;
+    private Shape[] shapes;
+    // Per host: its PE count group, and the bucket and RAM key it is indexed under
+    private int[] shapeOf;
+    private double[] indexedMips;
+    private long[] indexedKey;
+    private boolean[] indexedEmpty;
+
+    public IndexedVmAllocationPolicy(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    protected Optional<Host> defaultFindHostForVm(Vm vm) {
+        if (hosts == null) {
+            initialise();
+        }
+
+        int host = find(vm, false);
+        if (host < 0 && mode == Mode.BIN_PACKING) {
+            host = find(vm, true);
+        }
+        return host < 0 ? Optional.empty() : Optional.of(hosts.get(host));
+    }
+
+    @Override
+    public HostSuitability allocateHostForVm(Vm vm, Host host) {
+        HostSuitability suitability = super.allocateHostForVm(vm, host);
+        if (hosts != null) {
+            reindex(host);
+        }
+        return suitability;
+    }
+
+    @Override
+    public void deallocateHostForVm(Vm vm) {
+        Host host = vm.getHost();
+        super.deallocateHostForVm(vm);
+        if (hosts != null && host != null && host != Host.NULL) {
+            reindex(host);
+        }
+    }
+
+    /**
+     * Best host over all shapes, or -1.
+     */
+    private int find(Vm vm, boolean emptyHosts) {
+        double mips = vm.getTotalMipsCapacity();
+        long ram = vm.getRam().getCapacity();
+
+        int best = -1;
+        double bestMips = 0;
+        long bestKey = 0;
+        for (Shape shape : shapes) {
+            if (shape.pes < vm.getPesNumber()) {
+                continue;
+            }
+            NavigableMap<Double, NavigableSet<Long>> buckets = emptyHosts ? shape.empty : shape.active;
+            NavigableMap<Double, NavigableSet<Long>> walk = mode == Mode.WORST_FIT
+                    ? buckets.tailMap(mips, true).descendingMap()
+                    : buckets.tailMap(mips, true);
+
+            for (Map.Entry<Double, NavigableSet<Long>> bucket : walk.entrySet()) {
+                long key = mode == Mode.WORST_FIT
+                        ? worstIn(bucket.getValue(), vm, ram)
+                        : bestIn(bucket.getValue(), vm, ram);
+                if (key < 0) {
+                    continue;
+                }
+                double candidateMips = bucket.getKey();
+                boolean better = best < 0 || (mode == Mode.WORST_FIT
+                        ? candidateMips > bestMips || (candidateMips == bestMips && key > bestKey)
+                        : candidateMips < bestMips || (candidateMips == bestMips && key < bestKey));
+                if (better) {
+                    best = (int) (key & HOST_MASK);
+                    bestMips = candidateMips;
+                    bestKey = key;
+                }
+                break;
+            }
+        }
+        return best;
+    }
+
+    // Least free RAM that fits, as a RAM key, or -1
+    private long bestIn(NavigableSet<Long> bucket, Vm vm, long ram) {
+        Long key = bucket.ceiling(ram << HOST_BITS);
+        while (key != null) {
+            Host host = hosts.get((int) (key & HOST_MASK));
+            if (host.isSuitableForVm(vm)) {
+                return key;
+            }
+            key = bucket.higher(key);
+        }
+        return -1;
+    }
+
+    // Most free RAM, as a RAM key, or -1
+    private long worstIn(NavigableSet<Long> bucket, Vm vm, long ram) {
+        Long key = bucket.isEmpty() ? null : bucket.last();
+        while (key != null && (key >>> HOST_BITS) >= ram) {
+            Host host = hosts.get((int) (key & HOST_MASK));
+            if (host.isSuitableForVm(vm)) {
+                return key;
+            }
+            key = bucket.lower(key);
+        }
+        return -1;
+    }
+
+    private void initialise() {
+        hosts = new ArrayList<>(getHostList());
+        if (hosts.size() > HOST_MASK) {
+            throw new IllegalStateException("Too many hosts for the capacity index: " + hosts.size());
+        }
+        hostIndex = new IdentityHashMap<>(hosts.size() * 2);
+        shapeOf = new int[hosts.size()];
+        indexedMips = new double[hosts.size()];
+        indexedKey = new long[hosts.size()];
+        indexedEmpty = new boolean[hosts.size()];
+
+        Map<Long, Integer> shapeIds = new HashMap<>();
+        List<Shape> shapeList = new ArrayList<>();
+        for (int h = 0; h < hosts.size(); h++) {
+            Host host = hosts.get(h);
+            hostIndex.put(host, h);
+            Integer shape = shapeIds.get(host.getPesNumber());
+            if (shape == null) {
+                shape = shapeList.size();
+                shapeIds.put(host.getPesNumber(), shape);
+                shapeList.add(new Shape(host.getPesNumber()));
+            }
+            shapeOf[h] = shape;
+            indexedKey[h] = -1;
+        }
+        shapes = shapeList.toArray(new Shape[0]);
+
+        for (Host host : hosts) {
+            reindex(host);
+        }
+    }
+
+    private void reindex(Host host) {
+        Integer h = hostIndex.get(host);
+        if (h == null) {
+            return;
+        }
+        Shape shape = shapes[shapeOf[h]];
+        if (indexedKey[h] >= 0) {
+            NavigableMap<Double, NavigableSet<Long>> buckets = indexedEmpty[h] ? shape.empty : shape.active;
+            NavigableSet<Long> bucket = buckets.get(indexedMips[h]);
+            bucket.remove(indexedKey[h]);
+            if (bucket.isEmpty()) {
+                buckets.remove(indexedMips[h]);
+            }
+        }
+
+        double mips = host.getVmScheduler().getTotalAvailableMips();
+        long key = (host.getRam().getAvailableResource() << HOST_BITS) | h;
+        boolean isEmpty = mode == Mode.BIN_PACKING && host.getVmList().isEmpty();
+        (isEmpty ? shape.empty : shape.active).computeIfAbsent(mips, m -> new TreeSet<>()).add(key);
+        indexedMips[h] = mips;
+        indexedKey[h] = key;
+        indexedEmpty[h] = isEmpty;
+    }
+}
@@ -0,0 +1,50 @@
+package simulation.topology;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletExecution;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared;
+
+/**
+ * Space-shared cloudlet scheduler with a RAM admission check: a cloudlet only starts when, besides free PEs,
+ * the VM has room for its RAM next to the cloudlets already running. Committed RAM is the sum of the running
+ * cloudlets' RAM utilization (a fraction of the VM's RAM, as {@link simulation.VmRamTracker} reports it), so
+ * concurrent demand never exceeds the VM's RAM and CloudSim Plus never has to slow cloudlets down for it.
+ *
+ * Cloudlets that do not fit wait in the queue; like the PE check of CloudletSchedulerSpaceShared, the next
+ * waiting cloudlet to start is the first one that fits. A cloudlet asking for more than the whole VM starts
+ * once the VM is idle, so it cannot block the queue forever. Each check sums the running cloudlets, at most
+ * one per PE.
+ */
+public class RamAdmissionCloudletScheduler extends CloudletSchedulerSpaceShared {
+
+    private static final long serialVersionUID = 1L;
+
+    // Rounding slack, so cloudlets whose RAM adds up to exactly the VM's RAM are admitted
+    private static final double EPSILON = 1e-9;
+
+    @Override
+    protected boolean canExecuteCloudletInternal(CloudletExecution cle) {
+        if (!super.canExecuteCloudletInternal(cle)) {
+            return false;
+        }
+        return getCloudletExecList().isEmpty() || getCommittedRam() + ramDemand(cle.getCloudlet()) <= 1.0 + EPSILON;
+    }
+
+    /**
+     * RAM of the running cloudlets, as a fraction of the VM's RAM.
+     */
+    public double getCommittedRam() {
+        double committed = 0.0;
+        for (CloudletExecution running : getCloudletExecList()) {
+            committed += ramDemand(running.getCloudlet());
+        }
+        return committed;
+    }
+
+    /**
+     * The cloudlet's RAM utilization, a fraction of the VM's RAM (0 without a RAM utilization model).
+     */
+    public static double ramDemand(Cloudlet cloudlet) {
+        return cloudlet.getUtilizationModelRam() == null ? 0.0 : cloudlet.getUtilizationModelRam().getUtilization();
+    }
+}
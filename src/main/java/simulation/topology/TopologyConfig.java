@@ -0,0 +1,118 @@
+package simulation.topology;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes the datacenter fleet used by a simulation: a list of host classes and a list of VM classes,
+ * each with a count and per-instance capacities, plus the VM allocation policy used to place VMs on hosts.
+ *
+ * Loaded from a JSON topology file (see config/topology). Fields left out of the file keep the defaults below,
+ * which match the original hard-coded setup (4 hosts x 16 PEs, 8 VMs x 4 PEs).
+ */
+public class TopologyConfig {
+
+    public static final Path DEFAULT_TOPOLOGY_FILE = Path.of("config/topology/default.json");
+
+    public static class HostClass {
+        public String name = "host";
+        public int count = 1;
+        public int pes = 16;
+        public long mipsPerPe = 10_000;
+        public long ram = 64_000;          // MB
+        public long bw = 100_000;          // Mbps
+        public long storage = 1_000_000;   // MB
+        // timeShared | spaceShared
+        public String vmScheduler = "timeShared";
+    }
+
+    public static class VmClass {
+        public String name = "vm";
+        public int count = 1;
+        public int pes = 4;
+        public long mipsPerPe = 5_000;
+        public long ram = 16_000;   // MB
+        public long bw = 20_000;    // Mbps
+        public long size = 20_000;  // MB
+        // spaceShared | timeShared | spaceSharedEdf (EdfCloudletScheduler: waiting cloudlets start by deadline)
+        // | spaceSharedRamAdmission (RamAdmissionCloudletScheduler: cloudlets only start while their RAM fits)
+        public String cloudletScheduler = "spaceShared";
+    }
+
+    public String name = "default";
+    // simple | bestFit | firstFit | roundRobin (CloudSim Plus, scan the hosts)
+    // indexedBestFit | indexedWorstFit | binPacking (IndexedVmAllocationPolicy, indexed by free capacity)
+    public String vmAllocationPolicy = "simple";
+    public double schedulingInterval = 1.0;
+    public List<HostClass> hosts = new ArrayList<>();
+    public List<VmClass> vms = new ArrayList<>();
+
+    public static TopologyConfig load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path)) {
+            TopologyConfig config = new Gson().fromJson(reader, TopologyConfig.class);
+            if (config == null) {
+                throw new IOException("Empty topology file: " + path);
+            }
+            config.validate();
+            return config;
+        }
+    }
+
+    /**
+     * The fleet the runner used before topologies were configurable.
+     */
+    public static TopologyConfig defaultTopology() {
+        TopologyConfig config = new TopologyConfig();
+
+        HostClass host = new HostClass();
+        host.count = 4;
+        config.hosts.add(host);
+
+        VmClass vm = new VmClass();
+        vm.count = 8;
+        config.vms.add(vm);
+
+        return config;
+    }
+
+    public int getHostCount() {
+        int total = 0;
+        for (HostClass host : hosts) {
+            total += host.count;
+        }
+        return total;
+    }
+
+    public int getVmCount() {
+        int total = 0;
+        for (VmClass vm : vms) {
+            total += vm.count;
+        }
+        return total;
+    }
+
+    public void validate() {
+        if (hosts == null || hosts.isEmpty()) {
+            throw new IllegalArgumentException("Topology '" + name + "' defines no host classes");
+        }
+        if (vms == null || vms.isEmpty()) {
+            throw new IllegalArgumentException("Topology '" + name + "' defines no VM classes");
+        }
+        for (HostClass host : hosts) {
+            if (host.count <= 0 || host.pes <= 0 || host.mipsPerPe <= 0 || host.ram <= 0) {
+                throw new IllegalArgumentException("Invalid host class '" + host.name + "' in topology '" + name + "'");
+            }
+        }
+        for (VmClass vm : vms) {
+            if (vm.count <= 0 || vm.pes <= 0 || vm.mipsPerPe <= 0 || vm.ram <= 0) {
+                throw new IllegalArgumentException("Invalid VM class '" + vm.name + "' in topology '" + name + "'");
+            }
+        }
+    }
+}
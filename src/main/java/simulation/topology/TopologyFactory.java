@@ -0,0 +1,131 @@
+package simulation.topology;
+
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicy;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyBestFit;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyFirstFit;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyRoundRobin;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicySimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.datacenters.DatacenterSimple;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSimple;
+import org.cloudsimplus.resources.Pe;
+import org.cloudsimplus.resources.PeSimple;
+import org.cloudsimplus.schedulers.cloudlet.CloudletScheduler;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudsimplus.schedulers.vm.VmScheduler;
+import org.cloudsimplus.schedulers.vm.VmSchedulerSpaceShared;
+import org.cloudsimplus.schedulers.vm.VmSchedulerTimeShared;
+import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds CloudSim Plus hosts, datacenters and VMs from a {@link TopologyConfig}.
+ *
+ * Pe objects carry per-host allocation state in CloudSim Plus, so they cannot be shared between hosts.
+ * What is shared is the host class spec: every PE of a class is created from the same MIPS value,
+ * and all lists are pre-sized from the class counts so large fleets are built without re-allocation.
+ */
+public enum TopologyFactory {
+    INSTANCE;
+
+    public Datacenter createDatacenter(CloudSimPlus simulation, TopologyConfig topology) {
+        List<Host> hostList = new ArrayList<>(topology.getHostCount());
+
+        for (TopologyConfig.HostClass hostClass : topology.hosts) {
+            for (int i = 0; i < hostClass.count; i++) {
+                List<Pe> peList = new ArrayList<>(hostClass.pes);
+                for (int p = 0; p < hostClass.pes; p++) {
+                    peList.add(new PeSimple(hostClass.mipsPerPe));
+                }
+
+                HostSimple host = new HostSimple(hostClass.ram, hostClass.bw, hostClass.storage, peList);
+                host.setVmScheduler(createVmScheduler(hostClass.vmScheduler));
+                hostList.add(host);
+            }
+        }
+
+        DatacenterSimple datacenter = new DatacenterSimple(simulation, hostList,
+                createVmAllocationPolicy(topology.vmAllocationPolicy));
+        datacenter.setSchedulingInterval(topology.schedulingInterval);
+        return datacenter;
+    }
+
+    public List<Vm> createVms(TopologyConfig topology) {
+        return createVms(topology, true);
+    }
+
+    /**
+     * @param utilizationStats whether each VM keeps CPU utilization stats (costs one listener call per VM update)
+     */
+    public List<Vm> createVms(TopologyConfig topology, boolean utilizationStats) {
+        List<Vm> vmList = new ArrayList<>(topology.getVmCount());
+
+        long nextId = 0;
+        for (TopologyConfig.VmClass vmClass : topology.vms) {
+            for (int i = 0; i < vmClass.count; i++) {
+                Vm vm = new VmSimple(nextId++, vmClass.mipsPerPe, vmClass.pes);
+                vm.setRam(vmClass.ram).setBw(vmClass.bw).setSize(vmClass.size);
+                vm.setCloudletScheduler(createCloudletScheduler(vmClass.cloudletScheduler));
+                if (utilizationStats) {
+                    vm.enableUtilizationStats();
+                }
+
+                vmList.add(vm);
+            }
+        }
+        return vmList;
+    }
+
+    public VmAllocationPolicy createVmAllocationPolicy(String name) {
+        switch (name) {
+            case "simple":
+                return new VmAllocationPolicySimple();
+            case "bestFit":
+                return new VmAllocationPolicyBestFit();
+            case "firstFit":
+                return new VmAllocationPolicyFirstFit();
+            case "roundRobin":
+                return new VmAllocationPolicyRoundRobin();
+            case "indexedBestFit":
+                return new IndexedVmAllocationPolicy(IndexedVmAllocationPolicy.Mode.BEST_FIT);
+            case "indexedWorstFit":
+                return new IndexedVmAllocationPolicy(IndexedVmAllocationPolicy.Mode.WORST_FIT);
+            case "binPacking":
+                return new IndexedVmAllocationPolicy(IndexedVmAllocationPolicy.Mode.BIN_PACKING);
+            default:
+                throw new IllegalArgumentException("Unknown VM allocation policy: " + name);
+        }
+    }
+
+    public VmScheduler createVmScheduler(String name) {
+        switch (name) {
+            case "timeShared":
+                return new VmSchedulerTimeShared();
+            case "spaceShared":
+                return new VmSchedulerSpaceShared();
+            default:
+                throw new IllegalArgumentException("Unknown VM scheduler: " + name);
+        }
+    }
+
+    public CloudletScheduler createCloudletScheduler(String name) {
+        switch (name) {
+            case "spaceShared":
+                return new CloudletSchedulerSpaceShared();
+            case "timeShared":
+                return new CloudletSchedulerTimeShared();
+            case "spaceSharedEdf":
+                return new EdfCloudletScheduler();
+            case "spaceSharedRamAdmission":
+                return new RamAdmissionCloudletScheduler();
+            default:
+                throw new IllegalArgumentException("Unknown cloudlet scheduler: " + name);
+        }
+    }
+}
@@ -23,12 +23,12 @@ public class CreateTasks {
     };
 
     // Task generation parameters
-    private static final int PES_NUMBER = 1;
-    private static final long MIN_LENGTH = 500_000L;
-    private static final long MAX_LENGTH = 5_000_000L;
-    private static final long FILE_SIZE = 300L;
-    private static final long OUTPUT_SIZE = 300L;
-    private static final long RANDOM_SEED = 2507;
+    public static final int PES_NUMBER = 1;
+    public static final long MIN_LENGTH = 500_000L;
+    public static final long MAX_LENGTH = 5_000_000L;
+    public static final long FILE_SIZE = 300L;
+    public static final long OUTPUT_SIZE = 300L;
+    public static final long RANDOM_SEED = 2507;
 
     public static void main(String[] args) {
         try {
@@ -47,15 +47,7 @@ public class CreateTasks {
                         taskCount, workloadType.name().toLowerCase());
                 Path outputPath = OUTPUT_DIR.resolve(fileName);
 
-                List<Cloudlet> cloudletList = generator.createCloudlets(
-                        taskCount,
-                        workloadType,
-                        PES_NUMBER,
-                        MIN_LENGTH,
-                        MAX_LENGTH,
-                        FILE_SIZE,
-                        OUTPUT_SIZE
-                );
+                List<Cloudlet> cloudletList = createCloudlets(generator, taskCount, workloadType);
 
                 try {
                     TaskUtils.INSTANCE.dumpCloudletsToJson(cloudletList, workloadType, outputPath);
@@ -69,4 +61,20 @@ public class CreateTasks {
 
         System.out.printf("%nDone! Generated %d task files in %s%n", totalGenerated, OUTPUT_DIR);
     }
+
+    /**
+     * Generates one workload with the same task parameters as the files written by {@link #main}.
+     */
+    public static List<Cloudlet> createCloudlets(WorkloadGenerator generator, int taskCount,
+                                                 WorkloadType workloadType) {
+        return generator.createCloudlets(
+                taskCount,
+                workloadType,
+                PES_NUMBER,
+                MIN_LENGTH,
+                MAX_LENGTH,
+                FILE_SIZE,
+                OUTPUT_SIZE
+        );
+    }
 }
@@ -3,8 +3,10 @@ package task.generator;
 import org.cloudsimplus.cloudlets.Cloudlet;
 import org.cloudsimplus.cloudlets.CloudletSimple;
 import org.cloudsimplus.utilizationmodels.UtilizationModel;
-import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
+import task.model.CloudletInfo;
+import task.model.DeadlineCloudlet;
 import task.model.WorkloadType;
+import task.utils.UtilizationModelCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -52,10 +54,57 @@ public class WorkloadGenerator {
     private static final long LARGE_TASK_MIN_LENGTH = 500_000L;
     private static final long LARGE_TASK_MAX_LENGTH = 5_000_000L;
 
+    private static final int CPU = 0;
+    private static final int RAM = 1;
+    private static final int BW = 2;
+
     private final Random random;
+    // Deadlines and priorities are drawn from their own stream, so enabling them does not change the other
+    // attributes of the workload generated for a seed
+    private final Random slaRandom;
+    private final UtilizationModelCache modelCache;
+
+    // 0: no deadlines
+    private double deadlineReferenceMips;
+    private double minSlack;
+    private double maxSlack;
+    // Below 2: every task has priority 0
+    private int priorityLevels;
 
     public WorkloadGenerator(long seed) {
+        this(seed, new UtilizationModelCache());
+    }
+
+    public WorkloadGenerator(long seed, UtilizationModelCache modelCache) {
         this.random = new Random(seed);
+        this.slaRandom = new Random(~seed);
+        this.modelCache = modelCache;
+    }
+
+    /**
+     * Gives every generated task a deadline: its run time on a PE of the reference MIPS (length / (MIPS * CPU
+     * utilization), as the space-shared scheduler runs it) plus a slack drawn uniformly from [minSlack, maxSlack]
+     * seconds. The slack has to cover queueing: tasks submitted together wait for each other.
+     */
+    public WorkloadGenerator setDeadlines(double referenceMips, double minSlack, double maxSlack) {
+        if (referenceMips <= 0 || minSlack < 0 || maxSlack < minSlack) {
+            throw new IllegalArgumentException("Deadlines need MIPS > 0 and 0 <= minSlack <= maxSlack");
+        }
+        this.deadlineReferenceMips = referenceMips;
+        this.minSlack = minSlack;
+        this.maxSlack = maxSlack;
+        return this;
+    }
+
+    /**
+     * Gives every generated task a priority drawn uniformly from 0 (least urgent) to levels - 1.
+     */
+    public WorkloadGenerator setPriorityLevels(int levels) {
+        if (levels < 0) {
+            throw new IllegalArgumentException("Priority levels must be >= 0");
+        }
+        this.priorityLevels = levels;
+        return this;
     }
 
     public List<Cloudlet> createCloudlets(
@@ -71,39 +120,19 @@ public class WorkloadGenerator {
 
         for (int i = 0; i < numCloudlets; i++) {
             long length = randomLongBetween(minLength, maxLength);
+            double[] utilization = drawUtilization(workloadType);
 
-            UtilizationModel cpuModel;
-            UtilizationModel ramModel;
-            UtilizationModel bwModel;
-
-            switch (workloadType) {
-                case CPU_HEAVY:
-                    cpuModel = constantUtilization(randDouble(CPU_HEAVY_CPU_MIN, CPU_HEAVY_CPU_MAX));
-                    ramModel = constantUtilization(randDouble(CPU_HEAVY_RAM_MIN, CPU_HEAVY_RAM_MAX));
-                    bwModel  = constantUtilization(randDouble(CPU_HEAVY_BW_MIN, CPU_HEAVY_BW_MAX));
-                    break;
-
-                case RAM_HEAVY:
-                    cpuModel = constantUtilization(randDouble(RAM_HEAVY_CPU_MIN, RAM_HEAVY_CPU_MAX));
-                    ramModel = constantUtilization(randDouble(RAM_HEAVY_RAM_MIN, RAM_HEAVY_RAM_MAX));
-                    bwModel  = constantUtilization(randDouble(RAM_HEAVY_BW_MIN, RAM_HEAVY_BW_MAX));
-                    break;
-
-                case BALANCED:
-                default:
-                    cpuModel = constantUtilization(randDouble(BALANCED_CPU_MIN, BALANCED_CPU_MAX));
-                    ramModel = constantUtilization(randDouble(BALANCED_RAM_MIN, BALANCED_RAM_MAX));
-                    bwModel  = constantUtilization(randDouble(BALANCED_BW_MIN, BALANCED_BW_MAX));
-                    break;
-            }
-
-            Cloudlet cloudlet =
-                    new CloudletSimple(length, pesNumber)
-                            .setFileSize(fileSize)
-                            .setOutputSize(outputSize)
-                            .setUtilizationModelCpu(cpuModel)
-                            .setUtilizationModelRam(ramModel)
-                            .setUtilizationModelBw(bwModel);
+            double deadline = drawDeadline(length, utilization[CPU]);
+
+            Cloudlet cloudlet = deadline < Double.POSITIVE_INFINITY
+                    ? new DeadlineCloudlet(length, pesNumber, deadline)
+                    : new CloudletSimple(length, pesNumber);
+            cloudlet.setFileSize(fileSize)
+                    .setOutputSize(outputSize)
+                    .setUtilizationModelCpu(constantUtilization(utilization[CPU]))
+                    .setUtilizationModelRam(constantUtilization(utilization[RAM]))
+                    .setUtilizationModelBw(constantUtilization(utilization[BW]));
+            cloudlet.setPriority(drawPriority());
 
             list.add(cloudlet);
         }
@@ -111,6 +140,35 @@ public class WorkloadGenerator {
         return list;
     }
 
+    /**
+     * Same workload as {@link #createCloudlets} for the same seed, as task descriptions instead of cloudlets:
+     * what a task file would hold, without writing or parsing one.
+     */
+    public CloudletInfo[] createCloudletInfos(
+            int numCloudlets,
+            WorkloadType workloadType,
+            int pesNumber,
+            long minLength,
+            long maxLength,
+            long fileSize,
+            long outputSize
+    ) {
+        CloudletInfo[] infos = new CloudletInfo[numCloudlets];
+
+        for (int i = 0; i < numCloudlets; i++) {
+            long length = randomLongBetween(minLength, maxLength);
+            double[] utilization = drawUtilization(workloadType);
+
+            // Generated cloudlets have no id until a broker assigns one, and neither do task files
+            infos[i] = new CloudletInfo(-1, workloadType.name(), length, pesNumber, fileSize, outputSize,
+                    utilization[CPU], utilization[RAM], utilization[BW], 0.0);
+            infos[i].setDeadline(drawDeadline(length, utilization[CPU]));
+            infos[i].setPriority(drawPriority());
+        }
+
+        return infos;
+    }
+
     public List<Cloudlet> createMixedSizeCloudlets(
             int smallCount, int mediumCount, int largeCount,
             WorkloadType workloadType,
@@ -144,8 +202,48 @@ public class WorkloadGenerator {
         return all;
     }
 
+    // CPU, RAM and BW utilization, drawn in that order
+    private double[] drawUtilization(WorkloadType workloadType) {
+        switch (workloadType) {
+            case CPU_HEAVY:
+                return new double[]{
+                        randDouble(CPU_HEAVY_CPU_MIN, CPU_HEAVY_CPU_MAX),
+                        randDouble(CPU_HEAVY_RAM_MIN, CPU_HEAVY_RAM_MAX),
+                        randDouble(CPU_HEAVY_BW_MIN, CPU_HEAVY_BW_MAX)
+                };
+
+            case RAM_HEAVY:
+                return new double[]{
+                        randDouble(RAM_HEAVY_CPU_MIN, RAM_HEAVY_CPU_MAX),
+                        randDouble(RAM_HEAVY_RAM_MIN, RAM_HEAVY_RAM_MAX),
+                        randDouble(RAM_HEAVY_BW_MIN, RAM_HEAVY_BW_MAX)
+                };
+
+            case BALANCED:
+            default:
+                return new double[]{
+                        randDouble(BALANCED_CPU_MIN, BALANCED_CPU_MAX),
+                        randDouble(BALANCED_RAM_MIN, BALANCED_RAM_MAX),
+                        randDouble(BALANCED_BW_MIN, BALANCED_BW_MAX)
+                };
+        }
+    }
+
+    // Infinite when deadlines are off
+    private double drawDeadline(long length, double cpuUtil) {
+        if (deadlineReferenceMips <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double runTime = length / (deadlineReferenceMips * Math.max(cpuUtil, 0.01));
+        return runTime + minSlack + slaRandom.nextDouble() * (maxSlack - minSlack);
+    }
+
+    private int drawPriority() {
+        return priorityLevels < 2 ? 0 : slaRandom.nextInt(priorityLevels);
+    }
+
     private UtilizationModel constantUtilization(double value) {
-        return new UtilizationModelDynamic(value);
+        return modelCache.get(value);
     }
 
     private long randomLongBetween(long min, long max) {
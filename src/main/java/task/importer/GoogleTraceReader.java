@@ -0,0 +1,216 @@
+package task.importer;
+
+import task.model.CloudletInfo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads Google-cluster-style task event CSV files (the 2011 "task_events" layout, no header): timestamp in
+ * microseconds, missing info, job id, task index, machine id, event type, user, scheduling class, priority,
+ * CPU request, memory request, disk request, different-machine constraint. Requests are normalised to the
+ * largest machine, which {@link TraceMapping#machinePes} and {@link TraceMapping#machineRamMb} describe.
+ *
+ * A task is emitted when it FINISHes: its run time is FINISH - SCHEDULE, its arrival the SUBMIT time, and its
+ * priority the trace priority (0-11, higher is more important). The trace has no deadlines.
+ * Evicted, failed, killed and lost attempts are skipped. The input may be a single file or a directory of
+ * shards (*.csv, *.csv.gz, read in name order, as the shards are time-ordered). Memory holds the tasks that
+ * are pending or running at the current point of the trace, not the trace itself.
+ */
+public class GoogleTraceReader implements TraceReader {
+
+    private static final int TIMESTAMP = 0;
+    private static final int JOB_ID = 2;
+    private static final int TASK_INDEX = 3;
+    private static final int EVENT_TYPE = 5;
+    private static final int PRIORITY = 8;
+    private static final int CPU_REQUEST = 9;
+    private static final int MEMORY_REQUEST = 10;
+    private static final int FIELD_COUNT = 13;
+
+    private static final int SUBMIT = 0;
+    private static final int SCHEDULE = 1;
+    private static final int EVICT = 2;
+    private static final int FAIL = 3;
+    private static final int FINISH = 4;
+    private static final int KILL = 5;
+    private static final int LOST = 6;
+
+    private static final double MICROS = 1_000_000.0;
+
+    public static final String WORKLOAD_TYPE = "TRACE_GOOGLE";
+
+    private static class OpenTask {
+        long submitTime = -1;
+        long scheduleTime = -1;
+        double cpuRequest;
+        double memoryRequest;
+        int priority;
+    }
+
+    private final List<Path> files;
+    private final TraceMapping mapping;
+    private final Map<String, OpenTask> openTasks = new HashMap<>();
+    private int nextFile;
+    private BufferedReader reader;
+    private long firstSubmitTime = -1;
+    private long nextId;
+    private long skipped;
+
+    public GoogleTraceReader(Path input, TraceMapping mapping) throws IOException {
+        if (Files.isDirectory(input)) {
+            try (Stream<Path> shards = Files.list(input)) {
+                this.files = shards
+                        .filter(p -> p.toString().endsWith(".csv") || p.toString().endsWith(".csv.gz"))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        } else {
+            this.files = List.of(input);
+        }
+        this.mapping = mapping;
+    }
+
+    @Override
+    public CloudletInfo next() throws IOException {
+        String line;
+        while ((line = nextLine()) != null) {
+            String[] fields = line.split(",", -1);
+            if (fields.length < FIELD_COUNT) {
+                skipped++;
+                continue;
+            }
+
+            long time;
+            int eventType;
+            try {
+                time = parseLong(fields[TIMESTAMP]);
+                eventType = (int) parseLong(fields[EVENT_TYPE]);
+            } catch (NumberFormatException e) {
+                skipped++;
+                continue;
+            }
+            String key = fields[JOB_ID] + ':' + fields[TASK_INDEX];
+
+            switch (eventType) {
+                case SUBMIT: {
+                    OpenTask task = new OpenTask();
+                    task.submitTime = time;
+                    updateRequests(task, fields);
+                    openTasks.put(key, task);
+                    if (firstSubmitTime < 0 && time > 0) {
+                        firstSubmitTime = time;
+                    }
+                    break;
+                }
+                case SCHEDULE: {
+                    OpenTask task = openTasks.computeIfAbsent(key, k -> new OpenTask());
+                    task.scheduleTime = time;
+                    updateRequests(task, fields);
+                    break;
+                }
+                case FINISH: {
+                    OpenTask task = openTasks.remove(key);
+                    if (task == null || task.scheduleTime < 0 || time <= task.scheduleTime) {
+                        skipped++;
+                        break;
+                    }
+                    return toCloudletInfo(task, time);
+                }
+                case EVICT:
+                case FAIL:
+                case KILL:
+                case LOST:
+                    if (openTasks.remove(key) != null) {
+                        skipped++;
+                    }
+                    break;
+                default:
+                    // UPDATE_PENDING / UPDATE_RUNNING only change the requests
+                    OpenTask task = openTasks.get(key);
+                    if (task != null) {
+                        updateRequests(task, fields);
+                    }
+            }
+        }
+        return null;
+    }
+
+    private CloudletInfo toCloudletInfo(OpenTask task, long finishTime) {
+        double runTime = (finishTime - task.scheduleTime) / MICROS;
+        long arrival = task.submitTime >= 0 ? task.submitTime : task.scheduleTime;
+        double delay = firstSubmitTime < 0 ? 0.0 : Math.max(0, arrival - firstSubmitTime) / MICROS;
+
+        // Usage is not part of the task events, so tasks are assumed to keep their requested cores busy
+        double processors = Math.max(task.cpuRequest * mapping.machinePes, 1e-3);
+        double ramMb = task.memoryRequest * mapping.machineRamMb;
+
+        TraceMapping.MappedTask mapped = mapping.map(processors, runTime, 1.0, ramMb);
+        CloudletInfo info = new CloudletInfo(nextId++, WORKLOAD_TYPE, mapped.length, mapped.pes, mapping.fileSize,
+                mapping.outputSize, mapped.cpuUtil, mapped.ramUtil, mapping.bwUtil, delay);
+        info.setPriority(task.priority);
+        return info;
+    }
+
+    // Empty or malformed requests keep the previous value
+    private static void updateRequests(OpenTask task, String[] fields) {
+        task.cpuRequest = parseDouble(fields[CPU_REQUEST], task.cpuRequest);
+        task.memoryRequest = parseDouble(fields[MEMORY_REQUEST], task.memoryRequest);
+        task.priority = (int) parseDouble(fields[PRIORITY], task.priority);
+    }
+
+    private static double parseDouble(String value, double fallback) {
+        try {
+            return value.isEmpty() ? fallback : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private String nextLine() throws IOException {
+        while (true) {
+            if (reader == null) {
+                if (nextFile >= files.size()) {
+                    return null;
+                }
+                reader = TraceReader.openText(files.get(nextFile++));
+            }
+            String line = reader.readLine();
+            if (line != null) {
+                return line;
+            }
+            reader.close();
+            reader = null;
+        }
+    }
+
+    private static long parseLong(String value) {
+        return value.isEmpty() ? -1 : Long.parseLong(value);
+    }
+
+    /**
+     * Tasks still pending or running when the trace ends are dropped; this is how many.
+     */
+    public int getOpenTaskCount() {
+        return openTasks.size();
+    }
+
+    @Override
+    public long getSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package task.importer;
+
+import task.model.CloudletInfo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Reads Standard Workload Format traces (Parallel Workloads Archive): one job per line, 18 whitespace-separated
+ * fields, -1 for unknown values, comment lines starting with ';'.
+ *
+ * Fields used: submit time (arrival), run time, allocated processors (requested when unknown), average CPU time
+ * per processor (CPU utilization = CPU time / run time, 1 when unknown) and used memory per processor in KB
+ * (requested when unknown). Jobs without a positive run time or processor count are skipped.
+ * Stateless apart from the first submit time, so memory does not depend on the trace size.
+ */
+public class SwfTraceReader implements TraceReader {
+
+    private static final int SUBMIT_TIME = 1;
+    private static final int RUN_TIME = 3;
+    private static final int ALLOCATED_PROCESSORS = 4;
+    private static final int AVERAGE_CPU_TIME = 5;
+    private static final int USED_MEMORY = 6;
+    private static final int REQUESTED_PROCESSORS = 7;
+    private static final int REQUESTED_MEMORY = 9;
+    private static final int FIELD_COUNT = 18;
+
+    public static final String WORKLOAD_TYPE = "TRACE_SWF";
+
+    private final BufferedReader reader;
+    private final TraceMapping mapping;
+    private final String[] fields = new String[FIELD_COUNT];
+    private double firstSubmitTime = Double.NaN;
+    private long nextId;
+    private long skipped;
+
+    public SwfTraceReader(Path path, TraceMapping mapping) throws IOException {
+        this.reader = TraceReader.openText(path);
+        this.mapping = mapping;
+    }
+
+    @Override
+    public CloudletInfo next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith(";")) {
+                continue;
+            }
+            if (split(line) < FIELD_COUNT) {
+                skipped++;
+                continue;
+            }
+
+            double runTime = number(RUN_TIME);
+            double processors = number(ALLOCATED_PROCESSORS) > 0 ? number(ALLOCATED_PROCESSORS)
+                    : number(REQUESTED_PROCESSORS);
+            if (runTime <= 0 || processors <= 0) {
+                skipped++;
+                continue;
+            }
+
+            double cpuTime = number(AVERAGE_CPU_TIME);
+            double cpuUtil = cpuTime > 0 ? Math.min(1.0, cpuTime / runTime) : 1.0;
+            double memoryKb = number(USED_MEMORY) > 0 ? number(USED_MEMORY) : number(REQUESTED_MEMORY);
+            double ramMb = memoryKb > 0 ? memoryKb * processors / 1024.0 : 0.0;
+
+            double submitTime = number(SUBMIT_TIME);
+            if (Double.isNaN(firstSubmitTime)) {
+                firstSubmitTime = submitTime;
+            }
+
+            TraceMapping.MappedTask task = mapping.map(processors, runTime, cpuUtil, ramMb);
+            return new CloudletInfo(nextId++, WORKLOAD_TYPE, task.length, task.pes, mapping.fileSize,
+                    mapping.outputSize, task.cpuUtil, task.ramUtil, mapping.bwUtil,
+                    Math.max(0.0, submitTime - firstSubmitTime));
+        }
+        return null;
+    }
+
+    @Override
+    public long getSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int split(String line) {
+        int count = 0;
+        int start = -1;
+        for (int i = 0; i <= line.length() && count < FIELD_COUNT; i++) {
+            boolean space = i == line.length() || Character.isWhitespace(line.charAt(i));
+            if (!space && start < 0) {
+                start = i;
+            } else if (space && start >= 0) {
+                fields[count++] = line.substring(start, i);
+                start = -1;
+            }
+        }
+        return count;
+    }
+
+    private double number(int field) {
+        try {
+            return Double.parseDouble(fields[field]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package task.importer;
+
+import task.model.CloudletInfo;
+import task.utils.BinaryTaskFile;
+import task.utils.TaskFileWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Converts a cluster trace into a task file the runners can load, streaming record by record.
+ *
+ * Usage: {@code TraceImporter <swf|google> <trace file or shard directory> <output .json|.tasks> [maxTasks]}
+ *
+ * A {@code .tasks} output is written in the binary task format ({@link BinaryTaskFile}), which loads several
+ * times faster than JSON; any other extension produces the usual JSON task file. Task arrival times become
+ * cloudlet submission delays.
+ */
+public class TraceImporter {
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: TraceImporter <swf|google> <trace> <output .json|.tasks> [maxTasks]");
+            return;
+        }
+        String format = args[0];
+        Path input = Path.of(args[1]);
+        Path output = Path.of(args[2]);
+        long maxTasks = args.length > 3 ? Long.parseLong(args[3]) : Long.MAX_VALUE;
+
+        // Reference fleet the trace is replayed on; adjust to match the topology it will run with
+        TraceMapping mapping = new TraceMapping();
+
+        long startTimeMs = System.currentTimeMillis();
+        try {
+            TraceReader reader;
+            switch (format) {
+                case "swf":
+                    reader = new SwfTraceReader(input, mapping);
+                    break;
+                case "google":
+                    reader = new GoogleTraceReader(input, mapping);
+                    break;
+                default:
+                    System.err.println("Unknown trace format: " + format + " (expected swf or google)");
+                    return;
+            }
+
+            long written = 0;
+            double lastArrival = 0;
+            String workloadType = format.equals("swf")
+                    ? SwfTraceReader.WORKLOAD_TYPE
+                    : GoogleTraceReader.WORKLOAD_TYPE;
+            try (reader; TaskFileWriter writer = TaskFileWriter.open(output, workloadType)) {
+                CloudletInfo info;
+                while (written < maxTasks && (info = reader.next()) != null) {
+                    writer.write(info);
+                    lastArrival = Math.max(lastArrival, info.getSubmissionDelay());
+                    written++;
+                }
+            }
+
+            long elapsedMs = System.currentTimeMillis() - startTimeMs;
+            System.out.printf(Locale.US, "Imported %d tasks from %s into %s in %d ms%n",
+                    written, input, output, elapsedMs);
+            System.out.printf(Locale.US, "Skipped records: %d, arrivals span %.1f s%n",
+                    reader.getSkipped(), lastArrival);
+            if (reader instanceof GoogleTraceReader) {
+                System.out.printf("Tasks unfinished at the end of the trace: %d%n",
+                        ((GoogleTraceReader) reader).getOpenTaskCount());
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Import failed: " + e.getMessage());
+        }
+    }
+}
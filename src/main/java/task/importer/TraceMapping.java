@@ -0,0 +1,58 @@
+package task.importer;
+
+/**
+ * How trace records become tasks: the reference VM a recorded run time is replayed on, and the machine a
+ * normalised (Google-style) resource request is relative to. Defaults match the default topology
+ * (5000 MIPS x 4 PE VMs with 16 GB, on 16 PE hosts with 64 GB).
+ *
+ * A task's length is its recorded run time times the reference MIPS times its CPU utilization, so it runs for
+ * about the recorded time on a reference VM PE. Tasks wider than the reference VM are narrowed to
+ * maxPes and lengthened accordingly, which keeps their total work.
+ */
+public class TraceMapping {
+
+    public double referenceMipsPerPe = 5_000;
+    public int maxPes = 4;
+    public long vmRamMb = 16_000;
+    public int machinePes = 16;
+    public long machineRamMb = 64_000;
+    public long fileSize = 300;
+    public long outputSize = 300;
+    // Trace records carry no bandwidth demand
+    public double bwUtil = 0.1;
+
+    static final double MIN_UTILIZATION = 0.01;
+
+    /**
+     * @param processors cores the task used in the trace (fractions allowed)
+     * @param runTime    recorded run time in seconds
+     * @param cpuUtil    busy fraction of those cores
+     * @param ramMb      total memory the task used, in MB
+     */
+    MappedTask map(double processors, double runTime, double cpuUtil, double ramMb) {
+        int pes = (int) Math.max(1, Math.min(maxPes, Math.ceil(processors)));
+        double util = clamp(cpuUtil * processors / Math.max(pes, processors), MIN_UTILIZATION, 1.0);
+        // Work beyond maxPes is folded into the length of the remaining PEs
+        double widthFactor = Math.max(1.0, processors / pes);
+        long length = Math.max(1, Math.round(runTime * referenceMipsPerPe * util * widthFactor));
+        return new MappedTask(length, pes, util, clamp(ramMb / vmRamMb, 0.0, 1.0));
+    }
+
+    static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    static class MappedTask {
+        final long length;
+        final int pes;
+        final double cpuUtil;
+        final double ramUtil;
+
+        MappedTask(long length, int pes, double cpuUtil, double ramUtil) {
+            this.length = length;
+            this.pes = pes;
+            this.cpuUtil = cpuUtil;
+            this.ramUtil = ramUtil;
+        }
+    }
+}
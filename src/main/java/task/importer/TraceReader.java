@@ -0,0 +1,43 @@
+package task.importer;
+
+import task.model.CloudletInfo;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a cluster trace as a stream of tasks. Readers hold at most one buffered chunk of the input plus the
+ * state the format needs (see each reader), never the whole trace.
+ */
+public interface TraceReader extends Closeable {
+
+    int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The next task, or null at the end of the trace. Ids are assigned in output order, from 0.
+     */
+    CloudletInfo next() throws IOException;
+
+    /**
+     * Records that could not be turned into a task (missing run time, failed or killed tasks, ...).
+     */
+    long getSkipped();
+
+    /**
+     * Opens a plain or gzip-compressed ({@code .gz}) text file with a large read buffer.
+     */
+    static BufferedReader openText(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (path.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+}
@@ -12,6 +12,26 @@ public class CloudletInfo {
     private double cpuUtil;
     private double ramUtil;
     private double bwUtil;
+    // Arrival time in seconds after the start of the run; absent (submitted at t = 0) for synthetic workloads
+    private Double submissionDelay;
+    // Seconds after submission by which the task should finish; absent when the task has no deadline
+    private Double deadline;
+    // Higher is more urgent; absent means 0
+    private Integer priority;
+
+    public CloudletInfo(long id, String workloadType, long length, long pes, long fileSize, long outputSize,
+                        double cpuUtil, double ramUtil, double bwUtil, double submissionDelay) {
+        this.id = id;
+        this.workloadType = workloadType;
+        this.length = length;
+        this.pes = pes;
+        this.fileSize = fileSize;
+        this.outputSize = outputSize;
+        this.cpuUtil = cpuUtil;
+        this.ramUtil = ramUtil;
+        this.bwUtil = bwUtil;
+        setSubmissionDelay(submissionDelay);
+    }
 
     public CloudletInfo(Cloudlet c, String workloadType) {
         this.id = c.getId();
@@ -23,6 +43,9 @@ public class CloudletInfo {
         this.cpuUtil = c.getUtilizationModelCpu().getUtilization(0);
         this.ramUtil = c.getUtilizationModelRam().getUtilization(0);
         this.bwUtil = c.getUtilizationModelBw().getUtilization(0);
+        setSubmissionDelay(c.getSubmissionDelay());
+        setDeadline(DeadlineCloudlet.deadlineOf(c));
+        setPriority(c.getPriority());
     }
 
     public long getId() {
@@ -96,4 +119,38 @@ public class CloudletInfo {
     public void setBwUtil(double bwUtil) {
         this.bwUtil = bwUtil;
     }
+
+    public double getSubmissionDelay() {
+        return submissionDelay == null ? 0.0 : submissionDelay;
+    }
+
+    public void setSubmissionDelay(double submissionDelay) {
+        this.submissionDelay = submissionDelay > 0 ? submissionDelay : null;
+    }
+
+    public boolean hasDeadline() {
+        return deadline != null;
+    }
+
+    /**
+     * Seconds after submission by which the task should finish, or {@link Double#POSITIVE_INFINITY} without one.
+     */
+    public double getDeadline() {
+        return deadline == null ? Double.POSITIVE_INFINITY : deadline;
+    }
+
+    /**
+     * A non-positive or infinite deadline removes it.
+     */
+    public void setDeadline(double deadline) {
+        this.deadline = deadline > 0 && deadline < Double.POSITIVE_INFINITY ? deadline : null;
+    }
+
+    public int getPriority() {
+        return priority == null ? 0 : priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority != 0 ? priority : null;
+    }
 }
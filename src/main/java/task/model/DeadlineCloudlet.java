@@ -0,0 +1,63 @@
+package task.model;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletSimple;
+
+/**
+ * Cloudlet with a deadline, which CloudSim Plus cloudlets do not have. Task files and the generator only create
+ * one for tasks that have a deadline; plain cloudlets have none, see {@link #deadlineOf}.
+ *
+ * The deadline is relative to the submission delay, so a task due 60 s after it arrives at t = 100 is due at
+ * t = 160. Priorities use the cloudlet's own priority field, read as "higher is more urgent" by this project
+ * (note that CloudletSchedulerCompletelyFair reads the same field as a niceness, where lower is more urgent).
+ */
+public class DeadlineCloudlet extends CloudletSimple {
+
+    private final double deadline;
+
+    public DeadlineCloudlet(long length, long pesNumber, double deadline) {
+        super(length, pesNumber);
+        if (!(deadline > 0)) {
+            throw new IllegalArgumentException("Deadline must be positive: " + deadline);
+        }
+        this.deadline = deadline;
+    }
+
+    /**
+     * Seconds after submission by which the cloudlet should finish.
+     */
+    public double getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Simulation time by which the cloudlet should finish.
+     */
+    public double getDueTime() {
+        return Math.max(0.0, getSubmissionDelay()) + deadline;
+    }
+
+    /**
+     * The cloudlet's deadline, or {@link Double#POSITIVE_INFINITY} for cloudlets without one.
+     */
+    public static double deadlineOf(Cloudlet cloudlet) {
+        return cloudlet instanceof DeadlineCloudlet ? ((DeadlineCloudlet) cloudlet).deadline
+                : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * The cloudlet's due time, or {@link Double#POSITIVE_INFINITY} for cloudlets without a deadline.
+     */
+    public static double dueTimeOf(Cloudlet cloudlet) {
+        return cloudlet instanceof DeadlineCloudlet ? ((DeadlineCloudlet) cloudlet).getDueTime()
+                : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Earliest due time first, then higher priority first; cloudlets without a deadline come after all others.
+     */
+    public static int compareUrgency(Cloudlet a, Cloudlet b) {
+        int byDueTime = Double.compare(dueTimeOf(a), dueTimeOf(b));
+        return byDueTime != 0 ? byDueTime : Integer.compare(b.getPriority(), a.getPriority());
+    }
+}
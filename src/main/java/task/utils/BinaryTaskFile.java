@@ -0,0 +1,99 @@
+package task.utils;
+
+import task.model.CloudletInfo;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary task file, for workloads too large to parse comfortably as JSON (e.g. imported traces).
+ *
+ * A header followed by fixed-size 80-byte records, big-endian (DataOutput), until end of file:
+ * <pre>
+ * HEADER  magic "TASK", version:u8, workloadType:utf
+ * RECORD  id:i64, length:i64, pes:i32, fileSize:i64, outputSize:i64,
+ *         cpuUtil:f64, ramUtil:f64, bwUtil:f64, submissionDelay:f64, deadline:f64, priority:i32
+ * </pre>
+ * A deadline of 0 means none. Version 1 files (68-byte records, without deadline and priority) are still read.
+ * Files use the {@link #EXTENSION} extension; {@link TaskUtils#loadCloudletInfos} picks the format by it.
+ */
+public final class BinaryTaskFile {
+
+    public static final String EXTENSION = ".tasks";
+
+    private static final int MAGIC = 0x5441534B; // "TASK"
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_DEADLINES = 1;
+
+    private BinaryTaskFile() {
+    }
+
+    public static boolean isBinary(Path path) {
+        return path.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    public static TaskFileWriter openWriter(Path path, String workloadType) throws IOException {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(workloadType);
+
+        return new TaskFileWriter() {
+            @Override
+            public void write(CloudletInfo info) throws IOException {
+                out.writeLong(info.getId());
+                out.writeLong(info.getLength());
+                out.writeInt((int) info.getPes());
+                out.writeLong(info.getFileSize());
+                out.writeLong(info.getOutputSize());
+                out.writeDouble(info.getCpuUtil());
+                out.writeDouble(info.getRamUtil());
+                out.writeDouble(info.getBwUtil());
+                out.writeDouble(info.getSubmissionDelay());
+                out.writeDouble(info.hasDeadline() ? info.getDeadline() : 0.0);
+                out.writeInt(info.getPriority());
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.close();
+            }
+        };
+    }
+
+    public static CloudletInfo[] read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a binary task file: " + path);
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION && version != VERSION_WITHOUT_DEADLINES) {
+                throw new IOException("Unsupported task file version " + version + ": " + path);
+            }
+            String workloadType = in.readUTF();
+
+            List<CloudletInfo> infos = new ArrayList<>();
+            while (true) {
+                long id;
+                try {
+                    id = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                CloudletInfo info = new CloudletInfo(id, workloadType, in.readLong(), in.readInt(), in.readLong(),
+                        in.readLong(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+                if (version != VERSION_WITHOUT_DEADLINES) {
+                    info.setDeadline(in.readDouble());
+                    info.setPriority(in.readInt());
+                }
+                infos.add(info);
+            }
+            return infos.toArray(new CloudletInfo[0]);
+        }
+    }
+}
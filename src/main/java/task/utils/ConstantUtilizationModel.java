@@ -0,0 +1,69 @@
+package task.utils;
+
+import org.cloudsimplus.core.Simulation;
+import org.cloudsimplus.utilizationmodels.UtilizationModel;
+
+/**
+ * Immutable utilization model that always returns the same percentage.
+ *
+ * Unlike {@link org.cloudsimplus.utilizationmodels.UtilizationModelDynamic}, it keeps no simulation
+ * reference or update state, so one instance can be shared by any number of cloudlets, even across
+ * simulations running on different threads. Instances are handed out by {@link UtilizationModelCache}.
+ */
+public final class ConstantUtilizationModel implements UtilizationModel {
+
+    private final double utilization;
+
+    ConstantUtilizationModel(double utilization) {
+        if (utilization < 0 || utilization > 1) {
+            throw new IllegalArgumentException("Utilization must be between 0 and 1: " + utilization);
+        }
+        this.utilization = utilization;
+    }
+
+    @Override
+    public Simulation getSimulation() {
+        return Simulation.NULL;
+    }
+
+    @Override
+    public Unit getUnit() {
+        return Unit.PERCENTAGE;
+    }
+
+    /**
+     * Ignored: the model does not depend on the simulation clock.
+     */
+    @Override
+    public UtilizationModel setSimulation(Simulation simulation) {
+        return this;
+    }
+
+    @Override
+    public double getUtilization(double time) {
+        return utilization;
+    }
+
+    @Override
+    public double getUtilization() {
+        return utilization;
+    }
+
+    @Override
+    public boolean isOverCapacityRequestAllowed() {
+        return false;
+    }
+
+    @Override
+    public UtilizationModel setOverCapacityRequestAllowed(boolean allow) {
+        if (allow) {
+            throw new UnsupportedOperationException("Shared constant utilization models are immutable");
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ConstantUtilizationModel(" + utilization + ")";
+    }
+}
@@ -0,0 +1,49 @@
+package task.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import task.model.CloudletInfo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a task file one task at a time, so workloads of any size are written in constant memory.
+ */
+public interface TaskFileWriter extends Closeable {
+
+    void write(CloudletInfo info) throws IOException;
+
+    /**
+     * Opens a binary writer for paths ending in {@link BinaryTaskFile#EXTENSION}, and a JSON writer producing
+     * the same layout as {@link TaskUtils#dumpCloudletsToJson} otherwise.
+     */
+    static TaskFileWriter open(Path path, String workloadType) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (BinaryTaskFile.isBinary(path)) {
+            return BinaryTaskFile.openWriter(path, workloadType);
+        }
+
+        Gson gson = new Gson();
+        JsonWriter json = new JsonWriter(Files.newBufferedWriter(path));
+        json.setIndent("  ");
+        json.beginArray();
+        return new TaskFileWriter() {
+            @Override
+            public void write(CloudletInfo info) {
+                gson.toJson(info, CloudletInfo.class, json);
+            }
+
+            @Override
+            public void close() throws IOException {
+                json.endArray();
+                json.close();
+            }
+        };
+    }
+}
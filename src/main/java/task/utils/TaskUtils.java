@@ -4,8 +4,8 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.cloudsimplus.cloudlets.Cloudlet;
 import org.cloudsimplus.cloudlets.CloudletSimple;
-import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
 import task.model.CloudletInfo;
+import task.model.DeadlineCloudlet;
 import task.model.WorkloadType;
 
 import java.io.IOException;
@@ -35,26 +35,79 @@ public enum TaskUtils {
         }
     }
 
+    /**
+     * Parses a task file in either format: binary for {@link BinaryTaskFile#EXTENSION} files, JSON otherwise.
+     */
+    public CloudletInfo[] loadCloudletInfos(Path inputPath) throws IOException {
+        return BinaryTaskFile.isBinary(inputPath)
+                ? BinaryTaskFile.read(inputPath)
+                : loadCloudletInfosFromJson(inputPath);
+    }
+
+    public List<Cloudlet> loadCloudlets(Path inputPath) throws IOException {
+        return toCloudlets(loadCloudletInfos(inputPath), new UtilizationModelCache());
+    }
+
+    /**
+     * File name without the task file extension, as used in report names.
+     */
+    public String workloadName(String fileName) {
+        if (fileName.endsWith(BinaryTaskFile.EXTENSION)) {
+            return fileName.substring(0, fileName.length() - BinaryTaskFile.EXTENSION.length());
+        }
+        return fileName.replace(".json", "");
+    }
+
     public List<Cloudlet> loadCloudletsFromJson(Path inputPath) throws IOException {
+        return loadCloudletsFromJson(inputPath, new UtilizationModelCache());
+    }
+
+    /**
+     * Loads cloudlets whose CPU, RAM and BW utilization models are shared through the given cache.
+     */
+    public List<Cloudlet> loadCloudletsFromJson(Path inputPath, UtilizationModelCache modelCache) throws IOException {
+        return toCloudlets(loadCloudletInfosFromJson(inputPath), modelCache);
+    }
+
+    /**
+     * Parses a task file without creating cloudlets. The result is immutable in practice and can be turned
+     * into cloudlets any number of times, which is what runs sharing one workload need: CloudSim Plus
+     * cloudlets cannot be reused across simulations.
+     */
+    public CloudletInfo[] loadCloudletInfosFromJson(Path inputPath) throws IOException {
         try (Reader reader = Files.newBufferedReader(inputPath)) {
             CloudletInfo[] infos = gson.fromJson(reader, CloudletInfo[].class);
-            List<Cloudlet> cloudlets = new ArrayList<>(infos.length);
+            if (infos == null) {
+                throw new IOException("Empty task file: " + inputPath);
+            }
+            return infos;
+        }
+    }
 
-            for (CloudletInfo info : infos) {
-                Cloudlet cloudlet =
-                        new CloudletSimple(info.getLength(), info.getPes())
-                                .setFileSize(info.getFileSize())
-                                .setOutputSize(info.getOutputSize())
-                                .setUtilizationModelCpu(new UtilizationModelDynamic(info.getCpuUtil()))
-                                .setUtilizationModelRam(new UtilizationModelDynamic(info.getRamUtil()))
-                                .setUtilizationModelBw(new UtilizationModelDynamic(info.getBwUtil()));
+    public List<Cloudlet> toCloudlets(CloudletInfo[] infos, UtilizationModelCache modelCache) {
+        List<Cloudlet> cloudlets = new ArrayList<>(infos.length);
 
-                cloudlet.setId(info.getId());
+        for (CloudletInfo info : infos) {
+            Cloudlet cloudlet = info.hasDeadline()
+                    ? new DeadlineCloudlet(info.getLength(), info.getPes(), info.getDeadline())
+                    : new CloudletSimple(info.getLength(), info.getPes());
+            cloudlet.setFileSize(info.getFileSize())
+                    .setOutputSize(info.getOutputSize())
+                    .setUtilizationModelCpu(modelCache.get(info.getCpuUtil()))
+                    .setUtilizationModelRam(modelCache.get(info.getRamUtil()))
+                    .setUtilizationModelBw(modelCache.get(info.getBwUtil()));
 
-                cloudlets.add(cloudlet);
+            cloudlet.setId(info.getId());
+            if (info.getPriority() != 0) {
+                cloudlet.setPriority(info.getPriority());
+            }
+            if (info.getSubmissionDelay() > 0) {
+                cloudlet.setSubmissionDelay(info.getSubmissionDelay());
             }
 
-            return cloudlets;
+            cloudlets.add(cloudlet);
         }
+
+        return cloudlets;
     }
 }
@@ -0,0 +1,129 @@
+package task.utils;
+
+import org.cloudsimplus.utilizationmodels.UtilizationModel;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Flyweight cache of constant utilization models, keyed by value.
+ *
+ * Every cloudlet used to get three fresh UtilizationModelDynamic objects (CPU, RAM, BW).
+ * The cache hands out shared {@link ConstantUtilizationModel} instances instead:
+ *  - with precision 0, values are used as-is and every request gets its own model, without going through
+ *    the map: random values almost never repeat, so interning them would cost a map entry per model
+ *    for no sharing. Each model is still much smaller than a UtilizationModelDynamic
+ *  - with a precision > 0 (e.g. 0.001), values are rounded to that step first, so a whole workload
+ *    shares at most 1/precision + 1 models per resource
+ *
+ * The cache is thread-safe and keeps statistics on the heap saved and the rounding error introduced.
+ */
+public class UtilizationModelCache {
+
+    // Shallow size of a UtilizationModelDynamic and of a ConstantUtilizationModel on a 64-bit JVM
+    // with compressed oops, measured with ThreadMXBean allocation counters
+    private static final long DYNAMIC_MODEL_BYTES = 64;
+    private static final long CONSTANT_MODEL_BYTES = 24;
+    // Per interned model: the ConcurrentHashMap node (32), its boxed Long key (24) and its table slot (~8)
+    private static final long MAP_ENTRY_BYTES = 64;
+
+    private final double precision;
+    private final ConcurrentMap<Long, ConstantUtilizationModel> models = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final DoubleAdder totalError = new DoubleAdder();
+    private final AtomicLong maxErrorBits = new AtomicLong(Double.doubleToLongBits(0.0));
+
+    /**
+     * Exact cache: values are never rounded.
+     */
+    public UtilizationModelCache() {
+        this(0.0);
+    }
+
+    /**
+     * @param precision rounding step for utilization values, or 0 to keep them exact
+     */
+    public UtilizationModelCache(double precision) {
+        if (precision < 0 || precision >= 1) {
+            throw new IllegalArgumentException("Precision must be in [0, 1): " + precision);
+        }
+        this.precision = precision;
+    }
+
+    public UtilizationModel get(double utilization) {
+        double value = quantise(utilization);
+        requests.increment();
+
+        double error = Math.abs(value - utilization);
+        if (error > 0) {
+            totalError.add(error);
+            maxErrorBits.accumulateAndGet(Double.doubleToLongBits(error),
+                    (current, candidate) -> Double.longBitsToDouble(candidate) > Double.longBitsToDouble(current)
+                            ? candidate : current);
+        }
+
+        if (precision == 0) {
+            return new ConstantUtilizationModel(value);
+        }
+        return models.computeIfAbsent(Double.doubleToLongBits(value), bits -> new ConstantUtilizationModel(value));
+    }
+
+    private double quantise(double utilization) {
+        if (precision == 0) {
+            return utilization;
+        }
+        double rounded = Math.round(utilization / precision) * precision;
+        return Math.max(0.0, Math.min(1.0, rounded));
+    }
+
+    public double getPrecision() {
+        return precision;
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Model instances handed out: one per request with precision 0, one per rounded value otherwise.
+     */
+    public long getDistinctModelCount() {
+        return precision == 0 ? getRequestCount() : models.size();
+    }
+
+    /**
+     * Estimated heap saved compared with allocating one UtilizationModelDynamic per request, counting the map
+     * entry of every interned model.
+     */
+    public long getEstimatedHeapSavedBytes() {
+        long perModel = precision == 0 ? CONSTANT_MODEL_BYTES : CONSTANT_MODEL_BYTES + MAP_ENTRY_BYTES;
+        return getRequestCount() * DYNAMIC_MODEL_BYTES - getDistinctModelCount() * perModel;
+    }
+
+    /**
+     * Drops the interned models, so long-lived owners can release them; models already handed out stay valid.
+     */
+    public void clear() {
+        models.clear();
+    }
+
+    public double getMeanQuantisationError() {
+        long count = getRequestCount();
+        return count > 0 ? totalError.sum() / count : 0.0;
+    }
+
+    public double getMaxQuantisationError() {
+        return Double.longBitsToDouble(maxErrorBits.get());
+    }
+
+    public String summary() {
+        return String.format(java.util.Locale.US,
+                "%d models requested, %d distinct, ~%.2f MB heap saved, quantisation error mean %.2e / max %.2e",
+                getRequestCount(), getDistinctModelCount(), getEstimatedHeapSavedBytes() / 1e6,
+                getMeanQuantisationError(), getMaxQuantisationError());
+    }
+}